@@ -0,0 +1,4 @@
+#!/bin/bash
+# Cho phép streaming replication từ container replica (chỉ chạy khi khởi tạo data directory lần đầu)
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,225 @@
+package com.bangvan.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Thay cho ConcurrentWebSocketSessionDecorator: một thread gửi tại một thời điểm, các thread khác đưa frame vào buffer
+ * của session rồi trả về ngay; buffer vượt sendBufferSizeLimit hoặc một lần gửi quá sendTimeLimit thì session bị đóng.
+ * Khác biệt: frame MESSAGE tới destination coalescable (snapshot/batch dashboard) được gộp trong buffer theo kiểu
+ * latest-wins, mỗi destination chỉ giữ frame mới nhất, nên session chậm không bị đóng chỉ vì dashboard bắn liên tục.
+ */
+@Slf4j
+public class CoalescingWebSocketSessionDecorator extends WebSocketSessionDecorator {
+
+    private static final String MESSAGE_FRAME_PREFIX = "MESSAGE\n";
+    private static final String DESTINATION_HEADER = "destination:";
+
+    private final int sendTimeLimit;
+    private final int bufferSizeLimit;
+    private final Predicate<String> coalescable;
+    private final Consumer<String> onCoalesced;
+
+    private final Deque<BufferedFrame> buffer = new ArrayDeque<>();
+    private final AtomicInteger bufferSize = new AtomicInteger();
+    private final Lock flushLock = new ReentrantLock();
+    private final Lock closeLock = new ReentrantLock();
+
+    private volatile long sendStartTime;
+    private volatile boolean limitExceeded;
+    private volatile boolean closeInProgress;
+
+    /**
+     * @param coalescable destination nào chỉ cần giữ frame mới nhất
+     * @param onCoalesced gọi với destination của frame cũ bị thay thế (metric)
+     */
+    public CoalescingWebSocketSessionDecorator(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit,
+                                               Predicate<String> coalescable, Consumer<String> onCoalesced) {
+        super(delegate);
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.coalescable = coalescable;
+        this.onCoalesced = onCoalesced;
+    }
+
+    public int getBufferSize() {
+        return bufferSize.get();
+    }
+
+    public int getBufferedFrameCount() {
+        synchronized (buffer) {
+            return buffer.size();
+        }
+    }
+
+    public long getTimeSinceSendStarted() {
+        long start = sendStartTime;
+        return (start > 0) ? System.currentTimeMillis() - start : 0;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (shouldNotSend()) {
+            return;
+        }
+        enqueue(message);
+        do {
+            if (!tryFlushBuffer()) {
+                checkSessionLimits();
+                break;
+            }
+        } while (!isBufferEmpty() && !shouldNotSend());
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        closeLock.lock();
+        try {
+            if (closeInProgress) {
+                return;
+            }
+            if (!CloseStatus.SESSION_NOT_RELIABLE.equals(status)) {
+                try {
+                    checkSessionLimits();
+                } catch (SessionLimitExceededException ex) {
+                    // session đã bị đánh dấu không tin cậy, đóng bên dưới
+                }
+                if (limitExceeded) {
+                    status = CloseStatus.SESSION_NOT_RELIABLE;
+                }
+            }
+            closeInProgress = true;
+            super.close(status);
+        } finally {
+            closeLock.unlock();
+        }
+    }
+
+    private void enqueue(WebSocketMessage<?> message) {
+        String destination = coalescableDestination(message);
+        String replaced = null;
+        synchronized (buffer) {
+            if (destination != null) {
+                for (Iterator<BufferedFrame> it = buffer.iterator(); it.hasNext(); ) {
+                    BufferedFrame frame = it.next();
+                    if (destination.equals(frame.destination())) {
+                        it.remove();
+                        bufferSize.addAndGet(-frame.message().getPayloadLength());
+                        replaced = destination;
+                        break;
+                    }
+                }
+            }
+            buffer.addLast(new BufferedFrame(message, destination));
+            bufferSize.addAndGet(message.getPayloadLength());
+        }
+        if (replaced != null) {
+            onCoalesced.accept(replaced);
+            log.debug("Coalesced buffered frame to {} for slow WebSocket session {}", replaced, getId());
+        }
+    }
+
+    private boolean tryFlushBuffer() throws IOException {
+        if (!flushLock.tryLock()) {
+            return false;
+        }
+        try {
+            while (true) {
+                BufferedFrame frame;
+                synchronized (buffer) {
+                    frame = buffer.pollFirst();
+                }
+                if (frame == null || shouldNotSend()) {
+                    break;
+                }
+                bufferSize.addAndGet(-frame.message().getPayloadLength());
+                sendStartTime = System.currentTimeMillis();
+                getDelegate().sendMessage(frame.message());
+                sendStartTime = 0;
+            }
+        } finally {
+            sendStartTime = 0;
+            flushLock.unlock();
+        }
+        return true;
+    }
+
+    private void checkSessionLimits() {
+        if (shouldNotSend() || !closeLock.tryLock()) {
+            return;
+        }
+        try {
+            if (getTimeSinceSendStarted() > sendTimeLimit) {
+                limitExceeded("Send time " + getTimeSinceSendStarted() + " (ms) for session '" + getId()
+                        + "' exceeded the allowed limit " + sendTimeLimit);
+            } else if (bufferSize.get() > bufferSizeLimit) {
+                limitExceeded("Buffer size " + bufferSize.get() + " bytes for session '" + getId()
+                        + "' exceeds the allowed limit " + bufferSizeLimit);
+            }
+        } finally {
+            closeLock.unlock();
+        }
+    }
+
+    private void limitExceeded(String reason) {
+        limitExceeded = true;
+        synchronized (buffer) {
+            buffer.clear();
+            bufferSize.set(0);
+        }
+        throw new SessionLimitExceededException(reason, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    private boolean shouldNotSend() {
+        return limitExceeded || closeInProgress;
+    }
+
+    private boolean isBufferEmpty() {
+        synchronized (buffer) {
+            return buffer.isEmpty();
+        }
+    }
+
+    /**
+     * Destination của frame STOMP MESSAGE nếu nó coalescable, ngược lại null.
+     * Chỉ đọc phần header (trước dòng trống đầu tiên).
+     */
+    private String coalescableDestination(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage textMessage)) {
+            return null;
+        }
+        String frame = textMessage.getPayload();
+        if (!frame.startsWith(MESSAGE_FRAME_PREFIX)) {
+            return null;
+        }
+        int headersEnd = frame.indexOf("\n\n");
+        int position = MESSAGE_FRAME_PREFIX.length();
+        while (position < headersEnd) {
+            int lineEnd = frame.indexOf('\n', position);
+            if (frame.startsWith(DESTINATION_HEADER, position)) {
+                String destination = frame.substring(position + DESTINATION_HEADER.length(), lineEnd);
+                return coalescable.test(destination) ? destination : null;
+            }
+            position = lineEnd + 1;
+        }
+        return null;
+    }
+
+    private record BufferedFrame(WebSocketMessage<?> message, String destination) {
+    }
+}
@@ -7,6 +7,8 @@ import org.modelmapper.spi.MappingContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+// Chỉ còn dùng để map request -> entity (create/partial update bỏ qua field null/rỗng).
+// Entity -> response dùng các mapper MapStruct trong package com.bangvan.mapper.
 @Configuration
 public class ModelMapperConfig {
     @Bean
@@ -0,0 +1,47 @@
+package com.bangvan.config;
+
+import com.bangvan.service.NotificationInboxService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Gửi inbox thông báo khi user subscribe /user/queue/notifications.
+ * Chạy sau khi UserDestinationMessageHandler đã chuyển SUBSCRIBE sang broker (brokerChannel đồng bộ),
+ * tức là subscription đã được đăng ký; SessionSubscribeEvent bắn ra trước thời điểm đó nên có thể làm rơi notification.
+ */
+@Component
+public class NotificationInboxSubscribeInterceptor implements ExecutorChannelInterceptor {
+
+    private static final String USER_NOTIFICATION_DESTINATION = "/user/queue/notifications";
+
+    private final NotificationInboxService notificationInboxService;
+
+    // @Lazy: NotificationInboxService -> RealtimeMessagingService -> SimpMessagingTemplate phụ thuộc ngược lại cấu hình WebSocket
+    public NotificationInboxSubscribeInterceptor(@Lazy NotificationInboxService notificationInboxService) {
+        this.notificationInboxService = notificationInboxService;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof UserDestinationMessageHandler)) {
+            return;
+        }
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        Principal user = accessor.getUser();
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                && user != null
+                && USER_NOTIFICATION_DESTINATION.equals(accessor.getDestination())) {
+            // @Async: round trip Redis không chạy trên thread clientInbound
+            notificationInboxService.deliverPending(user.getName());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.bangvan.config;
+
+import com.bangvan.service.CouponIndexService;
+import com.bangvan.service.DealIndexService;
+import com.bangvan.service.impl.CouponIndexServiceImpl;
+import com.bangvan.service.impl.DealIndexServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Subscribe các channel báo coupon/deal thay đổi để node hiện tại nạp lại index in-memory tương ứng.
+ */
+@Configuration
+@Slf4j
+public class PricingIndexConfig {
+
+    @Bean
+    public RedisMessageListenerContainer pricingIndexListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       CouponIndexService couponIndexService,
+                                                                       DealIndexService dealIndexService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            try {
+                couponIndexService.onRefreshMessage(new String(message.getBody(), StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                log.error("Failed to refresh active coupon index: {}", e.getMessage());
+            }
+        }, new ChannelTopic(CouponIndexServiceImpl.REFRESH_CHANNEL));
+        container.addMessageListener((message, pattern) -> {
+            try {
+                dealIndexService.refresh();
+            } catch (Exception e) {
+                log.error("Failed to refresh deal index: {}", e.getMessage());
+            }
+        }, new ChannelTopic(DealIndexServiceImpl.REFRESH_CHANNEL));
+        return container;
+    }
+}
@@ -28,6 +28,10 @@ import java.util.Map;
 @EnableCaching
 public class RedisConfig {
 
+    public static final Duration PRODUCT_DETAILS_TTL = Duration.ofHours(1);
+    // Đổi version khi shape của ProductResponse thay đổi để không đọc phải entry cũ không deserialize được
+    public static final String PRODUCT_DETAILS_KEY_PREFIX = "productDetails:v2::";
+
     @Value("${app.redis.port}")
     private int port;
 
@@ -55,9 +59,11 @@ public class RedisConfig {
     }
 
 
+    /**
+     * Serializer của RedisCacheManager, dùng chung cho các chỗ đọc/ghi thẳng key cache (MGET/pipeline).
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
-
+    public GenericJackson2JsonRedisSerializer cacheValueSerializer() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.activateDefaultTyping(
@@ -65,8 +71,13 @@ public class RedisConfig {
                 ObjectMapper.DefaultTyping.NON_FINAL,
                 JsonTypeInfo.As.PROPERTY
         );
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
 
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+
+        GenericJackson2JsonRedisSerializer serializer = cacheValueSerializer();
 
         RedisCacheConfiguration defaultCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
@@ -76,7 +87,8 @@ public class RedisConfig {
 
 
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-           cacheConfigurations.put("productDetails", defaultCacheConfig.entryTtl(Duration.ofHours(1)));
+           cacheConfigurations.put("productDetails", defaultCacheConfig.entryTtl(PRODUCT_DETAILS_TTL)
+                .computePrefixWith(cacheName -> PRODUCT_DETAILS_KEY_PREFIX));
         cacheConfigurations.put("categories", defaultCacheConfig.entryTtl(Duration.ofHours(24)));
 
         return RedisCacheManager.builder(redisConnectionFactory)
@@ -104,6 +116,8 @@ public class RedisConfig {
         redisTemplate.setConnectionFactory(redisConnectionFactory);
         redisTemplate.setKeySerializer(new StringRedisSerializer());
         redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(new StringRedisSerializer());
         return redisTemplate;
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.bangvan.config;
+
+import com.bangvan.service.ReplicaRoutingService;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Chọn primary/replica cho mỗi connection:
+ * - Transaction readOnly (gồm cả finder của Spring Data gọi ngoài transaction service) -> replica,
+ *   trừ khi replica đang lag/không truy cập được, hoặc user vừa ghi (read-your-writes).
+ * - Còn lại -> primary. Transaction ghi của user được ghi nhận sau khi commit; write thay mặt user khác
+ *   (payment callback, seller đổi trạng thái đơn) do service gọi ReplicaRoutingService.recordWriteAfterCommit.
+ * Phải được bọc trong LazyConnectionDataSourceProxy để connection chỉ được lấy sau khi cờ readOnly đã set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaRoutingService replicaRoutingService;
+
+    public ReplicaRoutingDataSource(ReplicaRoutingService replicaRoutingService) {
+        this.replicaRoutingService = replicaRoutingService;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String username = currentUsername();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return replicaRoutingService.useReplica(username) ? Target.REPLICA : Target.PRIMARY;
+        }
+        if (username != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            replicaRoutingService.recordWriteAfterCommit(username);
+        }
+        return Target.PRIMARY;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,49 @@
+package com.bangvan.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduler cho các @Scheduled job.
+ * - taskScheduler: pool chung (spring.task.scheduling.pool.size) cho flush/refresh/maintenance.
+ * - Job mà trễ là sai dữ liệu (lease node id của order id, heartbeat node WebSocket, đo lag replica) chạy trên
+ *   scheduler một thread riêng qua @Scheduled(scheduler = ...), không bị một batch flush/archive chậm chặn lại.
+ * Khai báo bean TaskScheduler làm Spring Boot bỏ scheduler tự cấu hình, nên taskScheduler được tạo lại ở đây
+ * từ builder của Boot để vẫn đọc spring.task.scheduling.*.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String ORDER_ID_LEASE_SCHEDULER = "orderIdLeaseScheduler";
+    public static final String WEBSOCKET_HEARTBEAT_SCHEDULER = "websocketHeartbeatScheduler";
+    public static final String REPLICA_LAG_SCHEDULER = "replicaLagScheduler";
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = ORDER_ID_LEASE_SCHEDULER)
+    public ThreadPoolTaskScheduler orderIdLeaseScheduler() {
+        return dedicatedScheduler("order-id-lease-");
+    }
+
+    @Bean(name = WEBSOCKET_HEARTBEAT_SCHEDULER)
+    public ThreadPoolTaskScheduler websocketHeartbeatScheduler() {
+        return dedicatedScheduler("ws-heartbeat-");
+    }
+
+    @Bean(name = REPLICA_LAG_SCHEDULER)
+    public ThreadPoolTaskScheduler replicaLagScheduler() {
+        return dedicatedScheduler("replica-lag-");
+    }
+
+    private static ThreadPoolTaskScheduler dedicatedScheduler(String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        return scheduler;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bangvan.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Thay cho @EnableWebSocketMessageBroker (các WebSocketMessageBrokerConfigurer như WebSocketConfig vẫn được áp dụng)
+ * để bọc session bằng {@link CoalescingWebSocketSessionDecorator} thay vì ConcurrentWebSocketSessionDecorator:
+ * giới hạn send-time / send-buffer-size vẫn lấy từ WebSocketConfig.configureWebSocketTransport.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    private final WebSocketOutboundInterceptor outboundInterceptor;
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(@Qualifier("clientInboundChannel") AbstractSubscribableChannel clientInboundChannel,
+                                                        @Qualifier("clientOutboundChannel") AbstractSubscribableChannel clientOutboundChannel) {
+        SubProtocolWebSocketHandler handler = new SubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel) {
+            @Override
+            protected WebSocketSession decorateSession(WebSocketSession session) {
+                return new CoalescingWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit(),
+                        outboundInterceptor::isDroppable, outboundInterceptor::recordDropped);
+            }
+        };
+        handler.setPhase(getPhase());
+        return handler;
+    }
+}
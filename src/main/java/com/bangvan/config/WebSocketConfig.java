@@ -4,6 +4,7 @@ import com.bangvan.service.JwtService;
 import com.bangvan.service.impl.CustomUserDetailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -18,12 +19,14 @@ import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * Cấu hình STOMP; broker được bật bởi {@link WebSocketBrokerConfig}.
+ */
 @Configuration
-@EnableWebSocketMessageBroker
 @RequiredArgsConstructor
 @Slf4j
 @Order(Ordered.HIGHEST_PRECEDENCE + 99)
@@ -31,6 +34,23 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtService jwtService;
     private final CustomUserDetailService userDetailsService;
+    private final WebSocketOutboundInterceptor outboundInterceptor;
+    private final NotificationInboxSubscribeInterceptor notificationInboxSubscribeInterceptor;
+
+    @Value("${app.websocket.outbound.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${app.websocket.outbound.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.outbound.executor.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.executor.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.executor.queue-capacity:10000}")
+    private int outboundQueueCapacity;
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -40,10 +60,29 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
                 registry.setApplicationDestinationPrefixes("/app");
+                        // Simple broker chỉ deliver cho session trên node này; fan-out giữa các node đi qua RealtimeMessagingService (Redis pub/sub)
                         registry.enableSimpleBroker("/topic", "/queue");
                 registry.setUserDestinationPrefix("/user");
     }
 
+    /**
+     * Giới hạn buffer gửi của từng session: session không nhận kịp trong sendTimeLimit
+     * hoặc buffer vượt sendBufferSizeLimit sẽ bị đóng thay vì giữ thread của outbound executor.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMillis)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(outboundInterceptor);
+    }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
@@ -75,6 +114,6 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 }
                 return message;
             }
-        });
+        }, notificationInboxSubscribeInterceptor);
     }
 }
\ No newline at end of file
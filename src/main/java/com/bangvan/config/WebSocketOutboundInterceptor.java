@@ -0,0 +1,243 @@
+package com.bangvan.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backpressure cho clientOutboundChannel.
+ * Đếm số message đang chờ gửi theo từng session (từ lúc vào channel tới khi handler xử lý xong).
+ * Khi một session vượt quá app.websocket.outbound.session-queue-limit, frame cũ nhất đang chờ tới các destination
+ * dashboard (app.websocket.outbound.droppable-destinations) bị bỏ (bỏ qua khi tới lượt xử lý) để nhường chỗ cho frame mới;
+ * các destination khác vẫn gửi, và session quá chậm sẽ bị đóng bởi send-time-limit / send-buffer-size-limit.
+ * Chỉ khai báo droppable cho destination của dashboard mà frame sau thay thế được frame trước (latest-wins):
+ * /topic/admin/orders và /topic/admin/order-events. Với order-events, session chậm mất các batch bị bỏ và
+ * dashboard phải tải lại danh sách đơn khi kết nối lại.
+ * Cùng danh sách đó được {@link CoalescingWebSocketSessionDecorator} dùng để gộp frame trong buffer của session,
+ * nơi frame thực sự dồn lại khi client không đọc kịp.
+ * Metric: websocket.outbound.queued (gauge) và websocket.outbound.dropped (counter) theo destination.
+ */
+@Component
+@Slf4j
+public class WebSocketOutboundInterceptor implements ExecutorChannelInterceptor {
+
+    private static final String USER_DESTINATION_SUFFIX = "-user";
+
+    private final MeterRegistry meterRegistry;
+    private final int sessionQueueLimit;
+    private final List<String> droppableDestinations;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Map<String, SessionQueue> queuedBySession = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> queuedByDestination = new ConcurrentHashMap<>();
+    private final Map<String, Counter> droppedByDestination = new ConcurrentHashMap<>();
+
+    public WebSocketOutboundInterceptor(MeterRegistry meterRegistry,
+                                        @Value("${app.websocket.outbound.session-queue-limit:100}") int sessionQueueLimit,
+                                        @Value("${app.websocket.outbound.droppable-destinations:/topic/admin/orders,/topic/admin/order-events}") List<String> droppableDestinations) {
+        this.meterRegistry = meterRegistry;
+        this.sessionQueueLimit = sessionQueueLimit;
+        this.droppableDestinations = droppableDestinations;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String sessionId = accessor.getSessionId();
+        if (sessionId == null || accessor.getMessageType() != SimpMessageType.MESSAGE) {
+            return message;
+        }
+
+        String destination = metricDestination(accessor);
+        // computeIfPresent: message tới muộn sau khi session đã disconnect không tạo lại entry
+        SessionQueue sessionQueue = queuedBySession.computeIfPresent(sessionId, (key, queue) -> {
+            queue.queued.incrementAndGet();
+            return queue;
+        });
+        if (sessionQueue == null) {
+            return message;
+        }
+        queuedGauge(destination).incrementAndGet();
+
+        if (isDroppable(destination)) {
+            QueuedFrame evicted;
+            synchronized (sessionQueue) {
+                sessionQueue.droppable.addLast(new QueuedFrame(message.getHeaders().getId(), destination));
+                evicted = (sessionQueue.queued.get() > sessionQueueLimit) ? sessionQueue.droppable.pollFirst() : null;
+                if (evicted != null && !evicted.id().equals(message.getHeaders().getId())) {
+                    sessionQueue.dropped.add(evicted.id());
+                }
+            }
+            if (evicted != null) {
+                // Frame bị bỏ không còn tính vào queue; beforeHandle sẽ bỏ qua nó khi tới lượt
+                sessionQueue.queued.updateAndGet(value -> Math.max(0, value - 1));
+                decrementGauge(evicted.destination());
+                droppedCounter(evicted.destination()).increment();
+                log.debug("Dropped oldest frame to {} for slow WebSocket session {} ({} queued)",
+                        evicted.destination(), sessionId, sessionQueue.queued.get());
+                if (evicted.id().equals(message.getHeaders().getId())) {
+                    return null;
+                }
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String sessionId = accessor.getSessionId();
+        if (sessionId == null || accessor.getMessageType() != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        SessionQueue sessionQueue = queuedBySession.get(sessionId);
+        if (sessionQueue == null) {
+            return message;
+        }
+        synchronized (sessionQueue) {
+            if (sessionQueue.dropped.remove(message.getHeaders().getId())) {
+                // Đã trừ khỏi queue lúc bị bỏ; trả null thì afterMessageHandled không được gọi cho interceptor này
+                return null;
+            }
+            sessionQueue.droppable.removeIf(frame -> frame.id().equals(message.getHeaders().getId()));
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Executor từ chối (queue đầy) -> message không bao giờ tới handler
+        if (!sent) {
+            release(message);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message);
+    }
+
+    @EventListener
+    public void handleSessionConnect(SessionConnectEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            queuedBySession.putIfAbsent(sessionId, new SessionQueue());
+        }
+    }
+
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        queuedBySession.remove(event.getSessionId());
+    }
+
+    private void release(Message<?> message) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String sessionId = accessor.getSessionId();
+        if (sessionId == null || accessor.getMessageType() != SimpMessageType.MESSAGE) {
+            return;
+        }
+        SessionQueue sessionQueue = queuedBySession.get(sessionId);
+        if (sessionQueue != null) {
+            synchronized (sessionQueue) {
+                if (sessionQueue.dropped.remove(message.getHeaders().getId())) {
+                    // frame đã bị bỏ và đã trừ khỏi queue
+                    return;
+                }
+                sessionQueue.droppable.removeIf(frame -> frame.id().equals(message.getHeaders().getId()));
+            }
+            sessionQueue.queued.updateAndGet(value -> Math.max(0, value - 1));
+        }
+        decrementGauge(metricDestination(accessor));
+    }
+
+    private void decrementGauge(String destination) {
+        AtomicInteger destinationQueued = queuedByDestination.get(destination);
+        if (destinationQueued != null) {
+            destinationQueued.updateAndGet(value -> Math.max(0, value - 1));
+        }
+    }
+
+    /**
+     * Ghi nhận một frame bị bỏ/gộp cho session chậm (cả ở executor lẫn ở buffer của session).
+     */
+    public void recordDropped(String destination) {
+        droppedCounter(destination).increment();
+    }
+
+    public boolean isDroppable(String destination) {
+        for (String pattern : droppableDestinations) {
+            if (pathMatcher.match(pattern, destination)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Destination dùng làm tag metric: ưu tiên destination gốc (/user/queue/...), bỏ hậu tố "-user{sessionId}"
+     * để tránh mỗi session sinh ra một time series riêng.
+     */
+    private String metricDestination(SimpMessageHeaderAccessor accessor) {
+        Object original = accessor.getHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+        String destination = (original != null) ? original.toString() : accessor.getDestination();
+        if (destination == null) {
+            return "unknown";
+        }
+        int userSuffix = destination.indexOf(USER_DESTINATION_SUFFIX);
+        return (userSuffix > 0) ? destination.substring(0, userSuffix) : destination;
+    }
+
+    private AtomicInteger queuedGauge(String destination) {
+        return queuedByDestination.computeIfAbsent(destination, key -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder("websocket.outbound.queued", value, AtomicInteger::get)
+                    .description("Outbound WebSocket messages waiting to be written")
+                    .tag("destination", key)
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+
+    private Counter droppedCounter(String destination) {
+        return droppedByDestination.computeIfAbsent(destination, key -> Counter.builder("websocket.outbound.dropped")
+                .description("Outbound WebSocket frames dropped for slow consumers")
+                .tag("destination", key)
+                .register(meterRegistry));
+    }
+
+    private record QueuedFrame(UUID id, String destination) {
+    }
+
+    /**
+     * Trạng thái queue của một session: tổng số frame đang chờ, các frame droppable theo thứ tự vào
+     * và id các frame đã bị bỏ nhưng còn nằm trong executor.
+     */
+    private static final class SessionQueue {
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Deque<QueuedFrame> droppable = new ArrayDeque<>();
+        private final Set<UUID> dropped = new HashSet<>();
+    }
+}
@@ -0,0 +1,37 @@
+package com.bangvan.config;
+
+import com.bangvan.service.RealtimeMessagingService;
+import com.bangvan.service.WebSocketSessionRegistry;
+import com.bangvan.service.impl.RealtimeMessagingServiceImpl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Subscribe các channel Redis dùng để relay message WebSocket giữa các node:
+ * channel broadcast chung và channel riêng của node hiện tại.
+ */
+@Configuration
+public class WebSocketRelayConfig {
+
+    @Bean
+    public RedisMessageListenerContainer webSocketRelayListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                         RealtimeMessagingService realtimeMessagingService,
+                                                                         WebSocketSessionRegistry sessionRegistry) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> realtimeMessagingService.handleRelayMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                List.of(
+                        new ChannelTopic(RealtimeMessagingServiceImpl.BROADCAST_CHANNEL),
+                        new ChannelTopic(RealtimeMessagingServiceImpl.NODE_CHANNEL_PREFIX + sessionRegistry.getNodeId())
+                )
+        );
+        return container;
+    }
+}
@@ -55,4 +55,28 @@ public class CartController {
         );
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/best-coupon")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Suggest the best coupon", description = "Find the active coupon giving the largest discount for the current user's cart.")
+    public ResponseEntity<ApiResponse> suggestBestCoupon(Principal principal) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Best coupon found successfully",
+                cartService.suggestBestCoupon(principal)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @PostMapping("/apply-best-coupon")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Apply the best coupon to the cart", description = "Apply the active coupon giving the largest discount to the current user's cart.")
+    public ResponseEntity<ApiResponse> applyBestCoupon(Principal principal) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Coupon applied successfully",
+                cartService.applyBestCoupon(principal)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+}
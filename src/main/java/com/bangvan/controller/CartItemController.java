@@ -53,11 +53,12 @@ public class CartItemController {
     @GetMapping("/{cartItemId}")
     @Operation(summary = "Get item from cart", description = "Get an item from the current user's shopping cart")
     public ResponseEntity<ApiResponse> getCartItem(
+            Principal principal,
             @PathVariable Long cartItemId) {
         ApiResponse apiResponse = ApiResponse.success(
                 HttpStatus.OK.value(),
                 "Item found successfully",
-                cartItemService.findCartItemById(cartItemId)
+                cartItemService.findCartItemById(principal, cartItemId)
         );
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
@@ -0,0 +1,71 @@
+package com.bangvan.controller;
+
+import com.bangvan.dto.request.deal.DealRequest;
+import com.bangvan.dto.response.ApiResponse;
+import com.bangvan.service.DealService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/deals")
+@RequiredArgsConstructor
+@Tag(name = "Deal", description = "Category Deal Management API")
+public class DealController {
+
+    private final DealService dealService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Create a new deal", description = "Endpoint for admins to create a category-wide deal.")
+    public ResponseEntity<ApiResponse> createDeal(@Valid @RequestBody DealRequest request) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.CREATED.value(),
+                "Deal created successfully",
+                dealService.createDeal(request)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.CREATED);
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Update an existing deal", description = "Endpoint for admins to update a deal.")
+    public ResponseEntity<ApiResponse> updateDeal(@PathVariable Long id, @Valid @RequestBody DealRequest request) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Deal updated successfully",
+                dealService.updateDeal(id, request)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Delete a deal", description = "Endpoint for admins to delete a deal.")
+    public ResponseEntity<ApiResponse> deleteDeal(@PathVariable Long id) {
+        dealService.deleteDeal(id);
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Deal deleted successfully",
+                null
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get all deals", description = "Endpoint for admins to list all deals.")
+    public ResponseEntity<ApiResponse> getAllDeals() {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Deals fetched successfully",
+                dealService.getAllDeals()
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,64 @@
+package com.bangvan.controller;
+
+import com.bangvan.dto.request.notification.MarkNotificationsReadRequest;
+import com.bangvan.dto.response.ApiResponse;
+import com.bangvan.service.NotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+@Tag(name = "Notification", description = "Notification Inbox API")
+@PreAuthorize("isAuthenticated()")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    @GetMapping
+    @Operation(summary = "Get notification feed", description = "Keyset-paginated notification feed of the current user. Pass nextCursor of the previous page as cursor.")
+    public ResponseEntity<ApiResponse> getNotificationFeed(
+            Principal principal,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", defaultValue = "20", required = false) int pageSize
+    ) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Notifications fetched successfully",
+                notificationService.getNotificationFeed(principal, cursor, pageSize)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/summary")
+    @Operation(summary = "Get notification summary", description = "Unread and total notification counts of the current user")
+    public ResponseEntity<ApiResponse> getNotificationSummary(Principal principal) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Notification summary fetched successfully",
+                notificationService.getNotificationSummary(principal)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @PatchMapping("/read")
+    @Operation(summary = "Mark notifications as read", description = "Marks the given notification ids as read, or all notifications when ids is empty")
+    public ResponseEntity<ApiResponse> markAsRead(
+            Principal principal,
+            @RequestBody(required = false) MarkNotificationsReadRequest request
+    ) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Notifications marked as read",
+                notificationService.markAsRead(principal, request)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+}
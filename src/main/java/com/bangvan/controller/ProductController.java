@@ -7,6 +7,11 @@ import com.bangvan.dto.response.ApiResponse;
 import com.bangvan.dto.response.PageCustomResponse;
 import com.bangvan.dto.response.product.ProductResponse;
 import com.bangvan.service.ProductService;
+import com.bangvan.service.ProductViewService;
+import com.bangvan.service.RecentlyViewedService;
+import com.bangvan.service.SalesRankingService;
+import com.bangvan.utils.RankingScope;
+import com.bangvan.utils.RankingWindow;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +28,7 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.nio.file.attribute.UserPrincipal;
 import java.security.Principal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
@@ -31,6 +37,9 @@ import java.security.Principal;
 public class ProductController {
 
     private final ProductService productService;
+    private final SalesRankingService salesRankingService;
+    private final ProductViewService productViewService;
+    private final RecentlyViewedService recentlyViewedService;
 
     @Operation(summary = "Create Product", description = "Create Product API")
     @PreAuthorize("hasRole('SELLER')")
@@ -41,20 +50,90 @@ public class ProductController {
         return new ResponseEntity<>(apiResponse, HttpStatus.CREATED);
     }
 
+    @GetMapping("/best-sellers")
+    @Operation(summary = "Get best-selling products",
+            description = "Top-N best sellers globally, per category (including sub-categories) or per seller, all-time or over the last 24h/7d.")
+    public ResponseEntity<ApiResponse> getBestSellers(
+            @RequestParam(value = "scope", defaultValue = "GLOBAL", required = false) RankingScope scope,
+            @RequestParam(value = "scopeId", required = false) Long scopeId,
+            @RequestParam(value = "window", defaultValue = "ALL_TIME", required = false) RankingWindow window,
+            @RequestParam(value = "limit", defaultValue = "10", required = false) int limit) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Best sellers fetched successfully",
+                salesRankingService.getBestSellers(scope, scopeId, window, limit)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
     @GetMapping("/{productId}")
     @Operation(summary = "Get a product by its ID", description = "Endpoint to fetch product details by ID")
-    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long productId) {
+    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long productId, Principal principal) {
+        ProductResponse product = productService.getProductById(productId);
+        // chỉ ghi vào buffer in-memory, được flush định kỳ xuống Redis
+        productViewService.recordView(productId);
+        if (principal != null) {
+            recentlyViewedService.record(principal.getName(), productId);
+        }
         ApiResponse apiResponse = ApiResponse.success(
                 HttpStatus.OK.value(),
                 "Product found successfully",
-                productService.getProductById(productId)
+                product
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/{productId}/views")
+    @Operation(summary = "Get product view stats", description = "Total views and current trending score of a product")
+    public ResponseEntity<ApiResponse> getProductViewStats(@PathVariable Long productId) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Product view stats fetched successfully",
+                productViewService.getViewStats(productId)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/batch")
+    @Operation(summary = "Get products by ids", description = "Fetch up to 100 products in one request, in the order of the given ids")
+    public ResponseEntity<ApiResponse> getProductsByIds(@RequestParam("ids") List<Long> ids) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Products fetched successfully",
+                productService.getProductsByIds(ids)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/recently-viewed")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get recently viewed products", description = "Products the current user viewed most recently, newest first")
+    public ResponseEntity<ApiResponse> getRecentlyViewedProducts(
+            Principal principal,
+            @RequestParam(value = "limit", defaultValue = "20", required = false) int limit) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Recently viewed products fetched successfully",
+                recentlyViewedService.getRecentlyViewed(principal.getName(), limit)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/trending")
+    @Operation(summary = "Get trending products", description = "Products ranked by recent views, older views decay over time")
+    public ResponseEntity<ApiResponse> getTrendingProducts(
+            @RequestParam(value = "limit", defaultValue = "10", required = false) int limit) {
+        ApiResponse apiResponse = ApiResponse.success(
+                HttpStatus.OK.value(),
+                "Trending products fetched successfully",
+                productViewService.getTrendingProducts(limit)
         );
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
     @GetMapping
     @Operation(summary = "Get all products with filters, pagination and sorting",
-            description = "Public endpoint to fetch a paginated list of products with various filters.")
+            description = "Public endpoint to fetch a paginated list of products with various filters. Use view=card for lightweight product cards.")
     public ResponseEntity<ApiResponse> getAllProducts(
             @RequestParam(value = "keyword", required = false) String keyword,
             @RequestParam(value = "categoryId", required = false) Long categoryId,
@@ -67,16 +146,21 @@ public class ProductController {
             @RequestParam(value = "pageNo", defaultValue = "1", required = false) int pageNo,
             @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
             @RequestParam(value = "sortBy", defaultValue = "createdAt", required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = "DESC", required = false) String sortDir
+            @RequestParam(value = "sortDir", defaultValue = "DESC", required = false) String sortDir,
+            @RequestParam(value = "view", defaultValue = "full", required = false) String view
     ) {
 
         String validSortBy = productService.validateSortByField(sortBy);
 
         Pageable pageable = PageRequest.of(pageNo - 1, pageSize, Sort.by(Sort.Direction.fromString(sortDir), validSortBy));
+        // view=card: chỉ trả các field của product card (id, title, 1 ảnh, giá, rating) cho grid
+        Object products = "card".equalsIgnoreCase(view)
+                ? productService.getProductCards(keyword, categoryId, sellerId, minPrice, maxPrice, color, size, minRating, pageable)
+                : productService.getAllProducts(keyword, categoryId, sellerId, minPrice, maxPrice, color, size, minRating, pageable);
         ApiResponse apiResponse = ApiResponse.success(
                 HttpStatus.OK.value(),
                 "Products fetched successfully",
-                productService.getAllProducts(keyword, categoryId, sellerId, minPrice, maxPrice, color, size, minRating, pageable)
+                products
         );
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
@@ -0,0 +1,24 @@
+package com.bangvan.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một dòng trong cart lưu ở Redis (cart đang hoạt động).
+ * unitPrice/unitSellingPrice (minor unit) là giá của lần định giá gần nhất, null nếu dòng chưa được định giá;
+ * cart được định giá lại đầy đủ mỗi lần xem, còn thao tác chỉ cần tổng tiền dùng giá đã lưu này.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLine {
+    private Long variantId;
+    private Long productId;
+    private int quantity;
+    private long addedAt;
+    private Long unitPrice;
+    private Long unitSellingPrice;
+}
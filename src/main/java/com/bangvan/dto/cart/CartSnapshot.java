@@ -0,0 +1,27 @@
+package com.bangvan.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSnapshot {
+    private Long cartId;
+    private String couponCode;
+    @Builder.Default
+    private List<CartLine> lines = new ArrayList<>();
+
+    public CartLine findLine(Long variantId) {
+        return lines.stream()
+                .filter(line -> line.getVariantId().equals(variantId))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bangvan.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Kết quả định giá cart (minor unit). couponCode chỉ khác null khi coupon hợp lệ và đã được áp dụng.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class CartTotals {
+    private final long totalPrice;
+    private final long subTotal;
+    private final long couponDiscount;
+    private final long totalSellingPrice;
+    private final int totalItem;
+    private final BigDecimal discount;
+    private final String couponCode;
+}
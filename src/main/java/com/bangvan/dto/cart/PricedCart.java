@@ -0,0 +1,42 @@
+package com.bangvan.dto.cart;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tổng tiền chạy (running totals) của một cart/đơn hàng theo minor unit.
+ * Mỗi dòng được tính giá một lần khi put; cart được dựng lại từ các dòng ở mỗi lần đọc/ghi.
+ * Đặt lại một variant đã có chỉ cộng trừ phần chênh lệch.
+ */
+@Getter
+public class PricedCart {
+    private final Map<Long, PricedLine> linesByVariant = new LinkedHashMap<>();
+    private long totalPrice;
+    private long totalSellingPrice;
+    private int totalItem;
+
+    public PricedLine put(PricedLine line) {
+        PricedLine previous = linesByVariant.put(line.getVariantId(), line);
+        if (previous != null) {
+            subtract(previous);
+        }
+        totalPrice = Math.addExact(totalPrice, line.getPrice());
+        totalSellingPrice = Math.addExact(totalSellingPrice, line.getSellingPrice());
+        totalItem += line.getQuantity();
+        return line;
+    }
+
+    public Collection<PricedLine> getLines() {
+        return Collections.unmodifiableCollection(linesByVariant.values());
+    }
+
+    private void subtract(PricedLine line) {
+        totalPrice -= line.getPrice();
+        totalSellingPrice -= line.getSellingPrice();
+        totalItem -= line.getQuantity();
+    }
+}
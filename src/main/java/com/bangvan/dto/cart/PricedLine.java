@@ -0,0 +1,18 @@
+package com.bangvan.dto.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Một dòng đã được định giá, mọi số tiền tính bằng minor unit (xem MoneyUtil).
+ */
+@Getter
+@AllArgsConstructor
+public class PricedLine {
+    private final Long variantId;
+    private final long unitPrice;
+    private final long unitSellingPrice;
+    private final int quantity;
+    private final long price;
+    private final long sellingPrice;
+}
@@ -0,0 +1,36 @@
+package com.bangvan.dto.coupon;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Bản sao bất biến của một coupon đang active, giữ trong index in-memory (CouponIndexService).
+ * Số tiền tính bằng minor unit, phần trăm bằng basis point (xem MoneyUtil).
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ActiveCoupon {
+    private final Long id;
+    private final String code;
+    private final BigDecimal discountPercentage;
+    private final long discountBasisPoints;
+    private final long minOrderValue;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    // Số lượt còn lại lúc nạp index, null = không giới hạn
+    private final Integer remainingUses;
+
+    public boolean isValidOn(LocalDate date) {
+        return (startDate == null || !startDate.isAfter(date))
+                && (endDate == null || !endDate.isBefore(date));
+    }
+
+    public boolean hasRemainingUses() {
+        return remainingUses == null || remainingUses > 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bangvan.dto.deal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bản sao bất biến của một deal đang active/sắp diễn ra, giữ trong index in-memory (DealIndexService).
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ActiveDeal {
+    private final Long id;
+    private final Long categoryId;
+    private final int discount;
+    private final LocalDateTime startAt;
+    private final LocalDateTime endAt;
+
+    public boolean isRunningAt(LocalDateTime time) {
+        return (startAt == null || !startAt.isAfter(time))
+                && (endAt == null || endAt.isAfter(time));
+    }
+}
@@ -29,5 +29,8 @@ public class CouponRequest {
 
     private BigDecimal minOrderValue;
 
+    @Min(value = 1, message = "Usage limit must be at least 1")
+    private Integer usageLimit;
+
     private Boolean isActive;
 }
\ No newline at end of file
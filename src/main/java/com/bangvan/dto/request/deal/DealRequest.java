@@ -0,0 +1,28 @@
+package com.bangvan.dto.request.deal;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class DealRequest {
+
+    @NotNull(message = "Category ID cannot be null")
+    private Long categoryId;
+
+    @NotNull(message = "Discount cannot be null")
+    @Min(value = 1, message = "Discount must be at least 1")
+    @Max(value = 100, message = "Discount must be less than or equal to 100")
+    private Integer discount;
+
+    private LocalDateTime startAt;
+
+    private LocalDateTime endAt;
+
+    private Boolean isActive;
+}
@@ -0,0 +1,13 @@
+package com.bangvan.dto.request.notification;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class MarkNotificationsReadRequest {
+    // null hoặc rỗng: đánh dấu đã đọc toàn bộ
+    private List<Long> ids;
+}
@@ -1,11 +1,7 @@
 package com.bangvan.dto.response.cart;
 
-import com.bangvan.dto.response.product.ProductResponse;
-import com.bangvan.entity.Cart;
-import com.bangvan.entity.Product;
-import com.bangvan.entity.ProductVariant;
-import com.fasterxml.jackson.annotation.JsonIgnore;
-import jakarta.persistence.*;
+import com.bangvan.dto.response.product.ProductSnapshotResponse;
+import com.bangvan.dto.response.product.ProductVariantResponse;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,9 +14,10 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 public class CartItemResponse {
+    // cart item được định danh bằng variantId (cart đang hoạt động nằm trong Redis)
     private Long id;
-    private Product product;
-    private ProductVariant variant;
+    private ProductSnapshotResponse product;
+    private ProductVariantResponse variant;
     private Integer quantity;
     private BigDecimal price;
     private BigDecimal sellingPrice;
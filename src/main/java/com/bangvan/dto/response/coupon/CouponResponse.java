@@ -16,4 +16,6 @@ public class CouponResponse {
     private LocalDate endDate;
     private BigDecimal minOrderValue;
     private Boolean isActive;
+    private Integer usageLimit;
+    private Integer usedCount;
 }
\ No newline at end of file
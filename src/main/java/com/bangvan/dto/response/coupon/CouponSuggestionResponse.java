@@ -0,0 +1,19 @@
+package com.bangvan.dto.response.coupon;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponSuggestionResponse {
+    private String code;
+    private BigDecimal discountPercentage;
+    private BigDecimal discountAmount;
+    private BigDecimal totalSellingPrice;
+}
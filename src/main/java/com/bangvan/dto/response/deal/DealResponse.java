@@ -0,0 +1,18 @@
+package com.bangvan.dto.response.deal;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class DealResponse {
+    private Long id;
+    private Long categoryId;
+    private String categoryName;
+    private Integer discount;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private Boolean isActive;
+}
@@ -1,7 +1,7 @@
 package com.bangvan.dto.response.order;
 
-import com.bangvan.entity.Product;
-import com.bangvan.entity.ProductVariant;
+import com.bangvan.dto.response.product.ProductSnapshotResponse;
+import com.bangvan.dto.response.product.ProductVariantResponse;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -11,8 +11,8 @@ import java.math.BigDecimal;
 @Setter
 public class OrderItemResponse {
     private Long id;
-    private Product product;
-    private ProductVariant variant;
+    private ProductSnapshotResponse product;
+    private ProductVariantResponse variant;
     private String productTitle;
     private String variantSku;
     private String color;
@@ -1,8 +1,7 @@
 package com.bangvan.dto.response.order;
 
-import com.bangvan.entity.Address;
-import com.bangvan.entity.OrderItem;
-import com.bangvan.entity.User;
+import com.bangvan.dto.response.user.AddressResponse;
+import com.bangvan.dto.response.user.UserResponse;
 import com.bangvan.utils.OrderStatus;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -19,8 +18,8 @@ import java.util.List;
 public class OrderResponse {
     private Long id;
     private String orderId;
-    private User user;
-    private Address shippingAddress;
+    private UserResponse user;
+    private AddressResponse shippingAddress;
     private BigDecimal totalPrice;
     private OrderStatus orderStatus;
     private int totalItem;
@@ -0,0 +1,16 @@
+package com.bangvan.dto.response.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestSellerResponse {
+    private Integer rank;
+    private Long sold;
+    private ProductResponse product;
+}
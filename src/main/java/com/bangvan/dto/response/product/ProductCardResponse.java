@@ -0,0 +1,43 @@
+package com.bangvan.dto.response.product;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * View gọn của product cho grid/listing: chỉ các cột cần hiển thị card, không có description, variant, seller.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductCardResponse {
+    Long id;
+    String title;
+    String image;
+    BigDecimal price;
+    BigDecimal sellingPrice;
+    Integer discountPercent;
+    Integer numRatings;
+    Double averageRating;
+    Integer sold;
+    Long categoryId;
+
+    Integer dealDiscount;
+    LocalDateTime dealEndAt;
+
+    // Constructor dùng cho constructor projection (ProductCardRepository)
+    public ProductCardResponse(Long id, String title, BigDecimal price, BigDecimal sellingPrice,
+                               Integer discountPercent, Integer numRatings, Integer sold, Long categoryId) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.sellingPrice = sellingPrice;
+        this.discountPercent = discountPercent;
+        this.numRatings = numRatings;
+        this.sold = sold;
+        this.categoryId = categoryId;
+    }
+}
@@ -7,6 +7,7 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -35,4 +36,8 @@ public class ProductResponse {
     Double averageRating;
     Integer totalQuantity;
     Integer totalSold;
+
+    // Deal đang chạy của category (sellingPrice/discountPercent đã bao gồm deal), null nếu không có
+    Integer dealDiscount;
+    LocalDateTime dealEndAt;
 }
\ No newline at end of file
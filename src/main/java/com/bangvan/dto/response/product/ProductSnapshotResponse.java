@@ -0,0 +1,23 @@
+package com.bangvan.dto.response.product;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+
+/**
+ * Thông tin product rút gọn nhúng trong cart item / order item (thay cho ProductResponse hay entity Product đầy đủ).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductSnapshotResponse {
+    Long id;
+    String title;
+    String image;
+    BigDecimal price;
+    BigDecimal sellingPrice;
+}
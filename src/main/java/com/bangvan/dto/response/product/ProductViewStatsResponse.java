@@ -0,0 +1,16 @@
+package com.bangvan.dto.response.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductViewStatsResponse {
+    private Long productId;
+    private Long views;
+    private Double trendingScore;
+}
@@ -1,7 +1,7 @@
 package com.bangvan.dto.response.seller;
 
 import com.bangvan.dto.response.user.UserResponse; // <-- THAY ĐỔI IMPORT
-import com.bangvan.entity.Address;
+import com.bangvan.dto.response.user.AddressResponse;
 import com.bangvan.entity.BankDetails;
 import com.bangvan.entity.BusinessDetails;
 // import com.bangvan.entity.User; // <-- BỎ IMPORT ENTITY
@@ -20,7 +20,7 @@ public class SellerResponse {
     private String avatar;
     private BusinessDetails businessDetails;
     private BankDetails bankDetails;
-    private Address pickupAddress;
+    private AddressResponse pickupAddress;
     private String gstin;
     private Boolean isEmailVerified;
     private AccountStatus accountStatus;
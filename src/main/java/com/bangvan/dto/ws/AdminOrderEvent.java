@@ -0,0 +1,48 @@
+package com.bangvan.dto.ws;
+
+import com.bangvan.entity.Order;
+import com.bangvan.utils.OrderStatus;
+import com.bangvan.utils.SocketEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bản ghi gọn của một thay đổi đơn hàng cho dashboard Admin.
+ * Client cần chi tiết thì gọi GET /api/orders/uuid/{orderId}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminOrderEvent {
+    private SocketEventType type;
+    private Long id;
+    private String orderId;
+    private OrderStatus orderStatus;
+    private BigDecimal totalPrice;
+    private Integer totalItem;
+    private Long sellerId;
+    private String sellerName;
+    private LocalDateTime occurredAt;
+
+    public static AdminOrderEvent of(SocketEventType type, Order order) {
+        return AdminOrderEvent.builder()
+                .type(type)
+                .id(order.getId())
+                .orderId(order.getOrderId())
+                .orderStatus(order.getOrderStatus())
+                .totalPrice(order.getTotalPrice())
+                .totalItem(order.getTotalItem())
+                .sellerId(order.getSeller().getId())
+                .sellerName(order.getSeller().getBusinessDetails() != null
+                        ? order.getSeller().getBusinessDetails().getBusinessName()
+                        : null)
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.bangvan.dto.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Message được publish qua Redis pub/sub để các node khác deliver tới session local.
+ * username == null nghĩa là broadcast tới topic (convertAndSend).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelayEnvelope {
+    private String originNode;
+    private String username;
+    private String destination;
+    private JsonNode payload;
+}
@@ -11,6 +11,18 @@ import java.util.Set;
 
 @Entity
 @Table(name = "carts")
+@NamedEntityGraph(name = Cart.ITEMS_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "cartItems", subgraph = "item-variant"),
+        subgraphs = @NamedSubgraph(name = "item-variant", attributeNodes = @NamedAttributeNode("variant")))
+// Checkout cần product và seller (kèm user) của mọi item để tách đơn theo seller và tính giá
+@NamedEntityGraph(name = Cart.CHECKOUT_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "cartItems", subgraph = "item-variant"),
+        subgraphs = {
+                @NamedSubgraph(name = "item-variant", attributeNodes = @NamedAttributeNode(value = "variant", subgraph = "variant-product")),
+                @NamedSubgraph(name = "variant-product", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product-seller")),
+                @NamedSubgraph(name = "product-seller", attributeNodes = @NamedAttributeNode(value = "seller", subgraph = "seller-user")),
+                @NamedSubgraph(name = "seller-user", attributeNodes = @NamedAttributeNode("user"))
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,11 +30,14 @@ import java.util.Set;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Cart {
 
+    public static final String ITEMS_GRAPH = "Cart.items";
+    public static final String CHECKOUT_GRAPH = "Cart.checkout";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     User user;
 
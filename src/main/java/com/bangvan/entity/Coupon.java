@@ -39,11 +39,21 @@ public class Coupon {
     @Column(name = "is_active")
     Boolean isActive = true;
 
-    @ManyToMany
+    // null = không giới hạn số lượt dùng
+    @Column(name = "usage_limit")
+    Integer usageLimit;
+
+    @Column(name = "used_count")
+    Integer usedCount = 0;
+
+    // Không load collection này trên hot path: lượt dùng được kiểm tra/ghi trực tiếp trên bảng user_coupon
+    // (xem CouponRepository.insertRedemptionIfAbsent)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_coupon",
             joinColumns = @JoinColumn(name = "coupon_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_user_coupon_coupon_user", columnNames = {"coupon_id", "user_id"})
     )
     Set<User> usedByUser = new HashSet<>();
 
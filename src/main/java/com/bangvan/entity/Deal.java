@@ -4,8 +4,12 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "deals")
+@Table(name = "deals", indexes = {
+        @Index(name = "idx_deals_category", columnList = "category_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,10 +21,21 @@ public class Deal {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // % giảm trên giá bán, áp dụng cho category và mọi category con
     private Integer discount;
 
-    @OneToOne
+    // một category có thể có nhiều deal ở các khung thời gian khác nhau
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-}
\ No newline at end of file
+    @Column(name = "start_at")
+    private LocalDateTime startAt;
+
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+
+}
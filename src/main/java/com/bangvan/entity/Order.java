@@ -5,13 +5,23 @@ import com.bangvan.utils.PaymentStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+// Partition LIST (archived) -> RANGE (order_date) theo tháng, xem V5__partition_orders.sql.
+// Unique index phải chứa partition key nên order_id chỉ có index thường; tính duy nhất toàn cục do OrderNumber giữ.
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_id", columnList = "order_id")
+})
+@NamedEntityGraph(name = Order.LIST_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode("shippingAddress")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,28 +29,36 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Order {
 
+    // Danh sách đơn phân trang: fetch to-one, orderItems (và variant của chúng) được batch-load theo trang
+    public static final String LIST_GRAPH = "Order.list";
+
+    // Sequence + pooled optimizer (allocationSize > 1): id cấp sẵn theo block 50, cho phép Hibernate batch INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     Long id;
 
     // Optimistic Locking: Ngăn chặn race condition khi buyer và seller cùng thao tác
     @Version
     Long version;
 
+    // Mã đơn public: đơn mới dùng OrderIdGenerator (13 ký tự, tăng theo thời gian), đơn cũ giữ UUID
+    @Column(name = "order_id", length = 36, nullable = false)
     String orderId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id")
     Seller seller;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     List<OrderItem> orderItems = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shipping_address_id")
     Address shippingAddress;
 
@@ -54,12 +72,18 @@ public class Order {
     @Enumerated(EnumType.STRING)
     PaymentStatus paymentStatus = PaymentStatus.PENDING;
 
+    // Partition key: không cập nhật qua JPA để tránh chuyển dòng giữa các partition
+    @Column(name = "order_date", nullable = false, updatable = false)
     LocalDateTime orderDate = LocalDateTime.now();
 
     LocalDateTime deliverDate = orderDate.plusDays(7);
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_order_id")
     PaymentOrder paymentOrder;
 
+    // Đơn DELIVERED/CANCELLED quá hạn được job archive chuyển sang partition orders_archive (native UPDATE)
+    @Column(name = "archived", nullable = false, updatable = false)
+    Boolean archived = false;
+
 }
\ No newline at end of file
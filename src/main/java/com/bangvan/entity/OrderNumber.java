@@ -0,0 +1,58 @@
+package com.bangvan.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mã đơn hàng duy nhất toàn cục. Bảng orders partition theo (archived, order_date) nên không thể có
+ * unique index trên order_id; bảng này (không partition) giữ ràng buộc đó và được ghi cùng transaction tạo order.
+ * Id gán sẵn: Persistable báo entity mới để save() gọi persist (INSERT trong batch lúc flush) thay vì merge (SELECT trước).
+ */
+@Entity
+@Table(name = "order_numbers")
+@Getter
+@Setter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OrderNumber implements Persistable<String> {
+
+    @Id
+    @Column(name = "order_id", length = 36)
+    String orderId;
+
+    // orders.id của đơn mang mã này
+    @Column(name = "id", nullable = false)
+    Long orderRowId;
+
+    @Column(name = "order_date", nullable = false)
+    LocalDateTime orderDate;
+
+    @Transient
+    boolean isNew = true;
+
+    public OrderNumber(String orderId, Long orderRowId, LocalDateTime orderDate) {
+        this.orderId = orderId;
+        this.orderRowId = orderRowId;
+        this.orderDate = orderDate;
+    }
+
+    @Override
+    public String getId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        isNew = false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.bangvan.entity;
+
+import com.bangvan.dto.response.order.OrderItemResponse;
+import com.bangvan.dto.response.user.AddressResponse;
+import com.bangvan.dto.response.user.UserResponse;
+import com.bangvan.utils.OrderStatus;
+import com.bangvan.utils.PaymentStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read model "Đơn hàng của tôi": mỗi order một dòng, đã denormalize sẵn (buyer, địa chỉ giao và items lưu JSONB).
+ * Được ghi lại trong cùng transaction mỗi khi order tạo mới / đổi trạng thái / hủy / thanh toán,
+ * nên trang lịch sử đơn của buyer chỉ cần một range scan trên (user_id, order_date).
+ */
+@Entity
+@Table(name = "order_summaries", indexes = {
+        @Index(name = "idx_order_summaries_user_date", columnList = "user_id, order_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OrderSummary {
+
+    // Trùng với orders.id
+    @Id
+    Long id;
+
+    @Column(name = "order_code", unique = true)
+    String orderId;
+
+    @Column(name = "user_id", nullable = false)
+    Long userId;
+
+    @Column(name = "seller_id")
+    Long sellerId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "buyer", columnDefinition = "jsonb")
+    UserResponse user;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "shipping_address", columnDefinition = "jsonb")
+    AddressResponse shippingAddress;
+
+    BigDecimal totalPrice;
+
+    @Enumerated(EnumType.STRING)
+    OrderStatus orderStatus;
+
+    @Enumerated(EnumType.STRING)
+    PaymentStatus paymentStatus;
+
+    int totalItem;
+
+    @Column(name = "order_date")
+    LocalDateTime orderDate;
+
+    LocalDateTime deliverDate;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "items", columnDefinition = "jsonb")
+    List<OrderItemResponse> orderItems = new ArrayList<>();
+}
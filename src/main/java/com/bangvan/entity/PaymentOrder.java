@@ -19,7 +19,8 @@ import java.util.Set;
 public class PaymentOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_orders_seq")
+    @SequenceGenerator(name = "payment_orders_seq", sequenceName = "payment_orders_seq", allocationSize = 50)
     Long id;
 
     BigDecimal amount;
@@ -33,7 +34,7 @@ public class PaymentOrder {
     @Column(columnDefinition = "TEXT")
     String paymentLink;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     User user;
 
@@ -3,6 +3,7 @@ package com.bangvan.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -11,6 +12,29 @@ import java.util.Set;
 
 @Entity
 @Table(name = "products")
+// Category tối đa 3 cấp nên fetch đủ chuỗi parent; seller kèm user + pickupAddress (đều có trong ProductResponse)
+@NamedEntityGraph(name = Product.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "category", subgraph = "category-parent"),
+                @NamedAttributeNode(value = "seller", subgraph = "seller-summary"),
+                @NamedAttributeNode("variants"),
+                @NamedAttributeNode("images")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "category-parent", attributeNodes = @NamedAttributeNode(value = "parentCategory", subgraph = "category-root")),
+                @NamedSubgraph(name = "category-root", attributeNodes = @NamedAttributeNode("parentCategory")),
+                @NamedSubgraph(name = "seller-summary", attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("pickupAddress")})
+        })
+@NamedEntityGraph(name = Product.LISTING_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "category", subgraph = "category-parent"),
+                @NamedAttributeNode(value = "seller", subgraph = "seller-summary")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "category-parent", attributeNodes = @NamedAttributeNode(value = "parentCategory", subgraph = "category-root")),
+                @NamedSubgraph(name = "category-root", attributeNodes = @NamedAttributeNode("parentCategory")),
+                @NamedSubgraph(name = "seller-summary", attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("pickupAddress")})
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,6 +42,10 @@ import java.util.Set;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Product extends AbstractEntity {
 
+    public static final String DETAIL_GRAPH = "Product.detail";
+    // Listing phân trang chỉ fetch to-one; variants/images được batch-load theo trang
+    public static final String LISTING_GRAPH = "Product.listing";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
@@ -29,21 +57,27 @@ public class Product extends AbstractEntity {
     Integer discountPercent;
 
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "image_url")
     List<String> images = new ArrayList<>();
 
     Integer numRatings;
 
-    @ManyToOne
+    // Tổng số lượng đã bán của mọi variant, cập nhật khi đặt/hủy đơn (dùng để sort best-selling)
+    @Column(name = "sold")
+    Integer sold = 0;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id")
     Seller seller;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     Set<ProductVariant> variants = new HashSet<>();
 
 
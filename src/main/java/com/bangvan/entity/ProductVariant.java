@@ -4,9 +4,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "product_variants")
+@BatchSize(size = 50)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -15,7 +17,8 @@ import lombok.experimental.FieldDefaults;
 public class ProductVariant {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_variants_seq")
+    @SequenceGenerator(name = "product_variants_seq", sequenceName = "product_variants_seq", allocationSize = 50)
     Long id;
 
     @Column(unique = true)
@@ -30,7 +33,7 @@ public class ProductVariant {
     @Column(nullable = false, columnDefinition = "integer default 0")
     Integer sold = 0;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     @JsonIgnore
     Product product;
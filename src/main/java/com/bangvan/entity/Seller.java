@@ -21,7 +21,7 @@ public class Seller extends AbstractEntity{
     @Id
     private Long id;
 
-    @OneToOne(fetch = FetchType.EAGER)
+    @OneToOne(fetch = FetchType.LAZY)
     @MapsId
     @JoinColumn(name = "id")
     private User user;
@@ -32,7 +32,7 @@ public class Seller extends AbstractEntity{
     @Embedded
     BankDetails bankDetails = new BankDetails();
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     Address pickupAddress ;
 
     String gstin;
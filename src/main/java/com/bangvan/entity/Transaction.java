@@ -18,10 +18,12 @@ public class Transaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     private Order order;
 
+    // Partition key
+    @Column(nullable = false, updatable = false)
     private LocalDateTime date = LocalDateTime.now();
 
 }
\ No newline at end of file
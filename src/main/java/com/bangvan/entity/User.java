@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,12 +20,17 @@ import java.util.*;
 
 @Entity
 @Table(name="users")
+@NamedEntityGraph(name = User.ROLES_GRAPH, attributeNodes = @NamedAttributeNode("roles"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class User extends  AbstractEntity implements UserDetails {
+
+    // roles là LAZY; load user cho authentication/profile dùng graph này
+    public static final String ROLES_GRAPH = "User.roles";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
@@ -66,7 +72,8 @@ public class User extends  AbstractEntity implements UserDetails {
     @Column(name="account_status")
     AccountStatus accountStatus = AccountStatus.ACTIVE;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
             name = "user_role",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -86,11 +93,6 @@ public class User extends  AbstractEntity implements UserDetails {
     @JsonIgnore
     Set<Coupon> usedCoupons = new HashSet<>();
 
-    @OneToOne(mappedBy = "user",cascade = CascadeType.ALL, orphanRemoval = true)
-    @JsonIgnore
-    Cart cart;
-
-
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
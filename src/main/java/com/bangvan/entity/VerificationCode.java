@@ -23,7 +23,7 @@ public class VerificationCode {
 
     String email;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     User user;
 
@@ -0,0 +1,10 @@
+package com.bangvan.mapper;
+
+import com.bangvan.dto.response.category.CategoryResponse;
+import com.bangvan.entity.Category;
+import org.mapstruct.Mapper;
+
+@Mapper(config = MapperSpringConfig.class)
+public interface CategoryMapper {
+    CategoryResponse toCategoryResponse(Category category);
+}
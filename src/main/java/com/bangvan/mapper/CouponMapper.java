@@ -0,0 +1,10 @@
+package com.bangvan.mapper;
+
+import com.bangvan.dto.response.coupon.CouponResponse;
+import com.bangvan.entity.Coupon;
+import org.mapstruct.Mapper;
+
+@Mapper(config = MapperSpringConfig.class)
+public interface CouponMapper {
+    CouponResponse toCouponResponse(Coupon coupon);
+}
@@ -0,0 +1,12 @@
+package com.bangvan.mapper;
+
+import org.mapstruct.MapperConfig;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Cấu hình chung cho các mapper MapStruct (code map entity -> response được generate lúc compile,
+ * không dùng reflection như ModelMapper). Field response không có nguồn (vd. averageRating) được set ở service.
+ */
+@MapperConfig(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface MapperSpringConfig {
+}
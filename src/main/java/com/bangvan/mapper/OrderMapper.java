@@ -0,0 +1,35 @@
+package com.bangvan.mapper;
+
+import com.bangvan.dto.response.order.OrderItemResponse;
+import com.bangvan.dto.response.order.OrderResponse;
+import com.bangvan.dto.response.payment.TransactionResponse;
+import com.bangvan.entity.Order;
+import com.bangvan.entity.OrderItem;
+import com.bangvan.entity.OrderSummary;
+import com.bangvan.entity.Transaction;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MapperSpringConfig.class, uses = {ProductMapper.class, UserMapper.class})
+public interface OrderMapper {
+    @Mapping(target = "user", qualifiedByName = "userSummary")
+    OrderResponse toOrderResponse(Order order);
+
+    // Snapshot product lấy từ các cột đã chụp lúc đặt hàng; variant.product.id chỉ đọc FK, không load product
+    @Mapping(target = "product.id", source = "variant.product.id")
+    @Mapping(target = "product.title", source = "productTitle")
+    @Mapping(target = "product.image", source = "imageUrl")
+    @Mapping(target = "product.price", source = "priceAtPurchase")
+    @Mapping(target = "product.sellingPrice", source = "sellingPriceAtPurchase")
+    OrderItemResponse toOrderItemResponse(OrderItem orderItem);
+
+    TransactionResponse toTransactionResponse(Transaction transaction);
+
+    // Read model lịch sử đơn của buyer
+    @Mapping(target = "user", qualifiedByName = "userSummary")
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "sellerId", source = "seller.id")
+    OrderSummary toOrderSummary(Order order);
+
+    OrderResponse toOrderResponse(OrderSummary orderSummary);
+}
@@ -0,0 +1,27 @@
+package com.bangvan.mapper;
+
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.dto.response.product.ProductSnapshotResponse;
+import com.bangvan.dto.response.product.ProductVariantResponse;
+import com.bangvan.entity.Product;
+import com.bangvan.entity.ProductVariant;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MapperSpringConfig.class, uses = {SellerMapper.class, CategoryMapper.class})
+public interface ProductMapper {
+    // averageRating và deal được set sau khi map (rating query riêng, deal áp dụng lúc đọc)
+    @Mapping(target = "averageRating", ignore = true)
+    @Mapping(target = "dealDiscount", ignore = true)
+    @Mapping(target = "dealEndAt", ignore = true)
+    @Mapping(target = "seller", qualifiedByName = "sellerSummary")
+    ProductResponse toProductResponse(Product product);
+
+    ProductVariantResponse toProductVariantResponse(ProductVariant variant);
+
+    @Mapping(target = "image", expression = "java(product.getImages() == null || product.getImages().isEmpty() ? null : product.getImages().get(0))")
+    ProductSnapshotResponse toProductSnapshot(ProductResponse product);
+
+    @Mapping(target = "image", expression = "java(product.getImages() == null || product.getImages().isEmpty() ? null : product.getImages().get(0))")
+    ProductSnapshotResponse toProductSnapshot(Product product);
+}
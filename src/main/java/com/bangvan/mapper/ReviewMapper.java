@@ -0,0 +1,10 @@
+package com.bangvan.mapper;
+
+import com.bangvan.dto.response.review.ReviewResponse;
+import com.bangvan.entity.Review;
+import org.mapstruct.Mapper;
+
+@Mapper(config = MapperSpringConfig.class, uses = {UserMapper.class, OrderMapper.class})
+public interface ReviewMapper {
+    ReviewResponse toReviewResponse(Review review);
+}
@@ -0,0 +1,21 @@
+package com.bangvan.mapper;
+
+import com.bangvan.dto.response.seller.SellerReportResponse;
+import com.bangvan.dto.response.seller.SellerResponse;
+import com.bangvan.entity.Seller;
+import com.bangvan.entity.SellerReport;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+@Mapper(config = MapperSpringConfig.class, uses = UserMapper.class)
+public interface SellerMapper {
+    SellerResponse toSellerResponse(Seller seller);
+
+    @Named("sellerSummary")
+    @Mapping(target = "user", qualifiedByName = "userSummary")
+    SellerResponse toSellerSummary(Seller seller);
+
+    @Mapping(target = "sellerId", source = "seller.id")
+    SellerReportResponse toSellerReportResponse(SellerReport report);
+}
@@ -0,0 +1,21 @@
+package com.bangvan.mapper;
+
+import com.bangvan.dto.response.user.AddressResponse;
+import com.bangvan.dto.response.user.UserResponse;
+import com.bangvan.entity.Address;
+import com.bangvan.entity.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+@Mapper(config = MapperSpringConfig.class)
+public interface UserMapper {
+    UserResponse toUserResponse(User user);
+
+    // User nhúng trong response khác (seller của product, buyer của order): không cần roles (collection LAZY)
+    @Named("userSummary")
+    @Mapping(target = "roles", ignore = true)
+    UserResponse toUserSummary(User user);
+
+    AddressResponse toAddressResponse(Address address);
+}
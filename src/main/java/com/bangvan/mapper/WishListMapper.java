@@ -0,0 +1,12 @@
+package com.bangvan.mapper;
+
+import com.bangvan.dto.response.wishlist.WishListResponse;
+import com.bangvan.entity.WishList;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MapperSpringConfig.class, uses = {ProductMapper.class, UserMapper.class})
+public interface WishListMapper {
+    @Mapping(target = "user", qualifiedByName = "userSummary")
+    WishListResponse toWishListResponse(WishList wishList);
+}
@@ -2,7 +2,12 @@ package com.bangvan.repository;
 
 import com.bangvan.entity.Cart;
 import com.bangvan.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,5 +16,13 @@ import java.util.Optional;
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
 
+    @EntityGraph(Cart.ITEMS_GRAPH)
     Optional<Cart> findByUser(User user);
+
+    @EntityGraph(Cart.CHECKOUT_GRAPH)
+    Optional<Cart> findWithProductsByUser(User user);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.id = :id")
+    Optional<Cart> findByIdForUpdate(@Param("id") Long id);
 }
@@ -2,6 +2,7 @@ package com.bangvan.repository;
 
 import com.bangvan.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +10,8 @@ import java.util.List;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByParentCategory_Id(Long parentId);
+
+    // (id, parentId) của mọi category, không load entity
+    @Query("SELECT c.id, parent.id FROM Category c LEFT JOIN c.parentCategory parent")
+    List<Object[]> findParentIds();
 }
@@ -1,11 +1,42 @@
 package com.bangvan.repository;
 import com.bangvan.entity.Coupon;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface CouponRepository extends JpaRepository<Coupon, Long> {
     Optional<Coupon> findByCode(String code);
-}
\ No newline at end of file
+
+    List<Coupon> findAllByIsActiveTrueAndEndDateGreaterThanEqual(LocalDate date);
+
+    @Query(value = "SELECT coupon_id FROM user_coupon WHERE user_id = :userId AND coupon_id IN (:couponIds)", nativeQuery = true)
+    Set<Long> findRedeemedCouponIds(@Param("userId") Long userId, @Param("couponIds") Collection<Long> couponIds);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_coupon WHERE coupon_id = :couponId AND user_id = :userId)", nativeQuery = true)
+    boolean existsRedemption(@Param("couponId") Long couponId, @Param("userId") Long userId);
+
+    // Trả về 0 nếu user đã dùng coupon (unique (coupon_id, user_id)), an toàn khi nhiều request apply cùng lúc
+    @Modifying
+    @Query(value = "INSERT INTO user_coupon (coupon_id, user_id) VALUES (:couponId, :userId) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertRedemptionIfAbsent(@Param("couponId") Long couponId, @Param("userId") Long userId);
+
+    // Hoàn tác insertRedemptionIfAbsent khi coupon hết lượt mà transaction vẫn tiếp tục (thử coupon khác)
+    @Modifying
+    @Query(value = "DELETE FROM user_coupon WHERE coupon_id = :couponId AND user_id = :userId", nativeQuery = true)
+    int deleteRedemption(@Param("couponId") Long couponId, @Param("userId") Long userId);
+
+    // Tăng used_count nguyên tử, trả về 0 nếu coupon đã hết lượt
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = COALESCE(c.usedCount, 0) + 1 " +
+            "WHERE c.id = :couponId AND (c.usageLimit IS NULL OR COALESCE(c.usedCount, 0) < c.usageLimit)")
+    int incrementUsedCount(@Param("couponId") Long couponId);
+}
@@ -0,0 +1,18 @@
+package com.bangvan.repository;
+
+import com.bangvan.entity.Deal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DealRepository extends JpaRepository<Deal, Long> {
+    @Query("SELECT d FROM Deal d WHERE d.isActive = true AND (d.endAt IS NULL OR d.endAt > :now)")
+    List<Deal> findAllActiveOrUpcoming(@Param("now") LocalDateTime now);
+
+    void deleteByCategory_Id(Long categoryId);
+}
@@ -3,11 +3,17 @@ package com.bangvan.repository;
 import com.bangvan.dto.response.seller.NotificationSummaryResponse;
 import com.bangvan.entity.Notification;
 import com.bangvan.entity.Seller;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
@@ -24,4 +30,38 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
             "FROM Notification n WHERE n.seller = :seller")
     NotificationSummaryResponse getSummaryBySeller(@Param("seller") Seller seller);
 
-}
\ No newline at end of file
+    /**
+     * Tóm tắt theo người nhận, chỉ dùng để khởi tạo lại counter trong Redis khi counter chưa có.
+     */
+    @Query("SELECT new com.bangvan.dto.response.seller.NotificationSummaryResponse(" +
+            "COALESCE(SUM(CASE WHEN n.isRead = false THEN 1 ELSE 0 END), 0L), " +
+            "COALESCE(COUNT(n.id), 0L)) " +
+            "FROM Notification n WHERE n.user.id = :userId")
+    NotificationSummaryResponse getSummaryByUserId(@Param("userId") Long userId);
+
+    /**
+     * Trang đầu của feed (keyset), dùng index (user_id, created_at).
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeed(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Các trang tiếp theo của feed: lấy các bản ghi nằm sau cursor (createdAt, id).
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+            "AND (n.createdAt < :cursorCreatedAt OR (n.createdAt = :cursorCreatedAt AND n.id < :cursorId)) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeedAfter(@Param("userId") Long userId,
+                                     @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false AND n.id IN :ids")
+    int markReadByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllRead(@Param("userId") Long userId);
+
+}
@@ -0,0 +1,9 @@
+package com.bangvan.repository;
+
+import com.bangvan.entity.OrderNumber;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderNumberRepository extends JpaRepository<OrderNumber, String> {
+}
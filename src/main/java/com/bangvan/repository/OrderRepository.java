@@ -3,33 +3,47 @@ package com.bangvan.repository;
 import com.bangvan.entity.Order;
 import com.bangvan.entity.Seller;
 import com.bangvan.entity.User;
-import com.bangvan.utils.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    Page<Order> findByUser(User user, Pageable pageable);
+    // Listing 2 pha: trang id (+ count) trước, sau đó load đơn kèm items bằng findAllWithItemsByIdIn
+    // Listing chỉ đọc partition orders_live (archived = false)
+    @Query("SELECT o.id FROM Order o WHERE o.archived = false")
+    Page<Long> findPageOfIds(Pageable pageable);
 
+    @Query("SELECT o.id FROM Order o WHERE o.seller = :seller AND o.archived = false")
+    Page<Long> findIdsBySeller(@Param("seller") Seller seller, Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM Order o " +
+            "LEFT JOIN FETCH o.user LEFT JOIN FETCH o.shippingAddress " +
+            "LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.variant " +
+            "WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Order.LIST_GRAPH)
     Optional<Order> findByOrderId(String orderId);
 
-    Page<Order> findBySeller(Seller seller, Pageable pageable);
 
     List<Order> findBySeller(Seller seller);
 
     @Query("SELECT o FROM Order o WHERE o.user = :user AND o.orderStatus != 'DELIVERED'")
     List<Order> findByUserAndOrderStatusNotDelivered(User user);
 
-    Page<Order> findByUserAndOrderStatus(User user, OrderStatus orderStatus, Pageable pageable);
 
     List<Order> findAllByUser(User user);
 
@@ -44,7 +58,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Integer countNewOrdersBySeller(@Param("sellerId") Long sellerId, @Param("startDate") LocalDateTime startDate);
 
 
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.seller.id = :sellerId AND o.orderStatus IN ('PENDING', 'PROCESSING')")
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.seller.id = :sellerId AND o.archived = false AND o.orderStatus IN ('PENDING', 'PROCESSING')")
     Integer countPendingOrdersBySeller(@Param("sellerId") Long sellerId);
 
 
@@ -55,4 +69,24 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             "GROUP BY EXTRACT(MONTH FROM o.orderDate), EXTRACT(YEAR FROM o.orderDate) " +
             "ORDER BY year ASC, month ASC")
     List<Object[]> findMonthlyRevenueBySeller(@Param("sellerId") Long sellerId, @Param("startDate") LocalDateTime startDate);
+
+    // Partition tháng: tạo partition [fromMonth, toMonth] còn thiếu của một bảng cha (function trong V5__partition_orders.sql)
+    @Query(value = "SELECT create_monthly_partitions(:parent, CAST(:fromMonth AS date), CAST(:toMonth AS date))", nativeQuery = true)
+    int createMonthlyPartitions(@Param("parent") String parent, @Param("fromMonth") LocalDate fromMonth, @Param("toMonth") LocalDate toMonth);
+
+    // Dòng rơi vào partition DEFAULT (thiếu partition tháng); khác 0 thì không tạo được partition cho tháng đó nữa
+    @Query(value = "SELECT (SELECT COUNT(*) FROM orders_live_default) + (SELECT COUNT(*) FROM orders_archive_default) " +
+            "+ (SELECT COUNT(*) FROM order_items_default) + (SELECT COUNT(*) FROM transactions_default)", nativeQuery = true)
+    long countRowsInDefaultPartitions();
+
+    @Query("SELECT MIN(o.orderDate) FROM Order o WHERE o.archived = false AND o.orderStatus IN ('DELIVERED', 'CANCELLED') AND o.orderDate < :horizon")
+    LocalDateTime findOldestArchivableOrderDate(@Param("horizon") LocalDateTime horizon);
+
+    // Đổi archived làm Postgres chuyển dòng sang partition orders_archive; tăng version để entity đang giữ bản cũ bị optimistic lock
+    @Modifying
+    @Query(value = "UPDATE orders SET archived = true, version = COALESCE(version, 0) + 1 " +
+            "WHERE archived = false AND id IN (" +
+            "SELECT id FROM orders_live WHERE order_status IN ('DELIVERED', 'CANCELLED') AND order_date < :horizon " +
+            "ORDER BY order_date LIMIT :batchSize)", nativeQuery = true)
+    int archiveOrders(@Param("horizon") LocalDateTime horizon, @Param("batchSize") int batchSize);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.bangvan.repository;
+
+import com.bangvan.entity.OrderSummary;
+import com.bangvan.utils.OrderStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+    Page<OrderSummary> findByUserId(Long userId, Pageable pageable);
+
+    Page<OrderSummary> findByUserIdAndOrderStatus(Long userId, OrderStatus orderStatus, Pageable pageable);
+
+    // Order chưa có summary (dữ liệu trước khi có read model) để backfill, duyệt theo id (keyset), không COUNT
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId " +
+            "AND NOT EXISTS (SELECT 1 FROM OrderSummary s WHERE s.id = o.id) ORDER BY o.id")
+    List<Long> findOrderIdsWithoutSummary(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Như trên nhưng chỉ các đơn đặt từ :since (chỉ quét các partition tháng gần đây)
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId AND o.orderDate >= :since " +
+            "AND NOT EXISTS (SELECT 1 FROM OrderSummary s WHERE s.id = o.id) ORDER BY o.id")
+    List<Long> findRecentOrderIdsWithoutSummary(@Param("afterId") Long afterId, @Param("since") LocalDateTime since,
+                                                Pageable pageable);
+}
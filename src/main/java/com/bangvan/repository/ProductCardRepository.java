@@ -0,0 +1,18 @@
+package com.bangvan.repository;
+
+import com.bangvan.dto.response.product.ProductCardResponse;
+import com.bangvan.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductCardRepository {
+    Page<ProductCardResponse> findCards(Specification<Product> spec, Pageable pageable);
+
+    // productId -> một ảnh đại diện
+    Map<Long, String> findCoverImages(Collection<Long> productIds);
+}
@@ -0,0 +1,89 @@
+package com.bangvan.repository;
+
+import com.bangvan.dto.response.product.ProductCardResponse;
+import com.bangvan.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.*;
+
+/**
+ * Listing dạng card bằng constructor projection: cùng Specification filter với listing đầy đủ
+ * nhưng chỉ SELECT các cột của card, không load entity, association hay chạy ModelMapper.
+ */
+public class ProductCardRepositoryImpl implements ProductCardRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductCardResponse> findCards(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductCardResponse> query = cb.createQuery(ProductCardResponse.class);
+        Root<Product> root = query.from(Product.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        query.select(cb.construct(ProductCardResponse.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("price"),
+                root.get("sellingPrice"),
+                root.get("discountPercent"),
+                root.get("numRatings"),
+                root.get("sold"),
+                root.get("category").get("id")));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<ProductCardResponse> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ProductCardResponse> content = typedQuery.getResultList();
+
+        if (pageable.isUnpaged() || (pageable.getOffset() == 0 && content.size() < pageable.getPageSize())) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        return new PageImpl<>(content, pageable, count(spec));
+    }
+
+    @Override
+    public Map<Long, String> findCoverImages(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Object[]> rows = entityManager.createQuery(
+                        "SELECT p.id, MIN(i) FROM Product p JOIN p.images i WHERE p.id IN :ids GROUP BY p.id", Object[].class)
+                .setParameter("ids", productIds)
+                .getResultList();
+        Map<Long, String> images = new HashMap<>();
+        for (Object[] row : rows) {
+            images.put((Long) row[0], (String) row[1]);
+        }
+        return images;
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        query.select(cb.count(root));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
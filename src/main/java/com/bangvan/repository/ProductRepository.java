@@ -3,18 +3,32 @@ package com.bangvan.repository;
 import com.bangvan.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductCardRepository {
     Iterable<Product> findByCategoryId(Long categoryId);
 
+    @EntityGraph(Product.DETAIL_GRAPH)
+    Optional<Product> findWithDetailsById(Long id);
+
+    @Override
+    @EntityGraph(Product.LISTING_GRAPH)
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
+    @EntityGraph(Product.LISTING_GRAPH)
     Page<Product> findBySellerId(Long sellerId, Pageable pageable);
 
     // Phương thức này có thể xóa nếu không dùng, vì đã có searchProducts bên dưới mạnh mẽ hơn
@@ -22,9 +36,26 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
     Page<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
 
+    @EntityGraph(Product.LISTING_GRAPH)
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 
     // Đây là phương thức thay thế cho Elasticsearch
+    @EntityGraph(Product.LISTING_GRAPH)
     @Query("SELECT p FROM Product p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
-}
\ No newline at end of file
+
+    // Load nhiều product kèm đủ association cần cho ProductResponse trong một query (dùng cho batch get)
+    @EntityGraph(Product.DETAIL_GRAPH)
+    @Query("SELECT DISTINCT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Cộng dồn số lượng bán (denormalized) để sort theo "sold" không cần GROUP BY trên variants
+    @Modifying
+    @Query("UPDATE Product p SET p.sold = COALESCE(p.sold, 0) + :quantity WHERE p.id = :productId")
+    int incrementSold(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // Số lượng bán kèm seller/category của product để dựng lại bảng xếp hạng, duyệt theo id (keyset), không COUNT
+    @Query("SELECT p.id, p.sold, s.id, c.id FROM Product p LEFT JOIN p.seller s LEFT JOIN p.category c " +
+            "WHERE p.id > :afterId AND p.sold > 0 ORDER BY p.id")
+    List<Object[]> findSoldAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -4,6 +4,7 @@ import com.bangvan.entity.ProductVariant;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,6 +16,23 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<ProductVariant> findById(Long id);
 
+    @Query("SELECT pv.product.id FROM ProductVariant pv WHERE pv.id = :variantId")
+    Optional<Long> findProductIdById(@Param("variantId") Long variantId);
+
+
+    /**
+     * Trừ kho có điều kiện trong một câu UPDATE: trả về 0 nếu không đủ hàng, không bao giờ bán vượt tồn kho.
+     */
+    @Modifying
+    @Query("UPDATE ProductVariant pv SET pv.quantity = pv.quantity - :quantity, pv.sold = COALESCE(pv.sold, 0) + :quantity " +
+            "WHERE pv.id = :variantId AND pv.quantity >= :quantity")
+    int decrementStock(@Param("variantId") Long variantId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE ProductVariant pv SET pv.quantity = pv.quantity + :quantity, " +
+            "pv.sold = CASE WHEN COALESCE(pv.sold, 0) > :quantity THEN pv.sold - :quantity ELSE 0 END " +
+            "WHERE pv.id = :variantId")
+    int restoreStock(@Param("variantId") Long variantId, @Param("quantity") int quantity);
 
     @Query("SELECT COALESCE(SUM(pv.quantity), 0) FROM ProductVariant pv JOIN pv.product p WHERE p.seller.id = :sellerId")
     Integer sumStockBySeller(@Param("sellerId") Long sellerId);
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -25,4 +27,9 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.orderItem.variant.product.id = :productId")
     Double findAverageRatingByProductId(@Param("productId") Long productId);
 
+    // [productId, avgRating] cho nhiều product trong một query
+    @Query("SELECT r.orderItem.variant.product.id, AVG(r.rating) FROM Review r " +
+            "WHERE r.orderItem.variant.product.id IN :productIds GROUP BY r.orderItem.variant.product.id")
+    List<Object[]> findAverageRatingsByProductIds(@Param("productIds") Collection<Long> productIds);
+
 }
\ No newline at end of file
@@ -5,9 +5,23 @@ import com.bangvan.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    Page<Transaction> findByOrder_User(User user, Pageable pageable);
+
+    // Listing 2 pha: trang id trước, sau đó load transaction + order (items của order load riêng theo id)
+    @Query("SELECT t.id FROM Transaction t")
+    Page<Long> findPageOfIds(Pageable pageable);
+
+    @Query("SELECT t.id FROM Transaction t WHERE t.order.user = :user")
+    Page<Long> findIdsByOrderUser(@Param("user") User user, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.order WHERE t.id IN :ids")
+    List<Transaction> findAllWithOrderByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -4,14 +4,17 @@ import com.bangvan.entity.Seller;
 import com.bangvan.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @EntityGraph(User.ROLES_GRAPH)
     Optional<User> findByUsername(String username);
 
     boolean existsByPhone(String phoneNumber);
@@ -28,10 +31,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByIdAndEnabledIsTrue(Long userId);
 
 
+    @EntityGraph(User.ROLES_GRAPH)
     Optional<User> findByUsernameAndEnabledIsTrue(String name);
 
     Page<User> findByEnabledIsTrue(Pageable pageable);
 
 
     Optional<User> findByEmail(String email);
+
+    List<User> findByRoles_Name(String roleName);
 }
@@ -0,0 +1,10 @@
+package com.bangvan.service;
+
+import com.bangvan.entity.Order;
+import com.bangvan.utils.SocketEventType;
+
+public interface AdminOrderEventService {
+    void publish(SocketEventType type, Order order);
+
+    void flush();
+}
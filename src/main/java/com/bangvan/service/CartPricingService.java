@@ -0,0 +1,28 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.cart.CartSnapshot;
+import com.bangvan.dto.cart.CartTotals;
+import com.bangvan.dto.cart.PricedCart;
+import com.bangvan.dto.cart.PricedLine;
+import com.bangvan.dto.coupon.ActiveCoupon;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface CartPricingService {
+    PricedLine priceLine(Long variantId, BigDecimal unitPrice, BigDecimal unitSellingPrice, int quantity);
+
+    PricedLine priceLine(Long variantId, long unitPrice, long unitSellingPrice, int quantity);
+
+    /**
+     * PricedCart dựng từ giá đã lưu của từng dòng, không load product.
+     * Rỗng nếu có dòng chưa được định giá.
+     */
+    Optional<PricedCart> priceFromStoredLines(CartSnapshot cart);
+
+    CartTotals summarize(PricedCart cart, ActiveCoupon coupon);
+
+    boolean isCouponApplicable(ActiveCoupon coupon, long subTotal);
+
+    void validateCoupon(ActiveCoupon coupon, PricedCart cart);
+}
@@ -3,12 +3,12 @@ package com.bangvan.service;
 import com.bangvan.dto.request.cart.AddItemToCartRequest;
 import com.bangvan.dto.request.coupon.ApplyCouponRequest;
 import com.bangvan.dto.response.cart.CartResponse;
+import com.bangvan.dto.response.coupon.CouponSuggestionResponse;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
 
 public interface CartService {
-    @Transactional
     CartResponse addItemToCart(Principal principal, AddItemToCartRequest request);
 
     CartResponse findCartByUser(Principal principal);
@@ -16,4 +16,9 @@ public interface CartService {
     @Transactional
     CartResponse applyCoupon(ApplyCouponRequest request, Principal principal);
 
+    CouponSuggestionResponse suggestBestCoupon(Principal principal);
+
+    @Transactional
+    CartResponse applyBestCoupon(Principal principal);
+
 }
@@ -0,0 +1,28 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.cart.CartSnapshot;
+import com.bangvan.dto.cart.PricedLine;
+
+import java.util.Collection;
+
+public interface CartStoreService {
+    CartSnapshot load(String username);
+
+    /**
+     * Ghi số lượng của một dòng kèm giá đơn vị vừa định giá.
+     */
+    void putLine(String username, Long productId, PricedLine line);
+
+    /**
+     * Cập nhật giá đơn vị đã lưu của các dòng vừa được định giá lại; bỏ qua dòng đã bị xóa khỏi cart.
+     */
+    void savePrices(String username, Collection<PricedLine> lines);
+
+    void removeItem(String username, Long variantId);
+
+    void setCouponCode(String username, String couponCode);
+
+    void evict(String username);
+
+    void flush(String username);
+}
@@ -0,0 +1,26 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.coupon.ActiveCoupon;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface CouponIndexService {
+    Optional<ActiveCoupon> findByCode(String code);
+
+    List<ActiveCoupon> findApplicableCoupons(long subTotal);
+
+    Optional<ActiveCoupon> findBestCoupon(long subTotal, Set<Long> excludedCouponIds);
+
+    void markExhausted(Long couponId);
+
+    void refresh();
+
+    void refreshCluster();
+
+    /**
+     * Message refresh từ channel pub/sub; bỏ qua message do chính node này publish (đã nạp lại trước khi publish).
+     */
+    void onRefreshMessage(String publisherNodeId);
+}
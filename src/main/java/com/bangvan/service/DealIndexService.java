@@ -0,0 +1,22 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.deal.ActiveDeal;
+import com.bangvan.dto.response.product.ProductCardResponse;
+import com.bangvan.dto.response.product.ProductResponse;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface DealIndexService {
+    Optional<ActiveDeal> findActiveDeal(Long categoryId);
+
+    ProductResponse applyDeal(ProductResponse product);
+
+    ProductCardResponse applyDeal(ProductCardResponse card);
+
+    BigDecimal resolveSellingPrice(Long categoryId, BigDecimal sellingPrice);
+
+    void refresh();
+
+    void refreshCluster();
+}
@@ -0,0 +1,20 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.request.deal.DealRequest;
+import com.bangvan.dto.response.deal.DealResponse;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface DealService {
+    @Transactional
+    DealResponse createDeal(DealRequest request);
+
+    @Transactional
+    DealResponse updateDeal(Long id, DealRequest request);
+
+    @Transactional
+    void deleteDeal(Long id);
+
+    List<DealResponse> getAllDeals();
+}
@@ -0,0 +1,11 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.response.notification.NotificationResponse;
+import org.springframework.scheduling.annotation.Async;
+
+public interface NotificationInboxService {
+    void store(String username, NotificationResponse notification);
+
+    @Async
+    void deliverPending(String username);
+}
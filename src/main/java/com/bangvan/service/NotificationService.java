@@ -1,5 +1,7 @@
 package com.bangvan.service;
 
+import com.bangvan.dto.request.notification.MarkNotificationsReadRequest;
+import com.bangvan.dto.response.notification.NotificationFeedResponse;
 import com.bangvan.dto.response.seller.NotificationSummaryResponse;
 import com.bangvan.entity.Seller;
 import com.bangvan.entity.User;
@@ -9,9 +11,13 @@ import java.security.Principal;
 public interface NotificationService {
     NotificationSummaryResponse getNotificationSummary(Principal principal);
 
+    NotificationFeedResponse getNotificationFeed(Principal principal, String cursor, int pageSize);
+
+    int markAsRead(Principal principal, MarkNotificationsReadRequest request);
+
     void sendNotificationToSeller(Seller seller, String message, String link);
 
     void sendNotificationToUser(User user, String message, String link);
 
     void sendNotificationToAdmin(String message, String link);
-}
\ No newline at end of file
+}
@@ -0,0 +1,5 @@
+package com.bangvan.service;
+
+public interface OrderIdGenerator {
+    String nextOrderId();
+}
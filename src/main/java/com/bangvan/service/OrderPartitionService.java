@@ -0,0 +1,9 @@
+package com.bangvan.service;
+
+public interface OrderPartitionService {
+    int ensurePartitions();
+
+    int archiveOldOrders();
+
+    long checkDefaultPartitions();
+}
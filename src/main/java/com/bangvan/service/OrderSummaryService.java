@@ -0,0 +1,15 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.response.PageCustomResponse;
+import com.bangvan.dto.response.order.OrderResponse;
+import com.bangvan.entity.Order;
+import com.bangvan.utils.OrderStatus;
+import org.springframework.data.domain.Pageable;
+
+public interface OrderSummaryService {
+    void refresh(Order order);
+
+    void remove(Long orderId);
+
+    PageCustomResponse<OrderResponse> findByUser(Long userId, OrderStatus orderStatus, Pageable pageable);
+}
@@ -4,12 +4,14 @@ import com.bangvan.dto.request.product.CreateProductRequest;
 import com.bangvan.dto.request.product.UpdateProductRequest;
 import com.bangvan.dto.request.product.UpdateStockRequest;
 import com.bangvan.dto.response.PageCustomResponse;
+import com.bangvan.dto.response.product.ProductCardResponse;
 import com.bangvan.dto.response.product.ProductResponse;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.security.Principal;
+import java.util.List;
 
 public interface ProductService {
     @Transactional
@@ -17,6 +19,10 @@ public interface ProductService {
 
     ProductResponse getProductById(Long productId);
 
+    Long getProductIdByVariantId(Long variantId);
+
+    List<ProductResponse> getProductsByIds(List<Long> productIds);
+
 
 
     PageCustomResponse<ProductResponse> getAllProducts(
@@ -26,6 +32,13 @@ public interface ProductService {
             Pageable pageable
     );
 
+    PageCustomResponse<ProductCardResponse> getProductCards(
+            String keyword, Long categoryId, Long sellerId,
+            BigDecimal minPrice, BigDecimal maxPrice, String color, String size,
+            Double minRating,
+            Pageable pageable
+    );
+
     String validateSortByField(String sortBy);
     @Transactional
     ProductResponse updateProductById(Long productId, UpdateProductRequest request, Principal principal);
@@ -0,0 +1,14 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.dto.response.product.ProductViewStatsResponse;
+
+import java.util.List;
+
+public interface ProductViewService {
+    void recordView(Long productId);
+
+    ProductViewStatsResponse getViewStats(Long productId);
+
+    List<ProductResponse> getTrendingProducts(int limit);
+}
@@ -0,0 +1,13 @@
+package com.bangvan.service;
+
+public interface RealtimeMessagingService {
+    /**
+     * @return true nếu message đã được giao cho ít nhất một node đang giữ session của user;
+     * false khi user không có session nào hoặc không xác nhận được việc gửi
+     */
+    boolean sendToUser(String username, String destination, Object payload);
+
+    void broadcast(String destination, Object payload);
+
+    void handleRelayMessage(String body);
+}
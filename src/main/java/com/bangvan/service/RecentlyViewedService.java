@@ -0,0 +1,11 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.response.product.ProductResponse;
+
+import java.util.List;
+
+public interface RecentlyViewedService {
+    void record(String username, Long productId);
+
+    List<ProductResponse> getRecentlyViewed(String username, int limit);
+}
@@ -0,0 +1,12 @@
+package com.bangvan.service;
+
+public interface ReplicaRoutingService {
+    boolean useReplica(String username);
+
+    void recordWrite(String username);
+
+    /**
+     * Ghi nhận write thay mặt user (vd: owner của order trong payment callback) khi transaction hiện tại commit.
+     */
+    void recordWriteAfterCommit(String username);
+}
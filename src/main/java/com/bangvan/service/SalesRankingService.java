@@ -0,0 +1,16 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.response.product.BestSellerResponse;
+import com.bangvan.entity.Order;
+import com.bangvan.utils.RankingScope;
+import com.bangvan.utils.RankingWindow;
+
+import java.util.List;
+
+public interface SalesRankingService {
+    void recordOrder(Order order);
+
+    void recordCancellation(Order order);
+
+    List<BestSellerResponse> getBestSellers(RankingScope scope, Long scopeId, RankingWindow window, int limit);
+}
@@ -0,0 +1,13 @@
+package com.bangvan.service;
+
+import java.util.Set;
+
+public interface WebSocketSessionRegistry {
+    String getNodeId();
+
+    Set<String> findNodesForUser(String username);
+
+    boolean hasLocalSession(String username);
+
+    boolean isOnline(String username);
+}
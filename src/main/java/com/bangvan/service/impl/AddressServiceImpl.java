@@ -7,6 +7,7 @@ import com.bangvan.entity.User;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.UserMapper;
 import com.bangvan.repository.AddressRepository;
 import com.bangvan.repository.UserRepository;
 import com.bangvan.service.AddressService;
@@ -29,6 +30,7 @@ public class AddressServiceImpl implements AddressService {
     private final AddressRepository addressRepository;
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
 
     @Transactional
     @Override
@@ -46,10 +48,11 @@ public class AddressServiceImpl implements AddressService {
 
         Address savedAddress = addressRepository.save(address);
         log.info("Address saved with ID: {}", savedAddress.getId());
-        return modelMapper.map(savedAddress, AddressResponse.class);
+        return userMapper.toAddressResponse(savedAddress);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AddressResponse> getMyAddresses(Principal principal) {
         User user = getUserFromPrincipal(principal);
         log.info("Fetching addresses for user: {}", user.getUsername());
@@ -57,18 +60,19 @@ public class AddressServiceImpl implements AddressService {
         List<Address> addresses = user.getAddresses().stream().toList();
 
         return addresses.stream()
-                .map(address -> modelMapper.map(address, AddressResponse.class))
+                .map(userMapper::toAddressResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AddressResponse getAddressById(Long addressId, Principal principal) {
         User user = getUserFromPrincipal(principal);
         log.info("Fetching address with ID: {} for user: {}", addressId, user.getUsername());
 
         Address address = findAddressByIdAndCheckOwnership(addressId, user);
 
-        return modelMapper.map(address, AddressResponse.class);
+        return userMapper.toAddressResponse(address);
     }
 
 
@@ -88,7 +92,7 @@ public class AddressServiceImpl implements AddressService {
 
         Address updatedAddress = addressRepository.save(address);
         log.info("Address with ID: {} updated successfully.", updatedAddress.getId());
-        return modelMapper.map(updatedAddress, AddressResponse.class);
+        return userMapper.toAddressResponse(updatedAddress);
     }
 
     @Transactional
@@ -0,0 +1,96 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.ws.AdminOrderEvent;
+import com.bangvan.dto.ws.SocketMessage;
+import com.bangvan.entity.Order;
+import com.bangvan.service.AdminOrderEventService;
+import com.bangvan.service.RealtimeMessagingService;
+import com.bangvan.utils.SocketEventType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gom các event đơn hàng cho Admin trong một cửa sổ thời gian và gửi thành một frame duy nhất.
+ * Nhiều event của cùng một đơn trong cùng cửa sổ được gộp: giữ type mạnh nhất và trạng thái mới nhất.
+ * Destination: /topic/admin/order-events
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdminOrderEventServiceImpl implements AdminOrderEventService {
+
+    public static final String ADMIN_ORDER_EVENTS_DESTINATION = "/topic/admin/order-events";
+
+    private final RealtimeMessagingService realtimeMessagingService;
+
+    private final Object lock = new Object();
+    private Map<String, AdminOrderEvent> pending = new LinkedHashMap<>();
+
+    /**
+     * Ghi nhận event. Trong transaction thì chỉ đưa vào batch sau khi commit, để đơn bị rollback không bao giờ được broadcast.
+     * Event được dựng ngay (trước commit) vì sau commit các association LAZY của order không còn load được.
+     */
+    @Override
+    public void publish(SocketEventType type, Order order) {
+        AdminOrderEvent event = AdminOrderEvent.of(type, order);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(AdminOrderEvent event) {
+        synchronized (lock) {
+            // remove trước để event mới nhất nằm cuối batch
+            AdminOrderEvent previous = pending.remove(event.getOrderId());
+            if (previous != null && rank(previous.getType()) > rank(event.getType())) {
+                // Giữ type mạnh hơn (NEW > CANCELLED > UPDATE), payload lấy theo event mới nhất:
+                // dashboard chưa thấy đơn được tạo thì không được nhận UPDATE cho đơn đó
+                event.setType(previous.getType());
+            }
+            pending.put(event.getOrderId(), event);
+        }
+    }
+
+    private static int rank(SocketEventType type) {
+        return switch (type) {
+            case ADMIN_NEW_ORDER -> 2;
+            case ADMIN_ORDER_CANCELLED -> 1;
+            default -> 0;
+        };
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.websocket.admin-events.window-ms:500}")
+    public void flush() {
+        List<AdminOrderEvent> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+        }
+        try {
+            realtimeMessagingService.broadcast(ADMIN_ORDER_EVENTS_DESTINATION, SocketMessage.of(SocketEventType.ADMIN_ORDER_EVENTS, batch));
+            log.debug("WebSocket broadcast {} coalesced order events to ADMIN", batch.size());
+        } catch (Exception e) {
+            log.error("Failed to send coalesced order events to Admin topic: {}", e.getMessage());
+        }
+    }
+}
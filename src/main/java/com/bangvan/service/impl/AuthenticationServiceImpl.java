@@ -10,6 +10,7 @@ import com.bangvan.entity.*;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 
+import com.bangvan.mapper.UserMapper;
 import com.bangvan.repository.CartRepository;
 import com.bangvan.repository.RoleRepository;
 import com.bangvan.repository.UserRepository;
@@ -46,6 +47,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final CartRepository cartRepository;
@@ -131,7 +133,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
 
         log.info("Saving user to database completed for registration"); // Log rõ hơn
-        return modelMapper.map(user, UserResponse.class);
+        return userMapper.toUserResponse(user);
     }
 
     @Override
@@ -0,0 +1,92 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.cart.CartLine;
+import com.bangvan.dto.cart.CartSnapshot;
+import com.bangvan.dto.cart.CartTotals;
+import com.bangvan.dto.cart.PricedCart;
+import com.bangvan.dto.cart.PricedLine;
+import com.bangvan.dto.coupon.ActiveCoupon;
+import com.bangvan.exception.AppException;
+import com.bangvan.exception.ErrorCode;
+import com.bangvan.service.CartPricingService;
+import com.bangvan.utils.MoneyUtil;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Nơi duy nhất tính giá cart/đơn hàng: giá dòng, tổng tiền, phần trăm giảm giá và coupon.
+ * Tính bằng long minor unit, chỉ đổi sang BigDecimal ở API/DB.
+ */
+@Service
+public class CartPricingServiceImpl implements CartPricingService {
+
+    @Override
+    public PricedLine priceLine(Long variantId, BigDecimal unitPrice, BigDecimal unitSellingPrice, int quantity) {
+        return priceLine(variantId, MoneyUtil.toMinor(unitPrice), MoneyUtil.toMinor(unitSellingPrice), quantity);
+    }
+
+    @Override
+    public PricedLine priceLine(Long variantId, long unitPrice, long unitSellingPrice, int quantity) {
+        return new PricedLine(
+                variantId,
+                unitPrice,
+                unitSellingPrice,
+                quantity,
+                Math.multiplyExact(unitPrice, quantity),
+                Math.multiplyExact(unitSellingPrice, quantity));
+    }
+
+    @Override
+    public Optional<PricedCart> priceFromStoredLines(CartSnapshot cart) {
+        PricedCart pricedCart = new PricedCart();
+        for (CartLine line : cart.getLines()) {
+            if (line.getUnitPrice() == null || line.getUnitSellingPrice() == null) {
+                return Optional.empty();
+            }
+            pricedCart.put(priceLine(line.getVariantId(), line.getUnitPrice(), line.getUnitSellingPrice(), line.getQuantity()));
+        }
+        return Optional.of(pricedCart);
+    }
+
+    @Override
+    public CartTotals summarize(PricedCart cart, ActiveCoupon coupon) {
+        long subTotal = cart.getTotalSellingPrice();
+        CartTotals.CartTotalsBuilder totals = CartTotals.builder()
+                .totalPrice(cart.getTotalPrice())
+                .subTotal(subTotal)
+                .totalItem(cart.getTotalItem());
+
+        if (coupon != null && isCouponApplicable(coupon, subTotal)) {
+            long couponDiscount = MoneyUtil.applyBasisPoints(subTotal, coupon.getDiscountBasisPoints());
+            return totals
+                    .couponDiscount(couponDiscount)
+                    .totalSellingPrice(subTotal - couponDiscount)
+                    .discount(coupon.getDiscountPercentage())
+                    .couponCode(coupon.getCode())
+                    .build();
+        }
+        return totals
+                .couponDiscount(0L)
+                .totalSellingPrice(subTotal)
+                .discount(MoneyUtil.discountPercent(cart.getTotalPrice(), subTotal))
+                .build();
+    }
+
+    @Override
+    public boolean isCouponApplicable(ActiveCoupon coupon, long subTotal) {
+        return coupon.isValidOn(LocalDate.now()) && subTotal >= coupon.getMinOrderValue();
+    }
+
+    @Override
+    public void validateCoupon(ActiveCoupon coupon, PricedCart cart) {
+        if (!coupon.isValidOn(LocalDate.now())) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Coupon is not valid or has expired.");
+        }
+        if (cart.getTotalSellingPrice() < coupon.getMinOrderValue()) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Minimum order value not met for this coupon.");
+        }
+    }
+}
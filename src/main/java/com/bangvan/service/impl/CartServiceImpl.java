@@ -1,233 +1,307 @@
 package com.bangvan.service.impl;
 
+import com.bangvan.dto.cart.CartLine;
+import com.bangvan.dto.cart.CartSnapshot;
+import com.bangvan.dto.cart.CartTotals;
+import com.bangvan.dto.cart.PricedCart;
+import com.bangvan.dto.cart.PricedLine;
+import com.bangvan.dto.coupon.ActiveCoupon;
 import com.bangvan.dto.request.cart.AddItemToCartRequest;
 import com.bangvan.dto.request.coupon.ApplyCouponRequest;
 import com.bangvan.dto.response.cart.CartItemResponse;
 import com.bangvan.dto.response.cart.CartResponse;
+import com.bangvan.dto.response.coupon.CouponSuggestionResponse;
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.dto.response.product.ProductVariantResponse;
 import com.bangvan.entity.*;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.ProductMapper;
 import com.bangvan.repository.*;
+import com.bangvan.service.CartPricingService;
 import com.bangvan.service.CartService;
+import com.bangvan.service.CartStoreService;
+import com.bangvan.service.CouponIndexService;
+import com.bangvan.service.ProductService;
+import com.bangvan.utils.MoneyUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.security.Principal;
-import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Cart đang hoạt động được đọc/ghi qua CartStoreService (Redis), không chạm Postgres trên hot path.
+ * Xem cart thì giá được tính lại từ product đã cache (productDetails) qua CartPricingService và ghi lại vào cart;
+ * thao tác chỉ cần tổng tiền (coupon) cộng từ giá đã lưu của từng dòng, không load lại product.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j 
 public class CartServiceImpl implements CartService {
 
-    private final CartRepository cartRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
-    private final ProductVariantRepository productVariantRepository;
-    private final CartItemRepository cartItemRepository;
     private final CouponRepository couponRepository;
-    private final SellerRepository sellerRepository; 
+    private final CartStoreService cartStoreService;
+    private final ProductService productService;
+    private final CartPricingService cartPricingService;
+    private final CouponIndexService couponIndexService;
+    private final ProductMapper productMapper;
 
-    private CartResponse mapCartToCartResponse(Cart cart) {
-        CartResponse cartResponse = modelMapper.map(cart, CartResponse.class);
-
-        List<CartItemResponse> cartItemResponses = cart.getCartItems().stream()
-                .sorted(Comparator.comparing(CartItem::getCreatedAt))
-                .map(cartItem -> {
-                    CartItemResponse cartItemResponse = modelMapper.map(cartItem, CartItemResponse.class);
-                    cartItemResponse.setProduct(cartItem.getVariant().getProduct());
-                    return cartItemResponse;
-                })
-                .collect(Collectors.toList());
-
-        cartResponse.setCartItems(cartItemResponses);
-        return cartResponse;
-    }
-
-    @Transactional
     @Override
     public CartResponse addItemToCart(Principal principal, AddItemToCartRequest request) {
         String username = principal.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
-        Cart cart = cartRepository.findByUser(user)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "user", username));
-        ProductVariant variant = productVariantRepository.findById(request.getVariantId())
-                .orElseThrow(() -> new ResourceNotFoundException("ProductVariant", "ID", request.getVariantId()));
-
-        Product product = variant.getProduct();
-
-        
-        
-        Optional<Seller> sellerOpt = sellerRepository.findById(user.getId());
-        if (sellerOpt.isPresent() && sellerOpt.get().getId().equals(product.getSeller().getId())) {
-            log.warn("Seller (User ID: {}) attempted to add their own product (Product ID: {}) to cart.", user.getId(), product.getId());
+        Long variantId = request.getVariantId();
+        Long productId = productService.getProductIdByVariantId(variantId);
+        ProductResponse product = productService.getProductById(productId);
+        ProductVariantResponse variant = findVariant(product, variantId)
+                .orElseThrow(() -> new ResourceNotFoundException("ProductVariant", "ID", variantId));
+
+        if (product.getSeller() != null && product.getSeller().getUser() != null
+                && username.equals(product.getSeller().getUser().getUsername())) {
+            log.warn("Seller {} attempted to add their own product (Product ID: {}) to cart.", username, product.getId());
             throw new AppException(ErrorCode.ACCESS_DENIED, "Sellers cannot add their own products to the cart.");
         }
-        
-
-        Optional<CartItem> existingCartItemOpt = cartItemRepository.findByCartAndVariant(cart, variant);
-
-        if (existingCartItemOpt.isPresent()) {
-            CartItem existingCartItem = existingCartItemOpt.get();
-            int newQuantity = existingCartItem.getQuantity() + request.getQuantity();
 
+        // Tồn kho ở đây lấy từ product cache, checkout trừ kho bằng UPDATE có điều kiện trong DB nên không bán vượt
+        CartSnapshot cart = cartStoreService.load(username);
+        CartLine existingLine = cart.findLine(variantId);
+        int newQuantity;
+        PricedLine pricedLine;
+        if (existingLine != null) {
+            newQuantity = existingLine.getQuantity() + request.getQuantity();
             if (newQuantity > variant.getQuantity()) {
                 throw new AppException(ErrorCode.PRODUCT_OUT_OF_STOCK,
-                        "Cannot add " + request.getQuantity() + " more items. Only " + (variant.getQuantity() - existingCartItem.getQuantity()) + " left in stock.");
+                        "Cannot add " + request.getQuantity() + " more items. Only " + (variant.getQuantity() - existingLine.getQuantity()) + " left in stock.");
             }
-            existingCartItem.setQuantity(newQuantity);
-            existingCartItem.setPrice(product.getPrice().multiply(BigDecimal.valueOf(newQuantity)));
-            existingCartItem.setSellingPrice(product.getSellingPrice().multiply(BigDecimal.valueOf(newQuantity)));
-            cartItemRepository.save(existingCartItem);
+            pricedLine = cartPricingService.priceLine(variantId, product.getPrice(), product.getSellingPrice(), newQuantity);
+            existingLine.setQuantity(newQuantity);
+            existingLine.setUnitPrice(pricedLine.getUnitPrice());
+            existingLine.setUnitSellingPrice(pricedLine.getUnitSellingPrice());
         } else {
-            if (request.getQuantity() > variant.getQuantity()) {
+            newQuantity = request.getQuantity();
+            if (newQuantity > variant.getQuantity()) {
                 throw new AppException(ErrorCode.PRODUCT_OUT_OF_STOCK,
                         "Cannot add " + request.getQuantity() + " items. Only " + variant.getQuantity() + " left in stock.");
             }
-            CartItem newCartItem = new CartItem();
-            newCartItem.setVariant(variant);
-            newCartItem.setCart(cart);
-            newCartItem.setQuantity(request.getQuantity());
-            newCartItem.setPrice(product.getPrice().multiply(BigDecimal.valueOf(request.getQuantity())));
-            newCartItem.setSellingPrice(product.getSellingPrice().multiply(BigDecimal.valueOf(request.getQuantity())));
-            cart.getCartItems().add(newCartItem);
+            pricedLine = cartPricingService.priceLine(variantId, product.getPrice(), product.getSellingPrice(), newQuantity);
+            cart.getLines().add(CartLine.builder()
+                    .variantId(variantId)
+                    .productId(productId)
+                    .quantity(newQuantity)
+                    .addedAt(System.currentTimeMillis())
+                    .unitPrice(pricedLine.getUnitPrice())
+                    .unitSellingPrice(pricedLine.getUnitSellingPrice())
+                    .build());
         }
+        cartStoreService.putLine(username, productId, pricedLine);
 
-        updateCartTotals(cart);
-
-        return mapCartToCartResponse(cart);
+        return buildCartResponse(username, cart);
     }
 
-    
-    private void updateCartTotals(Cart cart) {
-        BigDecimal subTotalPrice = BigDecimal.ZERO; 
-        BigDecimal originalTotalPrice = BigDecimal.ZERO; 
-        int totalItem = 0;
-
-        for (CartItem cartItem : cart.getCartItems()) {
-            Product product = cartItem.getVariant().getProduct();
-            BigDecimal itemSellingPrice = product.getSellingPrice();
-            BigDecimal itemOriginalPrice = product.getPrice(); 
-            int quantity = cartItem.getQuantity();
-
-            cartItem.setPrice(itemOriginalPrice.multiply(BigDecimal.valueOf(quantity))); 
-            cartItem.setSellingPrice(itemSellingPrice.multiply(BigDecimal.valueOf(quantity))); 
-            cartItemRepository.save(cartItem);
-
-            subTotalPrice = subTotalPrice.add(cartItem.getSellingPrice());
-            originalTotalPrice = originalTotalPrice.add(cartItem.getPrice()); 
-            totalItem += quantity;
-        }
+    @Override
+    public CartResponse findCartByUser(Principal principal) {
+        String username = principal.getName();
+        return buildCartResponse(username, cartStoreService.load(username));
+    }
 
-        cart.setTotalItem(totalItem);
-        cart.setTotalPrice(originalTotalPrice); 
+    @Transactional
+    @Override
+    public CartResponse applyCoupon(ApplyCouponRequest request, Principal principal) {
+        String username = principal.getName();
+        ActiveCoupon coupon = couponIndexService.findByCode(request.getCouponCode())
+                .orElseThrow(() -> couponRepository.findByCode(request.getCouponCode()).isPresent()
+                        ? new AppException(ErrorCode.INVALID_INPUT, "Coupon is not valid or has expired.")
+                        : new ResourceNotFoundException("Coupon", "code", request.getCouponCode()));
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
 
-        
-        if (cart.getCouponCode() != null && !cart.getCouponCode().isEmpty()) {
-            Optional<Coupon> couponOpt = couponRepository.findByCode(cart.getCouponCode());
-            if (couponOpt.isPresent()) {
-                Coupon coupon = couponOpt.get();
-                if (coupon.getIsActive() && coupon.getEndDate().isAfter(LocalDate.now().minusDays(1))
-                        && subTotalPrice.compareTo(coupon.getMinOrderValue()) >= 0) {
-
-                    BigDecimal discountAmount = subTotalPrice.multiply(coupon.getDiscountPercentage()).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-                    BigDecimal finalPrice = subTotalPrice.subtract(discountAmount);
-
-                    cart.setTotalSellingPrice(finalPrice); 
-                    cart.setDiscount(coupon.getDiscountPercentage());
-                } else {
-                    
-                    cart.setCouponCode(null);
-                    cart.setDiscount(null);
-                    cart.setTotalSellingPrice(subTotalPrice); 
-                }
-            } else {
-                
-                cart.setCouponCode(null);
-                cart.setDiscount(null);
-                cart.setTotalSellingPrice(subTotalPrice);
-            }
-        } else {
-            
-            cart.setTotalSellingPrice(subTotalPrice); 
-            cart.setDiscount(calculateDiscountPercentage(originalTotalPrice, subTotalPrice)); 
+        if (couponRepository.existsRedemption(coupon.getId(), user.getId())) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "You have already used this coupon.");
         }
 
-        cartRepository.save(cart);
+        CartSnapshot cart = cartStoreService.load(username);
+        return redeemCoupon(user, cart, priceTotals(username, cart), coupon);
     }
-    
-
-    
-    private BigDecimal calculateDiscountPercentage(BigDecimal totalPrice, BigDecimal totalSellingPrice) {
-        if (totalPrice == null || totalSellingPrice == null ||
-                totalPrice.compareTo(BigDecimal.ZERO) <= 0 ||
-                totalSellingPrice.compareTo(totalPrice) > 0) {
-            return BigDecimal.ZERO;
-        }
-        BigDecimal discount = totalPrice.subtract(totalSellingPrice);
-        return discount.multiply(new BigDecimal("100"))
-                .divide(totalPrice, 2, RoundingMode.HALF_UP);
-    }
-
 
     @Override
-    public CartResponse findCartByUser(Principal principal) {
+    public CouponSuggestionResponse suggestBestCoupon(Principal principal) {
         String username = principal.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
-        Cart cart = cartRepository.findByUser(user)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "user", username));
-
-        updateCartTotals(cart);
-        return mapCartToCartResponse(cart);
+        PricedCart pricedCart = priceTotals(username, cartStoreService.load(username));
+
+        return findBestCouponForUser(user, pricedCart.getTotalSellingPrice())
+                .map(coupon -> {
+                    CartTotals totals = cartPricingService.summarize(pricedCart, coupon);
+                    return new CouponSuggestionResponse(
+                            coupon.getCode(),
+                            coupon.getDiscountPercentage(),
+                            MoneyUtil.toAmount(totals.getCouponDiscount()),
+                            MoneyUtil.toAmount(totals.getTotalSellingPrice()));
+                })
+                .orElse(null);
     }
 
     @Transactional
     @Override
-    public CartResponse applyCoupon(ApplyCouponRequest request, Principal principal) {
-        User user = userRepository.findByUsername(principal.getName())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", principal.getName()));
-        Coupon coupon = couponRepository.findByCode(request.getCouponCode())
-                .orElseThrow(() -> new ResourceNotFoundException("Coupon", "code", request.getCouponCode()));
-        Cart cart = cartRepository.findByUser(user)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "user", principal.getName()));
-
-        
-        BigDecimal subTotalPrice = cart.getCartItems().stream()
-                .map(item -> item.getVariant().getProduct().getSellingPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        if (!coupon.getIsActive() || coupon.getStartDate().isAfter(LocalDate.now()) || coupon.getEndDate().isBefore(LocalDate.now())) {
-            throw new AppException(ErrorCode.INVALID_INPUT, "Coupon is not valid or has expired.");
+    public CartResponse applyBestCoupon(Principal principal) {
+        String username = principal.getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        CartSnapshot cart = cartStoreService.load(username);
+        PricedCart pricedCart = priceTotals(username, cart);
+
+        // thử lần lượt từ coupon tốt nhất: coupon vừa hết lượt do request khác thì chuyển sang ứng viên kế tiếp
+        for (ActiveCoupon coupon : findCouponsForUser(user, pricedCart.getTotalSellingPrice())) {
+            if (tryRedeem(user, coupon)) {
+                cart.setCouponCode(coupon.getCode());
+                cartStoreService.setCouponCode(username, coupon.getCode());
+                return buildCartResponse(username, cart);
+            }
         }
+        throw new AppException(ErrorCode.INVALID_INPUT, "No coupon is applicable to this cart.");
+    }
 
-        if (coupon.getUsedByUser().contains(user)) {
-            throw new AppException(ErrorCode.INVALID_INPUT, "You have already used this coupon.");
+    /**
+     * Coupon tốt nhất mà user chưa dùng: lọc ứng viên từ index in-memory,
+     * chỉ một query kiểm tra lượt dùng của user trên các ứng viên đó.
+     */
+    private Optional<ActiveCoupon> findBestCouponForUser(User user, long subTotal) {
+        List<ActiveCoupon> candidates = couponIndexService.findApplicableCoupons(subTotal);
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        Set<Long> redeemedCouponIds = couponRepository.findRedeemedCouponIds(user.getId(),
+                candidates.stream().map(ActiveCoupon::getId).toList());
+        return couponIndexService.findBestCoupon(subTotal, redeemedCouponIds);
+    }
+
+    /**
+     * Mọi coupon user chưa dùng áp dụng được cho cart, theo % giảm giá giảm dần.
+     */
+    private List<ActiveCoupon> findCouponsForUser(User user, long subTotal) {
+        List<ActiveCoupon> candidates = couponIndexService.findApplicableCoupons(subTotal);
+        if (candidates.isEmpty()) {
+            return candidates;
         }
+        Set<Long> redeemedCouponIds = couponRepository.findRedeemedCouponIds(user.getId(),
+                candidates.stream().map(ActiveCoupon::getId).toList());
+        return candidates.stream()
+                .filter(coupon -> !redeemedCouponIds.contains(coupon.getId()))
+                .toList();
+    }
 
-        if (subTotalPrice.compareTo(coupon.getMinOrderValue()) < 0) {
-            throw new AppException(ErrorCode.INVALID_INPUT, "Minimum order value not met for this coupon.");
+    /**
+     * Ghi nhận lượt dùng, trả về false (và không để lại dòng user_coupon) nếu user đã dùng hoặc coupon vừa hết lượt.
+     */
+    private boolean tryRedeem(User user, ActiveCoupon coupon) {
+        if (couponRepository.insertRedemptionIfAbsent(coupon.getId(), user.getId()) == 0) {
+            return false;
+        }
+        if (couponRepository.incrementUsedCount(coupon.getId()) == 0) {
+            couponRepository.deleteRedemption(coupon.getId(), user.getId());
+            couponIndexService.markExhausted(coupon.getId());
+            return false;
+        }
+        return true;
+    }
+
+    private CartResponse redeemCoupon(User user, CartSnapshot cart, PricedCart pricedCart, ActiveCoupon coupon) {
+        cartPricingService.validateCoupon(coupon, pricedCart);
+
+        // Ghi nhận lượt dùng nguyên tử: insert-if-absent rồi mới tăng bộ đếm toàn cục (rollback nếu hết lượt)
+        if (couponRepository.insertRedemptionIfAbsent(coupon.getId(), user.getId()) == 0) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "You have already used this coupon.");
+        }
+        if (couponRepository.incrementUsedCount(coupon.getId()) == 0) {
+            couponIndexService.markExhausted(coupon.getId());
+            throw new AppException(ErrorCode.INVALID_INPUT, "This coupon has reached its usage limit.");
         }
 
         cart.setCouponCode(coupon.getCode());
-        updateCartTotals(cart); 
+        cartStoreService.setCouponCode(user.getUsername(), coupon.getCode());
 
-        coupon.getUsedByUser().add(user);
-        couponRepository.save(coupon);
+        return buildCartResponse(user.getUsername(), cart);
+    }
+
+    private CartResponse buildCartResponse(String username, CartSnapshot cart) {
+        List<CartItemResponse> cartItemResponses = new ArrayList<>();
+        PricedCart pricedCart = priceCart(username, cart, cartItemResponses);
+
+        ActiveCoupon coupon = null;
+        if (cart.getCouponCode() != null && !cart.getCouponCode().isEmpty()) {
+            coupon = couponIndexService.findByCode(cart.getCouponCode()).orElse(null);
+        }
+        CartTotals totals = cartPricingService.summarize(pricedCart, coupon);
+        if (cart.getCouponCode() != null && totals.getCouponCode() == null) {
+            // coupon hết hạn hoặc không còn đủ điều kiện: gỡ khỏi cart
+            cartStoreService.setCouponCode(username, null);
+        }
+
+        CartResponse cartResponse = new CartResponse();
+        cartResponse.setId(cart.getCartId());
+        cartResponse.setCartItems(cartItemResponses);
+        cartResponse.setTotalItem(totals.getTotalItem());
+        cartResponse.setTotalPrice(MoneyUtil.toAmount(totals.getTotalPrice()));
+        cartResponse.setTotalSellingPrice(MoneyUtil.toAmount(totals.getTotalSellingPrice()));
+        cartResponse.setDiscount(totals.getDiscount());
+        cartResponse.setCouponCode(totals.getCouponCode());
+        return cartResponse;
+    }
+
+    /**
+     * Tổng tiền của cart từ giá đã lưu của từng dòng; chỉ định giá lại toàn bộ khi có dòng chưa có giá.
+     */
+    private PricedCart priceTotals(String username, CartSnapshot cart) {
+        return cartPricingService.priceFromStoredLines(cart)
+                .orElseGet(() -> priceCart(username, cart, new ArrayList<>()));
+    }
+
+    private PricedCart priceCart(String username, CartSnapshot cart, List<CartItemResponse> cartItemResponses) {
+        PricedCart pricedCart = new PricedCart();
+        List<PricedLine> repricedLines = new ArrayList<>();
+        // load mọi product của cart trong một lần (MGET cache + một query cho phần miss)
+        Map<Long, ProductResponse> productsById = productService.getProductsByIds(
+                        cart.getLines().stream().map(CartLine::getProductId).toList()).stream()
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity(), (first, second) -> first));
+        for (CartLine line : cart.getLines()) {
+            ProductResponse product = productsById.get(line.getProductId());
+            Optional<ProductVariantResponse> variant = (product != null) ? findVariant(product, line.getVariantId()) : Optional.empty();
+            if (variant.isEmpty()) {
+                // product/variant đã bị xóa: bỏ dòng này khỏi cart
+                cartStoreService.removeItem(username, line.getVariantId());
+                continue;
+            }
+
+            PricedLine pricedLine = pricedCart.put(cartPricingService.priceLine(
+                    line.getVariantId(), product.getPrice(), product.getSellingPrice(), line.getQuantity()));
+            if (!Objects.equals(line.getUnitPrice(), pricedLine.getUnitPrice())
+                    || !Objects.equals(line.getUnitSellingPrice(), pricedLine.getUnitSellingPrice())) {
+                repricedLines.add(pricedLine);
+            }
+            cartItemResponses.add(new CartItemResponse(line.getVariantId(), productMapper.toProductSnapshot(product), variant.get(), line.getQuantity(),
+                    MoneyUtil.toAmount(pricedLine.getPrice()), MoneyUtil.toAmount(pricedLine.getSellingPrice())));
+        }
+        // chỉ ghi lại dòng có giá khác với giá đã lưu (product đổi giá hoặc dòng chưa có giá)
+        cartStoreService.savePrices(username, repricedLines);
+        return pricedCart;
+    }
 
-        return mapCartToCartResponse(cart);
+    private Optional<ProductVariantResponse> findVariant(ProductResponse product, Long variantId) {
+        return product.getVariants().stream()
+                .filter(variant -> variant.getId().equals(variantId))
+                .findFirst();
     }
 
-}
\ No newline at end of file
+}
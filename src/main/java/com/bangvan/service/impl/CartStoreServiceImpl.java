@@ -0,0 +1,388 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.cart.CartLine;
+import com.bangvan.dto.cart.CartSnapshot;
+import com.bangvan.dto.cart.PricedCart;
+import com.bangvan.dto.cart.PricedLine;
+import com.bangvan.entity.Cart;
+import com.bangvan.entity.CartItem;
+import com.bangvan.entity.Product;
+import com.bangvan.entity.ProductVariant;
+import com.bangvan.entity.User;
+import com.bangvan.exception.AppException;
+import com.bangvan.exception.ErrorCode;
+import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.repository.CartRepository;
+import com.bangvan.repository.ProductVariantRepository;
+import com.bangvan.repository.UserRepository;
+import com.bangvan.service.CartPricingService;
+import com.bangvan.service.CartStoreService;
+import com.bangvan.service.DealIndexService;
+import com.bangvan.utils.MoneyUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cart đang hoạt động được giữ trong Redis hash "cart:{username}":
+ * id -> cart id, coupon -> mã coupon, q:{variantId} -> số lượng, p:{variantId} -> product id, t:{variantId} -> thời điểm thêm,
+ * l:{variantId} -> "giá gốc:giá bán" đơn vị (minor unit) của lần định giá gần nhất.
+ * Mọi thao tác đọc/ghi cart chỉ chạm Redis; thay đổi được ghi xuống Postgres (write-behind)
+ * bởi job định kỳ qua set "cart:dirty", và được flush đồng bộ lúc checkout.
+ * Redis là nơi giữ thay đổi chưa flush nên phải chạy với maxmemory-policy noeviction:
+ * hash bị evict trước khi flush là mất thay đổi (đếm ở counter cart.flush.lost).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CartStoreServiceImpl implements CartStoreService {
+
+    private static final String CART_PREFIX = "cart:";
+    private static final String DIRTY_KEY = "cart:dirty";
+    private static final String CART_ID_FIELD = "id";
+    private static final String COUPON_FIELD = "coupon";
+    private static final String QUANTITY_PREFIX = "q:";
+    private static final String PRODUCT_PREFIX = "p:";
+    private static final String ADDED_AT_PREFIX = "t:";
+    private static final String LINE_PRICE_PREFIX = "l:";
+    private static final String PRICE_SEPARATOR = ":";
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final String GUARD = "if redis.call('HEXISTS', KEYS[1], 'id') == 0 then return 0 end ";
+
+    private static final RedisScript<Long> SET_FIELDS_SCRIPT = new DefaultRedisScript<>(
+            GUARD + "redis.call('HSET', KEYS[1], unpack(ARGV)) return 1", Long.class);
+
+    private static final RedisScript<Long> DELETE_FIELDS_SCRIPT = new DefaultRedisScript<>(
+            GUARD + "redis.call('HDEL', KEYS[1], unpack(ARGV)) return 1", Long.class);
+
+    // ARGV: field số lượng, số lượng, field product, product id, field thời điểm thêm, thời điểm thêm (chỉ ghi nếu chưa có),
+    // field giá, giá
+    private static final RedisScript<Long> SET_LINE_SCRIPT = new DefaultRedisScript<>(
+            GUARD + "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4], ARGV[7], ARGV[8]) " +
+                    "redis.call('HSETNX', KEYS[1], ARGV[5], ARGV[6]) return 1", Long.class);
+
+    // ARGV: từng cặp variant id, giá; dòng đã bị xóa (không còn field số lượng) thì bỏ qua
+    private static final RedisScript<Long> SET_PRICES_SCRIPT = new DefaultRedisScript<>(
+            GUARD + "for i = 1, #ARGV, 2 do " +
+                    "if redis.call('HEXISTS', KEYS[1], 'q:' .. ARGV[i]) == 1 then " +
+                    "redis.call('HSET', KEYS[1], 'l:' .. ARGV[i], ARGV[i + 1]) end end return 1", Long.class);
+
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final UserRepository userRepository;
+    private final CartRepository cartRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CartPricingService cartPricingService;
+    private final DealIndexService dealIndexService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cart.ttl-days:7}")
+    private int cartTtlDays;
+
+    @Value("${app.cart.flush-batch-size:100}")
+    private int flushBatchSize;
+
+    @Override
+    public CartSnapshot load(String username) {
+        Map<String, String> entries = hashOps().entries(CART_PREFIX + username);
+        // Thiếu field id (hash dở dang) cũng coi là cache miss: nạp lại từ DB, các field đã có được giữ nguyên
+        if (!entries.containsKey(CART_ID_FIELD)) {
+            entries = loadFromDatabase(username);
+        }
+        return toSnapshot(entries);
+    }
+
+    @Override
+    public void putLine(String username, Long productId, PricedLine line) {
+        Long variantId = line.getVariantId();
+        writeLoaded(username, SET_LINE_SCRIPT,
+                QUANTITY_PREFIX + variantId, String.valueOf(line.getQuantity()),
+                PRODUCT_PREFIX + variantId, String.valueOf(productId),
+                ADDED_AT_PREFIX + variantId, String.valueOf(System.currentTimeMillis()),
+                LINE_PRICE_PREFIX + variantId, formatPrice(line.getUnitPrice(), line.getUnitSellingPrice()));
+    }
+
+    /**
+     * Giá đơn vị chỉ là kết quả tính toán, không phải thay đổi của người dùng: không đánh dấu dirty.
+     * Hash vừa hết hạn thì bỏ qua, lần định giá sau sẽ ghi lại.
+     */
+    @Override
+    public void savePrices(String username, Collection<PricedLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(lines.size() * 2);
+        for (PricedLine line : lines) {
+            args.add(String.valueOf(line.getVariantId()));
+            args.add(formatPrice(line.getUnitPrice(), line.getUnitSellingPrice()));
+        }
+        stringRedisTemplate.execute(SET_PRICES_SCRIPT, List.of(CART_PREFIX + username), args.toArray());
+    }
+
+    @Override
+    public void removeItem(String username, Long variantId) {
+        writeLoaded(username, DELETE_FIELDS_SCRIPT,
+                QUANTITY_PREFIX + variantId, PRODUCT_PREFIX + variantId, ADDED_AT_PREFIX + variantId,
+                LINE_PRICE_PREFIX + variantId);
+    }
+
+    @Override
+    public void setCouponCode(String username, String couponCode) {
+        if (couponCode == null) {
+            writeLoaded(username, DELETE_FIELDS_SCRIPT, COUPON_FIELD);
+        } else {
+            writeLoaded(username, SET_FIELDS_SCRIPT, COUPON_FIELD, couponCode);
+        }
+    }
+
+    /**
+     * Xóa cart khỏi Redis. Nếu đang trong transaction (checkout) thì chỉ xóa sau khi commit,
+     * để rollback không làm mất cart.
+     */
+    @Override
+    public void evict(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(username);
+                }
+            });
+        } else {
+            doEvict(username);
+        }
+    }
+
+    /**
+     * Ghi cart trong Redis xuống Postgres. Tham gia transaction hiện tại nếu có (checkout).
+     */
+    @Override
+    public void flush(String username) {
+        Long removed = stringRedisTemplate.opsForSet().remove(DIRTY_KEY, username);
+        flush(username, removed != null && removed > 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:5000}")
+    public void flushDirtyCarts() {
+        List<String> usernames;
+        try {
+            usernames = stringRedisTemplate.opsForSet().pop(DIRTY_KEY, flushBatchSize);
+        } catch (Exception e) {
+            log.error("Failed to read dirty carts from Redis: {}", e.getMessage());
+            return;
+        }
+        if (usernames == null || usernames.isEmpty()) {
+            return;
+        }
+        for (String username : usernames) {
+            try {
+                flush(username, true);
+            } catch (Exception e) {
+                log.error("Failed to flush cart of user {}: {}", username, e.getMessage());
+                stringRedisTemplate.opsForSet().add(DIRTY_KEY, username);
+            }
+        }
+        log.debug("Flushed {} carts to database", usernames.size());
+    }
+
+    /**
+     * @param dirty cart đang nằm trong "cart:dirty", tức hash có thay đổi chưa ghi xuống DB
+     */
+    private void flush(String username, boolean dirty) {
+        Map<String, String> entries = hashOps().entries(CART_PREFIX + username);
+        if (!entries.containsKey(CART_ID_FIELD)) {
+            if (dirty) {
+                // hash đã bị evict/hết hạn trước khi flush: thay đổi từ lần flush trước bị mất
+                log.warn("Cart of user {} was dirty but its Redis hash is gone; unflushed changes are lost", username);
+                Counter.builder("cart.flush.lost")
+                        .description("Dirty carts whose Redis hash disappeared before being flushed")
+                        .register(meterRegistry)
+                        .increment();
+            }
+            return;
+        }
+        CartSnapshot snapshot = toSnapshot(entries);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        stringRedisTemplate.opsForSet().add(DIRTY_KEY, username);
+                    }
+                }
+            });
+        }
+        transactionTemplate.executeWithoutResult(status -> persist(snapshot));
+    }
+
+    private void doEvict(String username) {
+        stringRedisTemplate.delete(CART_PREFIX + username);
+        stringRedisTemplate.opsForSet().remove(DIRTY_KEY, username);
+    }
+
+    private void persist(CartSnapshot snapshot) {
+        // khóa dòng cart: flush định kỳ và flush lúc checkout (có thể ở node khác) không cùng thêm một CartItem
+        Cart cart = cartRepository.findByIdForUpdate(snapshot.getCartId())
+                .orElseThrow(() -> new ResourceNotFoundException("Cart", "ID", snapshot.getCartId()));
+
+        Map<Long, CartLine> linesByVariant = snapshot.getLines().stream()
+                .collect(Collectors.toMap(CartLine::getVariantId, Function.identity()));
+        cart.getCartItems().removeIf(item -> !linesByVariant.containsKey(item.getVariant().getId()));
+
+        Map<Long, CartItem> existingItems = cart.getCartItems().stream()
+                .collect(Collectors.toMap(item -> item.getVariant().getId(), Function.identity(), (a, b) -> a));
+        List<Long> newVariantIds = linesByVariant.keySet().stream()
+                .filter(variantId -> !existingItems.containsKey(variantId))
+                .toList();
+        Map<Long, ProductVariant> newVariants = productVariantRepository.findAllById(newVariantIds).stream()
+                .collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+
+        PricedCart pricedCart = new PricedCart();
+        for (CartLine line : snapshot.getLines()) {
+            CartItem item = existingItems.get(line.getVariantId());
+            if (item == null) {
+                ProductVariant variant = newVariants.get(line.getVariantId());
+                if (variant == null) {
+                    continue;
+                }
+                item = new CartItem();
+                item.setCart(cart);
+                item.setVariant(variant);
+                cart.getCartItems().add(item);
+            }
+            Product product = item.getVariant().getProduct();
+            // giá bán đã áp dụng deal đang chạy của category
+            Long categoryId = (product.getCategory() != null) ? product.getCategory().getId() : null;
+            BigDecimal sellingPrice = dealIndexService.resolveSellingPrice(categoryId, product.getSellingPrice());
+            PricedLine pricedLine = pricedCart.put(cartPricingService.priceLine(
+                    line.getVariantId(), product.getPrice(), sellingPrice, line.getQuantity()));
+            item.setQuantity(line.getQuantity());
+            item.setPrice(MoneyUtil.toAmount(pricedLine.getPrice()));
+            item.setSellingPrice(MoneyUtil.toAmount(pricedLine.getSellingPrice()));
+        }
+
+        cart.setTotalItem(pricedCart.getTotalItem());
+        cart.setTotalPrice(MoneyUtil.toAmount(pricedCart.getTotalPrice()));
+        cart.setTotalSellingPrice(MoneyUtil.toAmount(pricedCart.getTotalSellingPrice()));
+        cart.setCouponCode(snapshot.getCouponCode());
+        cartRepository.save(cart);
+    }
+
+    private Map<String, String> loadFromDatabase(String username) {
+        Map<String, String> entries = transactionTemplate.execute(status -> {
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+            Cart cart = cartRepository.findByUser(user)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart", "user", username));
+
+            Map<String, String> values = new HashMap<>();
+            values.put(CART_ID_FIELD, String.valueOf(cart.getId()));
+            if (cart.getCouponCode() != null && !cart.getCouponCode().isEmpty()) {
+                values.put(COUPON_FIELD, cart.getCouponCode());
+            }
+            for (CartItem item : cart.getCartItems()) {
+                Long variantId = item.getVariant().getId();
+                long addedAt = (item.getCreatedAt() != null)
+                        ? item.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                        : System.currentTimeMillis();
+                values.put(QUANTITY_PREFIX + variantId, String.valueOf(item.getQuantity()));
+                values.put(PRODUCT_PREFIX + variantId, String.valueOf(item.getVariant().getProduct().getId()));
+                values.put(ADDED_AT_PREFIX + variantId, String.valueOf(addedAt));
+                // giá đã ghi ở lần flush trước (tổng của dòng) chia lại theo đơn vị
+                if (item.getPrice() != null && item.getSellingPrice() != null && item.getQuantity() > 0) {
+                    values.put(LINE_PRICE_PREFIX + variantId, formatPrice(
+                            MoneyUtil.toMinor(item.getPrice()) / item.getQuantity(),
+                            MoneyUtil.toMinor(item.getSellingPrice()) / item.getQuantity()));
+                }
+            }
+            return values;
+        });
+
+        String key = CART_PREFIX + username;
+        hashOps().putAll(key, entries);
+        stringRedisTemplate.expire(key, Duration.ofDays(cartTtlDays));
+        return entries;
+    }
+
+    /**
+     * Ghi vào cart chỉ khi hash đang có field id (script kiểm tra và ghi trong một bước).
+     * Key hết hạn giữa chừng thì nạp lại từ DB rồi ghi lại, tránh tạo ra hash chỉ có vài field.
+     */
+    private void writeLoaded(String username, RedisScript<Long> script, String... args) {
+        String key = CART_PREFIX + username;
+        for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+            Long applied = stringRedisTemplate.execute(script, List.of(key), (Object[]) args);
+            if (applied != null && applied == 1L) {
+                markDirty(username, key);
+                return;
+            }
+            loadFromDatabase(username);
+        }
+        throw new AppException(ErrorCode.INTERNAL_ERROR, "Cart of user " + username + " could not be loaded.");
+    }
+
+    private void markDirty(String username, String key) {
+        stringRedisTemplate.expire(key, Duration.ofDays(cartTtlDays));
+        stringRedisTemplate.opsForSet().add(DIRTY_KEY, username);
+    }
+
+    private CartSnapshot toSnapshot(Map<String, String> entries) {
+        CartSnapshot snapshot = CartSnapshot.builder()
+                .cartId(Long.parseLong(entries.get(CART_ID_FIELD)))
+                .couponCode(entries.get(COUPON_FIELD))
+                .build();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (!entry.getKey().startsWith(QUANTITY_PREFIX)) {
+                continue;
+            }
+            String variantId = entry.getKey().substring(QUANTITY_PREFIX.length());
+            String productId = entries.get(PRODUCT_PREFIX + variantId);
+            if (productId == null) {
+                continue;
+            }
+            String addedAt = entries.get(ADDED_AT_PREFIX + variantId);
+            CartLine line = CartLine.builder()
+                    .variantId(Long.parseLong(variantId))
+                    .productId(Long.parseLong(productId))
+                    .quantity(Integer.parseInt(entry.getValue()))
+                    .addedAt(addedAt != null ? Long.parseLong(addedAt) : 0L)
+                    .build();
+            String price = entries.get(LINE_PRICE_PREFIX + variantId);
+            if (price != null) {
+                int separator = price.indexOf(PRICE_SEPARATOR);
+                line.setUnitPrice(Long.parseLong(price.substring(0, separator)));
+                line.setUnitSellingPrice(Long.parseLong(price.substring(separator + 1)));
+            }
+            snapshot.getLines().add(line);
+        }
+        snapshot.getLines().sort(Comparator.comparingLong(CartLine::getAddedAt));
+        return snapshot;
+    }
+
+    private static String formatPrice(long unitPrice, long unitSellingPrice) {
+        return unitPrice + PRICE_SEPARATOR + unitSellingPrice;
+    }
+
+    private HashOperations<String, String, String> hashOps() {
+        return stringRedisTemplate.opsForHash();
+    }
+}
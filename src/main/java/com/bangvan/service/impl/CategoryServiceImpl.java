@@ -6,12 +6,14 @@ import com.bangvan.entity.Category;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.CategoryMapper;
 import com.bangvan.repository.CategoryRepository;
+import com.bangvan.repository.DealRepository;
 import com.bangvan.repository.ProductRepository;
 import com.bangvan.service.CategoryService;
+import com.bangvan.service.DealIndexService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -25,8 +27,10 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
-    private final ModelMapper modelMapper;
+    private final CategoryMapper categoryMapper;
     private final ProductRepository productRepository;
+    private final DealRepository dealRepository;
+    private final DealIndexService dealIndexService;
 
     @Transactional
     @Override
@@ -43,22 +47,25 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryResponse.class);
+        dealIndexService.refreshCluster();
+        return categoryMapper.toCategoryResponse(savedCategory);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long categoryId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
-        return modelMapper.map(category, CategoryResponse.class);
+        return categoryMapper.toCategoryResponse(category);
     }
 
     @Override
     @Cacheable(value = "categories", key = "'all'")
+    @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
         List<Category> categories = categoryRepository.findAll();
         return categories.stream()
-                .map(category -> modelMapper.map(category, CategoryResponse.class))
+                .map(categoryMapper::toCategoryResponse)
                 .collect(Collectors.toList());
     }
 
@@ -80,7 +87,9 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category updatedCategory = categoryRepository.save(category);
-        return modelMapper.map(updatedCategory, CategoryResponse.class);
+        // parent có thể thay đổi: deal kế thừa theo cây category phải tính lại
+        dealIndexService.refreshCluster();
+        return categoryMapper.toCategoryResponse(updatedCategory);
     }
 
     @Transactional
@@ -103,12 +112,15 @@ public class CategoryServiceImpl implements CategoryService {
         });
 
 
+        dealRepository.deleteByCategory_Id(categoryId);
         categoryRepository.delete(category);
+        dealIndexService.refreshCluster();
         return "Category with ID " + categoryId + " has been deleted successfully.";
     }
 
     @Override
     @Cacheable(value = "categories", key = "'level3_parent_' + #parentCategoryId")
+    @Transactional(readOnly = true)
     public List<CategoryResponse> findAllLevel3Subcategories(Long parentCategoryId) {
         log.info("Finding all level 3 subcategories for parent category ID: {}", parentCategoryId);
 
@@ -156,7 +168,7 @@ public class CategoryServiceImpl implements CategoryService {
 
 
         return level3Categories.stream()
-                .map(category -> modelMapper.map(category, CategoryResponse.class))
+                .map(categoryMapper::toCategoryResponse)
                 .collect(Collectors.toList());
     }
 }
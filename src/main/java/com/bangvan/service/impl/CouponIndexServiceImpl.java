@@ -0,0 +1,177 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.coupon.ActiveCoupon;
+import com.bangvan.entity.Coupon;
+import com.bangvan.repository.CouponRepository;
+import com.bangvan.service.CouponIndexService;
+import com.bangvan.utils.MoneyUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Index in-memory các coupon đang active, sắp xếp theo % giảm giá giảm dần,
+ * để tìm coupon tốt nhất cho một cart mà không cần query coupon mỗi request.
+ * Index được nạp lại khi CRUD coupon (qua Redis pub/sub cho mọi node, message mang id node publish để node đó
+ * không nạp lại lần hai) và định kỳ để phòng lỡ message.
+ * Coupon hết lượt (theo used_count lúc nạp, hoặc do redeem thua race) không được gợi ý nhưng vẫn tìm được theo code
+ * để tính giá cho cart đã áp dụng nó.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CouponIndexServiceImpl implements CouponIndexService {
+
+    public static final String REFRESH_CHANNEL = "coupon:index:refresh";
+
+    private final CouponRepository couponRepository;
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    // bean "taskScheduler" (pool chung của SchedulingConfig, resolve theo tên tham số): publish không chạy trên thread request
+    private final ThreadPoolTaskScheduler taskScheduler;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile List<ActiveCoupon> couponsByDiscount = Collections.emptyList();
+    private volatile Map<String, ActiveCoupon> couponsByCode = Collections.emptyMap();
+    private final Set<Long> exhaustedCouponIds = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Failed to load active coupon index: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ActiveCoupon> findByCode(String code) {
+        ActiveCoupon coupon = couponsByCode.get(code);
+        return (coupon != null && coupon.isValidOn(LocalDate.now())) ? Optional.of(coupon) : Optional.empty();
+    }
+
+    @Override
+    public List<ActiveCoupon> findApplicableCoupons(long subTotal) {
+        LocalDate today = LocalDate.now();
+        List<ActiveCoupon> result = new ArrayList<>();
+        for (ActiveCoupon coupon : couponsByDiscount) {
+            if (isAvailable(coupon, today) && subTotal >= coupon.getMinOrderValue()) {
+                result.add(coupon);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<ActiveCoupon> findBestCoupon(long subTotal, Set<Long> excludedCouponIds) {
+        LocalDate today = LocalDate.now();
+        // danh sách đã sắp xếp theo % giảm giá giảm dần nên coupon hợp lệ đầu tiên là tốt nhất
+        for (ActiveCoupon coupon : couponsByDiscount) {
+            if (isAvailable(coupon, today) && subTotal >= coupon.getMinOrderValue()
+                    && !excludedCouponIds.contains(coupon.getId())) {
+                return Optional.of(coupon);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Redeem thua race vì coupon đã hết lượt: ẩn ngay trên node này (không cần nạp lại index ở đây)
+     * và báo các node khác nạp lại, publish bất đồng bộ để không giữ request.
+     */
+    @Override
+    public void markExhausted(Long couponId) {
+        exhaustedCouponIds.add(couponId);
+        taskScheduler.execute(this::publish);
+    }
+
+    @Override
+    public void onRefreshMessage(String publisherNodeId) {
+        if (nodeId.equals(publisherNodeId)) {
+            return;
+        }
+        refresh();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.coupon.index-refresh-interval-ms:300000}", initialDelayString = "${app.coupon.index-refresh-interval-ms:300000}")
+    public void refresh() {
+        List<ActiveCoupon> coupons = couponRepository.findAllByIsActiveTrueAndEndDateGreaterThanEqual(LocalDate.now()).stream()
+                .map(this::toActiveCoupon)
+                .sorted(Comparator.comparingLong(ActiveCoupon::getDiscountBasisPoints).reversed())
+                .toList();
+        couponsByCode = coupons.stream()
+                .collect(Collectors.toUnmodifiableMap(ActiveCoupon::getCode, Function.identity(), (a, b) -> a));
+        couponsByDiscount = coupons;
+        // dữ liệu mới nạp còn lượt (vd. admin tăng usage limit) hoặc coupon không còn active thì bỏ đánh dấu hết lượt
+        Map<Long, ActiveCoupon> couponsById = coupons.stream()
+                .collect(Collectors.toMap(ActiveCoupon::getId, Function.identity(), (a, b) -> a));
+        exhaustedCouponIds.removeIf(id -> !couponsById.containsKey(id) || couponsById.get(id).hasRemainingUses());
+        log.debug("Active coupon index refreshed: {} coupons", coupons.size());
+    }
+
+    /**
+     * Nạp lại index trên mọi node. Trong transaction thì chỉ chạy sau khi commit để đọc được dữ liệu mới.
+     */
+    @Override
+    public void refreshCluster() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishRefresh();
+                }
+            });
+        } else {
+            publishRefresh();
+        }
+    }
+
+    private void publishRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Failed to refresh active coupon index: {}", e.getMessage());
+        }
+        publish();
+    }
+
+    private void publish() {
+        try {
+            stringRedisTemplate.convertAndSend(REFRESH_CHANNEL, nodeId);
+        } catch (Exception e) {
+            log.error("Failed to publish coupon index refresh: {}", e.getMessage());
+        }
+    }
+
+    private ActiveCoupon toActiveCoupon(Coupon coupon) {
+        return ActiveCoupon.builder()
+                .id(coupon.getId())
+                .code(coupon.getCode())
+                .discountPercentage(coupon.getDiscountPercentage())
+                .discountBasisPoints(MoneyUtil.toBasisPoints(coupon.getDiscountPercentage()))
+                .minOrderValue(MoneyUtil.toMinor(coupon.getMinOrderValue()))
+                .startDate(coupon.getStartDate())
+                .endDate(coupon.getEndDate())
+                .remainingUses(coupon.getUsageLimit() != null
+                        ? Math.max(0, coupon.getUsageLimit() - (coupon.getUsedCount() != null ? coupon.getUsedCount() : 0))
+                        : null)
+                .build();
+    }
+
+    private boolean isAvailable(ActiveCoupon coupon, LocalDate today) {
+        return coupon.isValidOn(today) && coupon.hasRemainingUses() && !exhaustedCouponIds.contains(coupon.getId());
+    }
+}
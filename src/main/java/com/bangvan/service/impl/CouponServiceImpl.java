@@ -10,10 +10,12 @@ import com.bangvan.entity.User;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.CouponMapper;
 import com.bangvan.repository.CartRepository;
 import com.bangvan.repository.CouponRepository;
 import com.bangvan.repository.UserRepository;
 import com.bangvan.service.CartService;
+import com.bangvan.service.CouponIndexService;
 import com.bangvan.service.CouponService;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
@@ -34,7 +36,9 @@ public class CouponServiceImpl implements CouponService {
     private final UserRepository userRepository;
     private final CartRepository cartRepository;
     private final ModelMapper modelMapper;
+    private final CouponMapper couponMapper;
     private final CartService cartService;
+    private final CouponIndexService couponIndexService;
 
 
     @Transactional
@@ -46,7 +50,8 @@ public class CouponServiceImpl implements CouponService {
 
         Coupon coupon = modelMapper.map(request, Coupon.class);
         Coupon savedCoupon = couponRepository.save(coupon);
-        return modelMapper.map(savedCoupon, CouponResponse.class);
+        couponIndexService.refreshCluster();
+        return couponMapper.toCouponResponse(savedCoupon);
     }
 
     @Transactional
@@ -55,7 +60,8 @@ public class CouponServiceImpl implements CouponService {
         Coupon coupon = couponRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Coupon", "ID", id));
         modelMapper.map(request, coupon);
         Coupon updatedCoupon = couponRepository.save(coupon);
-        return modelMapper.map(updatedCoupon, CouponResponse.class);
+        couponIndexService.refreshCluster();
+        return couponMapper.toCouponResponse(updatedCoupon);
     }
 
     @Transactional
@@ -63,6 +69,7 @@ public class CouponServiceImpl implements CouponService {
     public void deleteCoupon(Long id) {
         Coupon coupon = couponRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Coupon", "ID", id));
         couponRepository.delete(coupon);
+        couponIndexService.refreshCluster();
     }
 
     @Override
@@ -73,7 +80,7 @@ public class CouponServiceImpl implements CouponService {
                 .pageSize(couponPage.getSize())
                 .totalPages(couponPage.getTotalPages())
                 .totalElements(couponPage.getTotalElements())
-                .pageContent(couponPage.getContent().stream().map(coupon -> modelMapper.map(coupon, CouponResponse.class)).toList())
+                .pageContent(couponPage.getContent().stream().map(couponMapper::toCouponResponse).toList())
                 .build();
     }
 
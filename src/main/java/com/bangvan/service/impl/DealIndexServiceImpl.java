@@ -0,0 +1,197 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.deal.ActiveDeal;
+import com.bangvan.dto.response.product.ProductCardResponse;
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.entity.Category;
+import com.bangvan.entity.Deal;
+import com.bangvan.repository.CategoryRepository;
+import com.bangvan.repository.DealRepository;
+import com.bangvan.service.DealIndexService;
+import com.bangvan.utils.MoneyUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Index in-memory các deal theo category, đã kế thừa xuống toàn bộ cây category
+ * (deal của category cha áp dụng cho mọi category con).
+ * Deal được áp dụng lúc đọc (map ProductResponse, tính giá cart/đơn hàng) theo khung thời gian của nó,
+ * nên bật/tắt deal không cần update product hay xóa cache product.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DealIndexServiceImpl implements DealIndexService {
+
+    public static final String REFRESH_CHANNEL = "deal:index:refresh";
+    private static final int MAX_CATEGORY_DEPTH = 16;
+
+    private final DealRepository dealRepository;
+    private final CategoryRepository categoryRepository;
+    private final RedisTemplate<String, String> stringRedisTemplate;
+
+    // categoryId -> deal áp dụng (của chính nó và các category cha), sắp xếp theo % giảm giảm dần
+    private volatile Map<Long, List<ActiveDeal>> dealsByCategory = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Failed to load deal index: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ActiveDeal> findActiveDeal(Long categoryId) {
+        if (categoryId == null) {
+            return Optional.empty();
+        }
+        List<ActiveDeal> deals = dealsByCategory.get(categoryId);
+        if (deals == null) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (ActiveDeal deal : deals) {
+            if (deal.isRunningAt(now)) {
+                return Optional.of(deal);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Áp dụng deal lên ProductResponse (sửa trực tiếp object: product lấy từ cache Redis luôn là bản deserialize mới).
+     */
+    @Override
+    public ProductResponse applyDeal(ProductResponse product) {
+        if (product == null || product.getCategory() == null || product.getDealDiscount() != null) {
+            return product;
+        }
+        findActiveDeal(product.getCategory().getId()).ifPresent(deal -> {
+            BigDecimal sellingPrice = discountedPrice(product.getSellingPrice(), deal.getDiscount());
+            product.setSellingPrice(sellingPrice);
+            product.setDiscountPercent(discountPercent(product.getPrice(), sellingPrice));
+            product.setDealDiscount(deal.getDiscount());
+            product.setDealEndAt(deal.getEndAt());
+        });
+        return product;
+    }
+
+    @Override
+    public ProductCardResponse applyDeal(ProductCardResponse card) {
+        if (card == null || card.getDealDiscount() != null) {
+            return card;
+        }
+        findActiveDeal(card.getCategoryId()).ifPresent(deal -> {
+            BigDecimal sellingPrice = discountedPrice(card.getSellingPrice(), deal.getDiscount());
+            card.setSellingPrice(sellingPrice);
+            card.setDiscountPercent(discountPercent(card.getPrice(), sellingPrice));
+            card.setDealDiscount(deal.getDiscount());
+            card.setDealEndAt(deal.getEndAt());
+        });
+        return card;
+    }
+
+    @Override
+    public BigDecimal resolveSellingPrice(Long categoryId, BigDecimal sellingPrice) {
+        return findActiveDeal(categoryId)
+                .map(deal -> discountedPrice(sellingPrice, deal.getDiscount()))
+                .orElse(sellingPrice);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.deal.index-refresh-interval-ms:300000}", initialDelayString = "${app.deal.index-refresh-interval-ms:300000}")
+    public void refresh() {
+        Map<Long, Long> parentByCategory = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            parentByCategory.put(category.getId(),
+                    category.getParentCategory() != null ? category.getParentCategory().getId() : null);
+        }
+
+        Map<Long, List<ActiveDeal>> directDeals = new HashMap<>();
+        for (Deal deal : dealRepository.findAllActiveOrUpcoming(LocalDateTime.now())) {
+            if (deal.getCategory() == null || deal.getDiscount() == null) {
+                continue;
+            }
+            directDeals.computeIfAbsent(deal.getCategory().getId(), key -> new ArrayList<>()).add(toActiveDeal(deal));
+        }
+
+        Map<Long, List<ActiveDeal>> inherited = new HashMap<>();
+        if (!directDeals.isEmpty()) {
+            for (Long categoryId : parentByCategory.keySet()) {
+                List<ActiveDeal> deals = new ArrayList<>();
+                Long current = categoryId;
+                for (int depth = 0; current != null && depth < MAX_CATEGORY_DEPTH; depth++) {
+                    deals.addAll(directDeals.getOrDefault(current, Collections.emptyList()));
+                    current = parentByCategory.get(current);
+                }
+                if (!deals.isEmpty()) {
+                    deals.sort(Comparator.comparingInt(ActiveDeal::getDiscount).reversed());
+                    inherited.put(categoryId, List.copyOf(deals));
+                }
+            }
+        }
+        dealsByCategory = Map.copyOf(inherited);
+        log.debug("Deal index refreshed: {} categories with deals", inherited.size());
+    }
+
+    /**
+     * Nạp lại index trên mọi node. Trong transaction thì chỉ chạy sau khi commit để đọc được dữ liệu mới.
+     */
+    @Override
+    public void refreshCluster() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishRefresh();
+                }
+            });
+        } else {
+            publishRefresh();
+        }
+    }
+
+    private void publishRefresh() {
+        try {
+            refresh();
+            stringRedisTemplate.convertAndSend(REFRESH_CHANNEL, String.valueOf(System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.error("Failed to refresh deal index: {}", e.getMessage());
+        }
+    }
+
+    private BigDecimal discountedPrice(BigDecimal sellingPrice, int discount) {
+        long remainingBasisPoints = (100L - discount) * 100L;
+        return MoneyUtil.toAmount(MoneyUtil.applyBasisPoints(MoneyUtil.toMinor(sellingPrice), remainingBasisPoints));
+    }
+
+    private Integer discountPercent(BigDecimal price, BigDecimal sellingPrice) {
+        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
+            return 0;
+        }
+        return price.subtract(sellingPrice).multiply(new BigDecimal("100")).divide(price, 0, RoundingMode.HALF_UP).intValue();
+    }
+
+    private ActiveDeal toActiveDeal(Deal deal) {
+        return ActiveDeal.builder()
+                .id(deal.getId())
+                .categoryId(deal.getCategory().getId())
+                .discount(deal.getDiscount())
+                .startAt(deal.getStartAt())
+                .endAt(deal.getEndAt())
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.request.deal.DealRequest;
+import com.bangvan.dto.response.deal.DealResponse;
+import com.bangvan.entity.Category;
+import com.bangvan.entity.Deal;
+import com.bangvan.exception.AppException;
+import com.bangvan.exception.ErrorCode;
+import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.repository.CategoryRepository;
+import com.bangvan.repository.DealRepository;
+import com.bangvan.service.DealIndexService;
+import com.bangvan.service.DealService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class DealServiceImpl implements DealService {
+
+    private final DealRepository dealRepository;
+    private final CategoryRepository categoryRepository;
+    private final DealIndexService dealIndexService;
+
+    @Transactional
+    @Override
+    public DealResponse createDeal(DealRequest request) {
+        Deal deal = new Deal();
+        applyRequest(deal, request);
+        Deal savedDeal = dealRepository.save(deal);
+        dealIndexService.refreshCluster();
+        return mapDealToResponse(savedDeal);
+    }
+
+    @Transactional
+    @Override
+    public DealResponse updateDeal(Long id, DealRequest request) {
+        Deal deal = dealRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Deal", "ID", id));
+        applyRequest(deal, request);
+        Deal updatedDeal = dealRepository.save(deal);
+        dealIndexService.refreshCluster();
+        return mapDealToResponse(updatedDeal);
+    }
+
+    @Transactional
+    @Override
+    public void deleteDeal(Long id) {
+        Deal deal = dealRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Deal", "ID", id));
+        dealRepository.delete(deal);
+        dealIndexService.refreshCluster();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DealResponse> getAllDeals() {
+        return dealRepository.findAll(Sort.by(Sort.Direction.DESC, "startAt")).stream()
+                .map(this::mapDealToResponse)
+                .toList();
+    }
+
+    private void applyRequest(Deal deal, DealRequest request) {
+        if (request.getStartAt() != null && request.getEndAt() != null && !request.getEndAt().isAfter(request.getStartAt())) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "Deal end time must be after its start time.");
+        }
+        Category category = categoryRepository.findById(request.getCategoryId())
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "categoryId", request.getCategoryId()));
+        deal.setCategory(category);
+        deal.setDiscount(request.getDiscount());
+        deal.setStartAt(request.getStartAt());
+        deal.setEndAt(request.getEndAt());
+        if (request.getIsActive() != null) {
+            deal.setIsActive(request.getIsActive());
+        }
+    }
+
+    private DealResponse mapDealToResponse(Deal deal) {
+        DealResponse response = new DealResponse();
+        response.setId(deal.getId());
+        response.setCategoryId(deal.getCategory().getId());
+        response.setCategoryName(deal.getCategory().getName());
+        response.setDiscount(deal.getDiscount());
+        response.setStartAt(deal.getStartAt());
+        response.setEndAt(deal.getEndAt());
+        response.setIsActive(deal.getIsActive());
+        return response;
+    }
+}
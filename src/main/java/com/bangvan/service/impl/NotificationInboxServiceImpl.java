@@ -0,0 +1,120 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.response.notification.NotificationResponse;
+import com.bangvan.service.NotificationInboxService;
+import com.bangvan.service.RealtimeMessagingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inbox thông báo cho user đang offline, lưu trong Redis list "notification:inbox:{username}".
+ * Khi user subscribe lại /user/queue/notifications (xem NotificationInboxSubscribeInterceptor), toàn bộ inbox được gửi
+ * trong một frame (mảng NotificationResponse, cũ -> mới).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationInboxServiceImpl implements NotificationInboxService {
+
+    private static final String INBOX_PREFIX = "notification:inbox:";
+    private static final String NOTIFICATION_DESTINATION = "/queue/notifications";
+
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final RealtimeMessagingService realtimeMessagingService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.notification.inbox.max-size:200}")
+    private int inboxMaxSize;
+
+    @Value("${app.notification.inbox.ttl-days:30}")
+    private int inboxTtlDays;
+
+    @Override
+    public void store(String username, NotificationResponse notification) {
+        String key = INBOX_PREFIX + username;
+        try {
+            stringRedisTemplate.opsForList().leftPush(key, objectMapper.writeValueAsString(notification));
+            stringRedisTemplate.opsForList().trim(key, 0, inboxMaxSize - 1);
+            stringRedisTemplate.expire(key, Duration.ofDays(inboxTtlDays));
+            log.info("User {} is offline, notification stored in inbox", username);
+        } catch (Exception e) {
+            log.error("Failed to store notification in inbox of user {}: {}", username, e.getMessage());
+        }
+    }
+
+    /**
+     * Đọc inbox (LRANGE), gửi một frame, rồi chỉ xóa đúng các entry đã gửi (LREM từ cuối list).
+     * Gửi lỗi hoặc không node nào nhận (user đã ngắt kết nối) thì inbox giữ nguyên để lần subscribe sau gửi lại;
+     * notification được push xen giữa không bị xóa.
+     */
+    @Override
+    @Async
+    public void deliverPending(String username) {
+        String key = INBOX_PREFIX + username;
+        List<String> items = read(key);
+        if (items.isEmpty()) {
+            return;
+        }
+
+        List<NotificationResponse> notifications = new ArrayList<>(items.size());
+        for (String item : items) {
+            try {
+                notifications.add(objectMapper.readValue(item, NotificationResponse.class));
+            } catch (Exception e) {
+                log.warn("Skip malformed inbox entry of user {}: {}", username, e.getMessage());
+            }
+        }
+        // LPUSH lưu mới nhất ở đầu list
+        Collections.reverse(notifications);
+
+        try {
+            if (!notifications.isEmpty()
+                    && !realtimeMessagingService.sendToUser(username, NOTIFICATION_DESTINATION, notifications)) {
+                log.info("Pending notifications of user {} were not delivered, inbox kept", username);
+                return;
+            }
+        } catch (Exception e) {
+            log.error("Failed to deliver pending notifications to user {}, inbox kept: {}", username, e.getMessage());
+            return;
+        }
+        remove(key, items);
+        log.info("Delivered {} pending notifications to user {}", notifications.size(), username);
+    }
+
+    private List<String> read(String key) {
+        try {
+            List<String> items = stringRedisTemplate.opsForList().range(key, 0, -1);
+            return (items != null) ? items : Collections.emptyList();
+        } catch (Exception e) {
+            log.error("Failed to read notification inbox {}: {}", key, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private void remove(String key, List<String> items) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                for (String item : items) {
+                    // count -1: xóa từ cuối list, nơi chứa các entry cũ đã gửi
+                    connection.listCommands().lRem(rawKey, -1, item.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to trim notification inbox {}: {}", key, e.getMessage());
+        }
+    }
+}
@@ -1,40 +1,175 @@
 package com.bangvan.service.impl;
 
+import com.bangvan.dto.request.notification.MarkNotificationsReadRequest;
+import com.bangvan.dto.response.notification.NotificationFeedResponse;
 import com.bangvan.dto.response.notification.NotificationResponse;
 import com.bangvan.dto.response.seller.NotificationSummaryResponse;
 import com.bangvan.entity.Notification;
 import com.bangvan.entity.Seller;
 import com.bangvan.entity.User;
+import com.bangvan.exception.AppException;
+import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
 import com.bangvan.repository.NotificationRepository;
-import com.bangvan.repository.SellerRepository;
+import com.bangvan.repository.UserRepository;
+import com.bangvan.service.NotificationInboxService;
 import com.bangvan.service.NotificationService;
+import com.bangvan.service.RealtimeMessagingService;
+import com.bangvan.service.WebSocketSessionRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationServiceImpl implements NotificationService {
 
+    private static final String COUNTER_PREFIX = "notification:counter:";
+    private static final String TOTAL_FIELD = "total";
+    private static final String UNREAD_FIELD = "unread";
+    private static final Duration COUNTER_TTL = Duration.ofDays(1);
+    private static final int MAX_FEED_PAGE_SIZE = 50;
+
+    private static final String COUNTER_GENERATION_PREFIX = "notification:counter-gen:";
+    // số transaction đã ghi notification của user nhưng chưa cập nhật counter (từ trước commit đến sau commit)
+    private static final String COUNTER_PENDING_PREFIX = "notification:counter-pending:";
+    private static final Duration COUNTER_PENDING_TTL = Duration.ofMinutes(1);
+
+    private static final RedisScript<Long> MARK_PENDING_SCRIPT = new DefaultRedisScript<>(
+            "local pending = redis.call('INCR', KEYS[1]) redis.call('EXPIRE', KEYS[1], ARGV[1]) return pending",
+            Long.class);
+
+    /**
+     * Chỉ cộng dồn khi counter đã tồn tại. Counter chưa có thì tăng generation của user,
+     * để lần seed đang đọc DB song song (có thể chưa thấy thay đổi này) bỏ qua việc ghi counter.
+     * ARGV[4] = 1: nhả đánh dấu pending do beforeCommit đặt, cùng bước với HINCRBY.
+     */
+    private static final RedisScript<Long> INCREMENT_COUNTER_SCRIPT = new DefaultRedisScript<>(
+            "if ARGV[4] == '1' then redis.call('DECR', KEYS[3]) end " +
+                    "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+                    "redis.call('HINCRBY', KEYS[1], 'total', ARGV[1]) " +
+                    "if redis.call('HINCRBY', KEYS[1], 'unread', ARGV[2]) < 0 then redis.call('HSET', KEYS[1], 'unread', 0) end " +
+                    "return 1 end " +
+                    "redis.call('INCR', KEYS[2]) " +
+                    "redis.call('EXPIRE', KEYS[2], ARGV[3]) " +
+                    "return 0",
+            Long.class);
+
+    /**
+     * Seed counter từ DB theo kiểu SET NX: chỉ ghi khi counter chưa có, generation không đổi kể từ trước lúc đọc DB
+     * và không có transaction nào đang chờ cập nhật counter (DB có thể đã thấy thay đổi mà HINCRBY sau commit sẽ cộng lại).
+     */
+    private static final RedisScript<Long> SEED_COUNTER_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+                    "if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then return 0 end " +
+                    "if tonumber(redis.call('GET', KEYS[3]) or '0') > 0 then return 0 end " +
+                    "redis.call('HSET', KEYS[1], 'unread', ARGV[2], 'total', ARGV[3]) " +
+                    "redis.call('EXPIRE', KEYS[1], ARGV[4]) " +
+                    "return 1",
+            Long.class);
+
     private final NotificationRepository notificationRepository;
-    private final SellerRepository sellerRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final UserRepository userRepository;
+    private final RealtimeMessagingService realtimeMessagingService;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final NotificationInboxService notificationInboxService;
+    private final RedisTemplate<String, String> stringRedisTemplate;
 
     @Override
     @Transactional(readOnly = true)
     public NotificationSummaryResponse getNotificationSummary(Principal principal) {
-        String username = principal.getName();
-        Seller seller = sellerRepository.findByUser_UsernameAndUser_EnabledIsTrue(username)
-                .orElseThrow(() -> new ResourceNotFoundException("Seller", "username", username));
+        User user = findUser(principal);
+        String key = COUNTER_PREFIX + user.getId();
+        String generationKey = COUNTER_GENERATION_PREFIX + user.getId();
+        String generation = null;
+        try {
+            List<String> values = stringRedisTemplate.<String, String>opsForHash().multiGet(key, List.of(UNREAD_FIELD, TOTAL_FIELD));
+            if (values.get(0) != null && values.get(1) != null) {
+                return new NotificationSummaryResponse(Long.parseLong(values.get(0)), Long.parseLong(values.get(1)));
+            }
+            // Đọc generation trước khi query DB
+            generation = stringRedisTemplate.opsForValue().get(generationKey);
+        } catch (Exception e) {
+            log.error("Failed to read notification counter of user {}: {}", user.getUsername(), e.getMessage());
+        }
+
+        NotificationSummaryResponse summary = notificationRepository.getSummaryByUserId(user.getId());
+        try {
+            stringRedisTemplate.execute(SEED_COUNTER_SCRIPT, List.of(key, generationKey, COUNTER_PENDING_PREFIX + user.getId()),
+                    generation != null ? generation : "",
+                    String.valueOf(summary.getUnreadCount()),
+                    String.valueOf(summary.getTotalCount()),
+                    String.valueOf(COUNTER_TTL.toSeconds()));
+        } catch (Exception e) {
+            log.error("Failed to seed notification counter of user {}: {}", user.getUsername(), e.getMessage());
+        }
+        return summary;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public NotificationFeedResponse getNotificationFeed(Principal principal, String cursor, int pageSize) {
+        User user = findUser(principal);
+        int size = Math.max(1, Math.min(pageSize, MAX_FEED_PAGE_SIZE));
+        // Lấy dư 1 bản ghi để biết còn trang sau hay không
+        PageRequest limit = PageRequest.of(0, size + 1);
+
+        List<Notification> notifications;
+        if (cursor == null || cursor.isBlank()) {
+            notifications = notificationRepository.findFeed(user.getId(), limit);
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                LocalDateTime cursorCreatedAt = LocalDateTime.parse(cursor.substring(0, separator));
+                Long cursorId = Long.parseLong(cursor.substring(separator + 1));
+                notifications = notificationRepository.findFeedAfter(user.getId(), cursorCreatedAt, cursorId, limit);
+            } catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+                throw new AppException(ErrorCode.INVALID_INPUT, "Invalid notification cursor.");
+            }
+        }
+
+        boolean hasMore = notifications.size() > size;
+        List<Notification> page = hasMore ? notifications.subList(0, size) : notifications;
+        String nextCursor = null;
+        if (hasMore) {
+            Notification last = page.get(page.size() - 1);
+            nextCursor = last.getCreatedAt() + "_" + last.getId();
+        }
+
+        return NotificationFeedResponse.builder()
+                .items(page.stream().map(this::mapToResponse).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
 
-        return notificationRepository.getSummaryBySeller(seller);
+    @Override
+    @Transactional
+    public int markAsRead(Principal principal, MarkNotificationsReadRequest request) {
+        User user = findUser(principal);
+        int updated = (request == null || request.getIds() == null || request.getIds().isEmpty())
+                ? notificationRepository.markAllRead(user.getId())
+                : notificationRepository.markReadByIds(user.getId(), request.getIds());
+        if (updated > 0) {
+            updateCountersOnCommit(List.of(user.getId()), 0, -updated);
+        }
+        return updated;
     }
 
     @Override
@@ -42,6 +177,7 @@ public class NotificationServiceImpl implements NotificationService {
     public void sendNotificationToSeller(Seller seller, String message, String link) {
 
         Notification notification = new Notification();
+        notification.setUser(seller.getUser());
         notification.setSeller(seller);
         notification.setMessage(message);
         notification.setLink(link);
@@ -49,47 +185,61 @@ public class NotificationServiceImpl implements NotificationService {
 
 
         Notification savedNotification = notificationRepository.save(notification);
+        updateCountersOnCommit(List.of(seller.getUser().getId()), 1, 1);
 
-
-
-        NotificationResponse response = NotificationResponse.builder()
-                .id(savedNotification.getId())
-                .message(savedNotification.getMessage())
-                .link(savedNotification.getLink())
-                .isRead(false)
-                .createdAt(LocalDateTime.now())
-                .build();
+        NotificationResponse response = mapToResponse(savedNotification);
 
         String username = seller.getUser().getUsername();
 
-
-        messagingTemplate.convertAndSendToUser(username, "/queue/notifications", response);
-        log.info("Sent realtime notification to seller: {}", username);
+        afterCommit(() -> {
+            realtimeMessagingService.sendToUser(username, "/queue/notifications", response);
+            log.info("Sent realtime notification to seller: {}", username);
+        });
     }
 
     @Override
+    @Transactional
     public void sendNotificationToUser(User user, String message, String link) {
 
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setMessage(message);
+        notification.setLink(link);
+        notification.setRead(false);
 
+        Notification savedNotification = notificationRepository.save(notification);
+        updateCountersOnCommit(List.of(user.getId()), 1, 1);
 
-
-        NotificationResponse response = NotificationResponse.builder()
-                .id(null)
-                .message(message)
-                .link(link)
-                .isRead(false)
-                .createdAt(LocalDateTime.now())
-                .build();
+        NotificationResponse response = mapToResponse(savedNotification);
 
         String username = user.getUsername();
-        messagingTemplate.convertAndSendToUser(username, "/queue/notifications", response);
-        log.info("Sent realtime notification to user: {}", username);
+        // lưu inbox / push chỉ sau commit: rollback thì user không nhận thông báo không có trong DB
+        afterCommit(() -> {
+            if (!sessionRegistry.isOnline(username)
+                    || !realtimeMessagingService.sendToUser(username, "/queue/notifications", response)) {
+                notificationInboxService.store(username, response);
+                return;
+            }
+            log.info("Sent realtime notification to user: {}", username);
+        });
     }
 
     @Override
+    @Transactional
     public void sendNotificationToAdmin(String message, String link) {
 
-
+        List<User> admins = userRepository.findByRoles_Name("ROLE_ADMIN");
+        List<Notification> notifications = new ArrayList<>(admins.size());
+        for (User admin : admins) {
+            Notification notification = new Notification();
+            notification.setUser(admin);
+            notification.setMessage(message);
+            notification.setLink(link);
+            notification.setRead(false);
+            notifications.add(notification);
+        }
+        notificationRepository.saveAll(notifications);
+        updateCountersOnCommit(admins.stream().map(User::getId).toList(), 1, 1);
 
         NotificationResponse response = NotificationResponse.builder()
                 .message(message)
@@ -97,7 +247,110 @@ public class NotificationServiceImpl implements NotificationService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/admin/notifications", response);
-        log.info("Sent realtime notification to admin topic");
+        afterCommit(() -> {
+            realtimeMessagingService.broadcast("/topic/admin/notifications", response);
+            log.info("Sent realtime notification to admin topic");
+        });
+    }
+
+    private User findUser(Principal principal) {
+        String username = principal.getName();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+    }
+
+    private NotificationResponse mapToResponse(Notification notification) {
+        return NotificationResponse.builder()
+                .id(notification.getId())
+                .message(notification.getMessage())
+                .link(notification.getLink())
+                .isRead(notification.isRead())
+                .createdAt(notification.getCreatedAt() != null ? notification.getCreatedAt() : LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Cập nhật counter sau khi transaction commit. Từ beforeCommit đến lúc HINCRBY xong, counter của user được đánh dấu
+     * pending: lần seed chạy xen giữa (DB đã thấy notification mới) không ghi counter, nên HINCRBY không đếm hai lần.
+     */
+    private void updateCountersOnCommit(List<Long> userIds, long totalDelta, long unreadDelta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userIds.forEach(userId -> incrementCounter(userId, totalDelta, unreadDelta, false));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private final Set<Long> pendingUserIds = new HashSet<>();
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                for (Long userId : userIds) {
+                    if (markPending(userId)) {
+                        pendingUserIds.add(userId);
+                    }
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    userIds.forEach(userId -> incrementCounter(userId, totalDelta, unreadDelta, pendingUserIds.contains(userId)));
+                } else {
+                    pendingUserIds.forEach(userId -> releasePending(userId));
+                }
+            }
+        });
+    }
+
+    private boolean markPending(Long userId) {
+        try {
+            stringRedisTemplate.execute(MARK_PENDING_SCRIPT, List.of(COUNTER_PENDING_PREFIX + userId),
+                    String.valueOf(COUNTER_PENDING_TTL.toSeconds()));
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to mark notification counter of user {} as pending: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void releasePending(Long userId) {
+        try {
+            stringRedisTemplate.opsForValue().decrement(COUNTER_PENDING_PREFIX + userId);
+        } catch (Exception e) {
+            // đánh dấu pending hết hạn theo TTL
+            log.error("Failed to release pending notification counter of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private void incrementCounter(Long userId, long totalDelta, long unreadDelta, boolean releasePending) {
+        try {
+            stringRedisTemplate.execute(INCREMENT_COUNTER_SCRIPT,
+                    List.of(COUNTER_PREFIX + userId, COUNTER_GENERATION_PREFIX + userId, COUNTER_PENDING_PREFIX + userId),
+                    String.valueOf(totalDelta), String.valueOf(unreadDelta), String.valueOf(COUNTER_TTL.toSeconds()),
+                    releasePending ? "1" : "0");
+        } catch (Exception e) {
+            log.error("Failed to update notification counter of user {}: {}", userId, e.getMessage());
+            try {
+                // Xóa counter để lần đọc sau khởi tạo lại từ DB
+                stringRedisTemplate.delete(COUNTER_PREFIX + userId);
+            } catch (Exception ignored) {
+                // Redis không khả dụng, counter sẽ hết hạn theo TTL
+            }
+        }
+    }
+
+    /**
+     * Cập nhật counter / gửi realtime sau khi transaction commit để không lệch với DB khi rollback.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.config.SchedulingConfig;
+import com.bangvan.service.OrderIdGenerator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sinh mã đơn hàng kiểu Snowflake: 41 bit millisecond (tính từ EPOCH) | 10 bit node | 12 bit sequence,
+ * encode Crockford base32 cố định 13 ký tự. Mã tăng dần theo thời gian trên mỗi node nên insert vào
+ * unique index luôn rơi vào cuối B-tree, và thứ tự chuỗi trùng với thứ tự số.
+ * Node id (0..1023) lấy từ app.order-id.node-id nếu có cấu hình; không thì mỗi instance lease một node id
+ * từ Redis lúc khởi động (INCR + SET NX có TTL) và gia hạn định kỳ trên scheduler riêng. Không lease được thì
+ * không khởi động. Chỉ sinh mã khi lease chắc chắn còn hạn: quá (lần gia hạn thành công gần nhất + TTL - margin)
+ * thì ngừng, vì sau TTL instance khác có thể đã lấy cùng node id (renew bị trễ, Redis mất kết nối).
+ */
+@Service
+@Slf4j
+public class OrderIdGeneratorImpl implements OrderIdGenerator {
+
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 13;
+
+    private static final String NODE_SEQUENCE_KEY = "order-id:node-seq";
+    private static final String NODE_LEASE_PREFIX = "order-id:node:";
+
+    /**
+     * Gia hạn lease nếu instance này còn giữ (hoặc lấy lại nếu key đã hết hạn). Trả về 0 khi node id đã thuộc instance khác.
+     */
+    private static final RedisScript<Long> RENEW_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "local owner = redis.call('GET', KEYS[1]) " +
+                    "if owner and owner ~= ARGV[1] then return 0 end " +
+                    "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+                    "return 1",
+            Long.class);
+
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+                    "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final long leaseTtlMillis;
+    private final long leaseSafetyMarginMillis;
+    private final String leaseToken = UUID.randomUUID().toString();
+    private final long nodeId;
+    private final boolean leased;
+    private volatile boolean leaseLost = false;
+    // Mốc (ms) mà trước đó lease chắc chắn còn thuộc instance này; tính từ lúc gửi lệnh, trước khi Redis trả lời
+    private volatile long leaseValidUntil = Long.MAX_VALUE;
+    private long lastTimestamp = -1L;
+    private long sequence = 0L;
+
+    public OrderIdGeneratorImpl(RedisTemplate<String, String> stringRedisTemplate,
+                                @Value("${app.order-id.node-id:#{null}}") Long configuredNodeId,
+                                @Value("${app.order-id.lease-ttl-ms:60000}") long leaseTtlMillis,
+                                @Value("${app.order-id.lease-safety-margin-ms:10000}") long leaseSafetyMarginMillis) {
+        if (leaseSafetyMarginMillis >= leaseTtlMillis) {
+            throw new IllegalArgumentException("app.order-id.lease-safety-margin-ms must be smaller than app.order-id.lease-ttl-ms");
+        }
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.leaseSafetyMarginMillis = leaseSafetyMarginMillis;
+        if (configuredNodeId != null) {
+            if (configuredNodeId < 0 || configuredNodeId > MAX_NODE_ID) {
+                throw new IllegalArgumentException("app.order-id.node-id must be between 0 and " + MAX_NODE_ID);
+            }
+            this.nodeId = configuredNodeId;
+            this.leased = false;
+        } else {
+            this.nodeId = leaseNodeId();
+            this.leased = true;
+        }
+        log.info("Order id generator node id: {} ({})", nodeId, leased ? "leased" : "configured");
+    }
+
+    /**
+     * INCR chọn ứng viên kế tiếp (xoay vòng 0..1023), SET NX giữ node id cho instance này.
+     */
+    private long leaseNodeId() {
+        for (long attempt = 0; attempt <= MAX_NODE_ID; attempt++) {
+            Long next = stringRedisTemplate.opsForValue().increment(NODE_SEQUENCE_KEY);
+            if (next == null) {
+                break;
+            }
+            long candidate = Math.floorMod(next, MAX_NODE_ID + 1);
+            long requestedAt = System.currentTimeMillis();
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(NODE_LEASE_PREFIX + candidate, leaseToken, Duration.ofMillis(leaseTtlMillis));
+            if (Boolean.TRUE.equals(acquired)) {
+                leaseValidUntil = requestedAt + leaseTtlMillis - leaseSafetyMarginMillis;
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("No free order id node id in Redis; set app.order-id.node-id explicitly");
+    }
+
+    /**
+     * Gia hạn lease trước khi hết TTL. Mất lease (instance khác đã lấy node id) thì ngừng sinh mã để không trùng.
+     * Key đã hết hạn mà chưa ai lấy thì script lấy lại; trong khoảng hết hạn đó nextId đã từ chối sinh mã.
+     */
+    @Scheduled(fixedDelayString = "${app.order-id.lease-renew-ms:20000}", scheduler = SchedulingConfig.ORDER_ID_LEASE_SCHEDULER)
+    public void renewLease() {
+        if (!leased || leaseLost) {
+            return;
+        }
+        long requestedAt = System.currentTimeMillis();
+        try {
+            Long renewed = stringRedisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(NODE_LEASE_PREFIX + nodeId),
+                    leaseToken, String.valueOf(leaseTtlMillis));
+            if (renewed != null && renewed == 0) {
+                leaseLost = true;
+                log.error("Order id node id {} was leased by another instance; order creation disabled until restart", nodeId);
+            } else if (renewed != null) {
+                leaseValidUntil = requestedAt + leaseTtlMillis - leaseSafetyMarginMillis;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to renew order id node lease {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        if (!leased || leaseLost) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(NODE_LEASE_PREFIX + nodeId), leaseToken);
+        } catch (Exception e) {
+            log.warn("Failed to release order id node lease {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public String nextOrderId() {
+        return encode(nextId());
+    }
+
+    private synchronized long nextId() {
+        if (leaseLost) {
+            throw new IllegalStateException("Order id node lease lost");
+        }
+        if (leased && System.currentTimeMillis() > leaseValidUntil) {
+            throw new IllegalStateException("Order id node lease " + nodeId + " not renewed in time");
+        }
+        // Đồng hồ lùi (NTP) thì giữ timestamp cũ để mã vẫn tăng đơn điệu
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // Hết 4096 mã trong 1 ms: mượn millisecond kế tiếp
+                timestamp = lastTimestamp + 1;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    private static String encode(long value) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
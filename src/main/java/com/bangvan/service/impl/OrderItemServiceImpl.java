@@ -6,12 +6,13 @@ import com.bangvan.entity.User;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.OrderMapper;
 import com.bangvan.repository.OrderItemRepository;
 import com.bangvan.repository.UserRepository;
 import com.bangvan.service.OrderItemService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
 
@@ -21,9 +22,10 @@ public class OrderItemServiceImpl implements OrderItemService {
 
     private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final OrderMapper orderMapper;
 
     @Override
+    @Transactional(readOnly = true)
     public OrderItemResponse findOrderItemById(Long orderItemId, Principal principal) {
         String username = principal.getName();
         User user = userRepository.findByUsername(username)
@@ -39,8 +41,6 @@ public class OrderItemServiceImpl implements OrderItemService {
     }
 
     private OrderItemResponse mapOrderItemToResponse(OrderItem orderItem) {
-        OrderItemResponse orderItemResponse = modelMapper.map(orderItem, OrderItemResponse.class);
-        orderItemResponse.setProduct(orderItem.getVariant().getProduct());
-        return orderItemResponse;
+        return orderMapper.toOrderItemResponse(orderItem);
     }
 }
\ No newline at end of file
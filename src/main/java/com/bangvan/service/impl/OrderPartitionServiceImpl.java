@@ -0,0 +1,134 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.repository.OrderRepository;
+import com.bangvan.service.OrderPartitionService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bảo trì partition tháng của orders / order_items / transactions:
+ * - Tạo trước partition cho tháng hiện tại và app.order-partitions.months-ahead tháng tới (khi start và mỗi ngày).
+ * - Chuyển đơn DELIVERED/CANCELLED cũ hơn app.order-partitions.archive-after-days sang partition orders_archive,
+ *   theo từng batch, mỗi batch một transaction.
+ *   Chỉ orders có chiều archived; order_items và transactions ở lại partition tháng của chúng
+ *   (ghép theo order_id/order_date nên vẫn join được với đơn đã archive).
+ * - Kiểm tra partition DEFAULT: có dòng nghĩa là thiếu partition tháng, và partition của tháng đó không tạo được nữa
+ *   cho tới khi chuyển các dòng ra. Báo lỗi qua log và gauge orders.partition.default.rows.
+ * Các thao tác đều idempotent; create_monthly_partitions lấy advisory lock nên nhiều node chạy đồng thời không đụng nhau.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPartitionServiceImpl implements OrderPartitionService {
+
+    private static final List<String> MONTHLY_PARENTS = List.of("orders_live", "order_items", "transactions");
+    private static final String ARCHIVE_PARENT = "orders_archive";
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong defaultPartitionRows = new AtomicLong();
+
+    @Value("${app.order-partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.order-partitions.archive-after-days:180}")
+    private int archiveAfterDays;
+
+    @Value("${app.order-partitions.archive-batch-size:1000}")
+    private int archiveBatchSize;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("orders.partition.default.rows", defaultPartitionRows, AtomicLong::get)
+                .description("Rows in the DEFAULT partitions of orders, order_items and transactions")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            ensurePartitions();
+        } catch (Exception e) {
+            log.error("Failed to create order partitions on startup: {}", e.getMessage());
+        }
+        checkDefaultPartitions();
+    }
+
+    @Override
+    public int ensurePartitions() {
+        LocalDate fromMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDate toMonth = fromMonth.plusMonths(monthsAhead);
+        Integer created = transactionTemplate.execute(status -> MONTHLY_PARENTS.stream()
+                .mapToInt(parent -> orderRepository.createMonthlyPartitions(parent, fromMonth, toMonth))
+                .sum());
+        if (created != null && created > 0) {
+            log.info("Created {} monthly order partitions up to {}", created, toMonth);
+        }
+        return created != null ? created : 0;
+    }
+
+    @Override
+    public int archiveOldOrders() {
+        LocalDateTime horizon = LocalDate.now().minusDays(archiveAfterDays).atStartOfDay();
+        LocalDateTime oldest = orderRepository.findOldestArchivableOrderDate(horizon);
+        if (oldest == null) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                orderRepository.createMonthlyPartitions(ARCHIVE_PARENT, oldest.toLocalDate(), horizon.toLocalDate()));
+
+        int total = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> orderRepository.archiveOrders(horizon, archiveBatchSize));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+        }
+        if (total > 0) {
+            log.info("Archived {} orders older than {}", total, horizon);
+        }
+        return total;
+    }
+
+    @Override
+    public long checkDefaultPartitions() {
+        try {
+            long rows = orderRepository.countRowsInDefaultPartitions();
+            defaultPartitionRows.set(rows);
+            if (rows > 0) {
+                log.error("{} rows are in the DEFAULT order partitions; move them out before their monthly partition can be created", rows);
+            }
+            return rows;
+        } catch (Exception e) {
+            log.error("Failed to check DEFAULT order partitions: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    @Scheduled(cron = "${app.order-partitions.maintenance-cron:0 30 2 * * *}")
+    public void runMaintenance() {
+        try {
+            ensurePartitions();
+            archiveOldOrders();
+        } catch (Exception e) {
+            log.error("Order partition maintenance failed: {}", e.getMessage());
+        }
+        checkDefaultPartitions();
+    }
+}
@@ -1,8 +1,9 @@
 package com.bangvan.service.impl;
 
+import com.bangvan.dto.cart.PricedCart;
+import com.bangvan.dto.cart.PricedLine;
 import com.bangvan.dto.request.order.CreateOrderRequest;
 import com.bangvan.dto.response.PageCustomResponse;
-import com.bangvan.dto.response.order.OrderItemResponse;
 import com.bangvan.dto.response.order.OrderResponse;
 import com.bangvan.dto.ws.SocketMessage;
 import com.bangvan.entity.*;
@@ -10,17 +11,28 @@ import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
 import com.bangvan.repository.*;
+import com.bangvan.mapper.OrderMapper;
+import com.bangvan.service.AdminOrderEventService;
+import com.bangvan.service.CartPricingService;
+import com.bangvan.service.CartStoreService;
+import com.bangvan.service.DealIndexService;
 import com.bangvan.service.NotificationService;
+import com.bangvan.service.OrderIdGenerator;
 import com.bangvan.service.OrderService;
+import com.bangvan.service.OrderSummaryService;
+import com.bangvan.service.RealtimeMessagingService;
+import com.bangvan.service.ReplicaRoutingService;
+import com.bangvan.service.SalesRankingService;
+import com.bangvan.utils.MoneyUtil;
 import com.bangvan.utils.OrderStatus;
 import com.bangvan.utils.PaymentMethod;
 import com.bangvan.utils.SocketEventType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +41,7 @@ import java.math.BigDecimal;
 import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,26 +53,57 @@ public class OrderServiceImpl implements OrderService {
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
     private final CartRepository cartRepository;
-    private final ModelMapper modelMapper;
+    private final OrderMapper orderMapper;
     private final SellerRepository sellerRepository;
     private final ProductVariantRepository productVariantRepository;
     private final PaymentOrderRepository paymentOrderRepository;
+    private final OrderNumberRepository orderNumberRepository;
 
     private final NotificationService notificationService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeMessagingService realtimeMessagingService;
+    private final AdminOrderEventService adminOrderEventService;
+    private final CartStoreService cartStoreService;
+    private final CartPricingService cartPricingService;
+    private final DealIndexService dealIndexService;
+    private final SalesRankingService salesRankingService;
+    private final OrderSummaryService orderSummaryService;
+    private final OrderIdGenerator orderIdGenerator;
+    // Chỉ có khi bật app.datasource.replica.enabled
+    private final ObjectProvider<ReplicaRoutingService> replicaRoutingService;
+    private final ProductRepository productRepository;
+
+    @Value("${app.websocket.admin-events.legacy-topic-enabled:true}")
+    private boolean legacyAdminTopicEnabled;
 
     // Helper method để map entity sang response
     private OrderResponse mapOrderToOrderResponse(Order order) {
-        OrderResponse orderResponse = modelMapper.map(order, OrderResponse.class);
-        List<OrderItemResponse> orderItemResponses = order.getOrderItems().stream()
-                .map(orderItem -> {
-                    OrderItemResponse orderItemResponse = modelMapper.map(orderItem, OrderItemResponse.class);
-                    orderItemResponse.setProduct(orderItem.getVariant().getProduct());
-                    return orderItemResponse;
-                })
-                .collect(Collectors.toList());
-        orderResponse.setOrderItems(orderItemResponses);
-        return orderResponse;
+        return orderMapper.toOrderResponse(order);
+    }
+
+    /**
+     * Map một trang id đơn hàng: load mọi đơn kèm user, địa chỉ, items và variant bằng một query IN (...),
+     * giữ nguyên thứ tự của trang id.
+     */
+    private PageCustomResponse<OrderResponse> mapOrderPage(Page<Long> idPage) {
+        List<OrderResponse> orderResponses = new ArrayList<>();
+        if (!idPage.getContent().isEmpty()) {
+            Map<Long, Order> ordersById = orderRepository.findAllWithItemsByIdIn(idPage.getContent()).stream()
+                    .collect(Collectors.toMap(Order::getId, Function.identity()));
+            for (Long orderId : idPage.getContent()) {
+                Order order = ordersById.get(orderId);
+                if (order != null) {
+                    orderResponses.add(mapOrderToOrderResponse(order));
+                }
+            }
+        }
+
+        return PageCustomResponse.<OrderResponse>builder()
+                .pageNo(idPage.getNumber() + 1)
+                .pageSize(idPage.getSize())
+                .totalPages(idPage.getTotalPages())
+                .totalElements(idPage.getTotalElements())
+                .pageContent(orderResponses)
+                .build();
     }
 
     /**
@@ -69,7 +113,7 @@ public class OrderServiceImpl implements OrderService {
     private void sendRealtimeUpdateToUser(String username, SocketEventType eventType, OrderResponse payload) {
         try {
             SocketMessage<OrderResponse> message = SocketMessage.of(eventType, payload);
-            messagingTemplate.convertAndSendToUser(
+            realtimeMessagingService.sendToUser(
                     username,
                     "/queue/updates",
                     message
@@ -81,14 +125,18 @@ public class OrderServiceImpl implements OrderService {
     }
 
     /**
-     * Gửi WebSocket message đến Admin (Broadcast Topic)
-     * Destination: /topic/admin/orders
-     * Client Admin cần subscribe vào: /topic/admin/orders
+     * Gửi WebSocket message đến Admin.
+     * Event gọn được gom theo cửa sổ thời gian và gửi tới /topic/admin/order-events.
+     * Full OrderResponse tới /topic/admin/orders chỉ gửi khi còn bật app.websocket.admin-events.legacy-topic-enabled
      */
-    private void sendRealtimeUpdateToAdmin(SocketEventType eventType, OrderResponse payload) {
+    private void sendRealtimeUpdateToAdmin(SocketEventType eventType, Order order, OrderResponse payload) {
+        adminOrderEventService.publish(eventType, order);
+        if (!legacyAdminTopicEnabled) {
+            return;
+        }
         try {
             SocketMessage<OrderResponse> message = SocketMessage.of(eventType, payload);
-            messagingTemplate.convertAndSend(
+            realtimeMessagingService.broadcast(
                     "/topic/admin/orders",
                     message
             );
@@ -99,6 +147,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderResponse findOrderByOrderIdString(String orderId, Principal principal) {
         Order order = orderRepository.findByOrderId(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "OrderIdString", orderId));
@@ -126,19 +175,9 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<OrderResponse> findAllOrders(Pageable pageable) {
-        Page<Order> orderPage = orderRepository.findAll(pageable);
-        List<OrderResponse> orderResponses = orderPage.getContent().stream()
-                .map(this::mapOrderToOrderResponse)
-                .collect(Collectors.toList());
-
-        return PageCustomResponse.<OrderResponse>builder()
-                .pageNo(orderPage.getNumber() + 1)
-                .pageSize(orderPage.getSize())
-                .totalPages(orderPage.getTotalPages())
-                .totalElements(orderPage.getTotalElements())
-                .pageContent(orderResponses)
-                .build();
+        return mapOrderPage(orderRepository.findPageOfIds(pageable));
     }
 
     @Transactional
@@ -147,7 +186,9 @@ public class OrderServiceImpl implements OrderService {
         String username = principal.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
-        Cart cart = cartRepository.findByUser(user)
+        // Cart đang hoạt động nằm trong Redis: ghi xuống DB trong cùng transaction trước khi đặt hàng
+        cartStoreService.flush(username);
+        Cart cart = cartRepository.findWithProductsByUser(user)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "user", username));
 
         if (cart.getCartItems().isEmpty()) {
@@ -186,48 +227,47 @@ public class OrderServiceImpl implements OrderService {
             order.setUser(user);
             order.setSeller(seller);
             order.setShippingAddress(shippingAddress);
-            order.setOrderId(UUID.randomUUID().toString());
+            order.setOrderId(orderIdGenerator.nextOrderId());
             order.setOrderDate(LocalDateTime.now());
             order.setOrderStatus(OrderStatus.PENDING);
 
             List<OrderItem> orderItems = new ArrayList<>();
-            BigDecimal totalPriceForSeller = BigDecimal.ZERO;
-            int totalItemForSeller = 0;
+            PricedCart pricedOrder = new PricedCart();
 
-            // Xử lý kho hàng và lock sản phẩm
+            // Trừ kho bằng UPDATE có điều kiện (quantity >= requested): checkout đồng thời không thể bán vượt tồn kho
             for (CartItem cartItem : sellerCartItems) {
                 ProductVariant variant = cartItem.getVariant();
                 int requestedQuantity = cartItem.getQuantity();
 
-                // Logic check stock cơ bản
-                if (variant.getQuantity() < requestedQuantity) {
+                if (productVariantRepository.decrementStock(variant.getId(), requestedQuantity) == 0) {
                     throw new AppException(ErrorCode.PRODUCT_OUT_OF_STOCK,
-                            "Not enough stock for SKU " + variant.getSku() + ". Only " + variant.getQuantity() + " left.");
+                            "Not enough stock for SKU " + variant.getSku() + ".");
                 }
 
-                variant.setQuantity(variant.getQuantity() - requestedQuantity);
-                int currentSold = (variant.getSold() != null) ? variant.getSold() : 0;
-                variant.setSold(currentSold + requestedQuantity);
-                productVariantRepository.save(variant);
+                Product product = variant.getProduct();
+                // giá bán đã áp dụng deal đang chạy của category
+                Long categoryId = (product.getCategory() != null) ? product.getCategory().getId() : null;
+                BigDecimal sellingPrice = dealIndexService.resolveSellingPrice(categoryId, product.getSellingPrice());
+                PricedLine pricedLine = pricedOrder.put(cartPricingService.priceLine(
+                        variant.getId(), product.getPrice(), sellingPrice, requestedQuantity));
 
                 OrderItem orderItem = new OrderItem();
                 orderItem.setVariant(variant);
                 orderItem.setQuantity(requestedQuantity);
-                orderItem.setPriceAtPurchase(cartItem.getPrice());
-                orderItem.setSellingPriceAtPurchase(cartItem.getSellingPrice());
+                orderItem.setPriceAtPurchase(MoneyUtil.toAmount(pricedLine.getPrice()));
+                orderItem.setSellingPriceAtPurchase(MoneyUtil.toAmount(pricedLine.getSellingPrice()));
                 orderItem.setOrder(order);
+                orderItem.setOrderDate(order.getOrderDate());
                 orderItem.setVariantSku(variant.getSku());
                 orderItem.setColor(variant.getColor());
                 orderItem.setSize(variant.getSize());
-                orderItem.setProductTitle(variant.getProduct().getTitle());
+                orderItem.setProductTitle(product.getTitle());
                 orderItems.add(orderItem);
-
-                totalPriceForSeller = totalPriceForSeller.add(cartItem.getSellingPrice());
-                totalItemForSeller += requestedQuantity;
             }
 
+            BigDecimal totalPriceForSeller = MoneyUtil.toAmount(pricedOrder.getTotalSellingPrice());
             order.setTotalPrice(totalPriceForSeller);
-            order.setTotalItem(totalItemForSeller);
+            order.setTotalItem(pricedOrder.getTotalItem());
             order.setOrderItems(orderItems);
 
             PaymentOrder paymentOrder = new PaymentOrder();
@@ -238,6 +278,11 @@ public class OrderServiceImpl implements OrderService {
 
             order.setPaymentOrder(paymentOrder);
             Order savedOrder = orderRepository.save(order);
+            // giữ order_id duy nhất toàn cục (orders partition không có unique index trên order_id);
+            // persist, INSERT nằm trong batch cùng order/items lúc flush, mã trùng làm cả transaction rollback
+            orderNumberRepository.save(new OrderNumber(savedOrder.getOrderId(), savedOrder.getId(), savedOrder.getOrderDate()));
+            salesRankingService.recordOrder(savedOrder);
+            orderSummaryService.refresh(savedOrder);
             newOrders.add(savedOrder);
 
             // 1. Gửi Notification (DB) cho Seller & Admin
@@ -259,22 +304,39 @@ public class OrderServiceImpl implements OrderService {
             // 3. Gửi WebSocket: Admin (Kênh chung - Realtime Dashboard)
             sendRealtimeUpdateToAdmin(
                     SocketEventType.ADMIN_NEW_ORDER,
+                    savedOrder,
                     responsePayload
             );
         }
 
+        // Bulk UPDATE sold làm Hibernate flush: gọi một lần sau vòng lặp để INSERT của mọi order được gom batch
+        recordSold(newOrders, 1);
+
         // Xóa cart sau khi đặt hàng thành công
         cart.getCartItems().clear();
         cart.setTotalItem(0);
         cart.setTotalSellingPrice(null);
         cartRepository.save(cart);
+        // Cart Redis được xóa sau khi commit và nạp lại từ DB ở lần đọc sau
+        cartStoreService.evict(username);
 
         return newOrders.stream()
                 .map(this::mapOrderToOrderResponse)
                 .collect(Collectors.toList());
     }
 
+    private void recordSold(Collection<Order> orders, int sign) {
+        Map<Long, Integer> soldByProduct = new HashMap<>();
+        for (Order order : orders) {
+            for (OrderItem item : order.getOrderItems()) {
+                soldByProduct.merge(item.getVariant().getProduct().getId(), item.getQuantity() * sign, Integer::sum);
+            }
+        }
+        soldByProduct.forEach(productRepository::incrementSold);
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public OrderResponse findOrderById(Long orderId, Principal principal) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "ID", orderId));
@@ -302,63 +364,33 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<OrderResponse> findOrderByUser(Principal principal, Pageable pageable) {
         String username = principal.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
 
-        Page<Order> orderPage = orderRepository.findByUser(user, pageable);
-
-        List<OrderResponse> orderResponses = orderPage.getContent().stream()
-                .map(this::mapOrderToOrderResponse)
-                .collect(Collectors.toList());
-
-        return PageCustomResponse.<OrderResponse>builder()
-                .pageNo(orderPage.getNumber() + 1)
-                .pageSize(orderPage.getSize())
-                .totalPages(orderPage.getTotalPages())
-                .totalElements(orderPage.getTotalElements())
-                .pageContent(orderResponses)
-                .build();
+        // Đọc từ read model order_summaries: một range scan trên (user_id, order_date), không join
+        return orderSummaryService.findByUser(user.getId(), null, pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<OrderResponse> findUserOrderHistory(Principal principal, Pageable pageable) {
         String username = principal.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
-        Page<Order> orderPage = orderRepository.findByUserAndOrderStatus(user, OrderStatus.DELIVERED, pageable);
-        List<OrderResponse> orderResponses = orderPage.getContent().stream()
-                .map(this::mapOrderToOrderResponse)
-                .collect(Collectors.toList());
-        return PageCustomResponse.<OrderResponse>builder()
-                .pageNo(orderPage.getNumber() + 1)
-                .pageSize(orderPage.getSize())
-                .totalPages(orderPage.getTotalPages())
-                .totalElements(orderPage.getTotalElements())
-                .pageContent(orderResponses)
-                .build();
+        return orderSummaryService.findByUser(user.getId(), OrderStatus.DELIVERED, pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<OrderResponse> getSellerOrders(Principal principal, Pageable pageable) {
         String username = principal.getName();
         Seller seller = sellerRepository.findByUser_UsernameAndUser_EnabledIsTrue(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Seller", "username", username));
 
-        Page<Order> orderPage = orderRepository.findBySeller(seller, pageable);
-
-        List<OrderResponse> orderResponses = orderPage.getContent().stream()
-                .map(this::mapOrderToOrderResponse)
-                .collect(Collectors.toList());
-
-        return PageCustomResponse.<OrderResponse>builder()
-                .pageNo(orderPage.getNumber() + 1)
-                .pageSize(orderPage.getSize())
-                .totalPages(orderPage.getTotalPages())
-                .totalElements(orderPage.getTotalElements())
-                .pageContent(orderResponses)
-                .build();
+        return mapOrderPage(orderRepository.findIdsBySeller(seller, pageable));
     }
 
     @Transactional
@@ -395,6 +427,10 @@ public class OrderServiceImpl implements OrderService {
         order.setOrderStatus(newStatus);
 
         Order updatedOrder = orderRepository.save(order);
+        orderSummaryService.refresh(updatedOrder);
+        // seller/admin ghi thay buyer: pin read của buyer về primary để trang đơn hàng thấy trạng thái mới
+        String buyerUsername = updatedOrder.getUser().getUsername();
+        replicaRoutingService.ifAvailable(routing -> routing.recordWriteAfterCommit(buyerUsername));
         OrderResponse response = mapOrderToOrderResponse(updatedOrder);
 
         // 1. Notification Database
@@ -418,7 +454,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // 4. Update cho Admin dashboard (Sync giữa các admin)
-        sendRealtimeUpdateToAdmin(SocketEventType.ADMIN_ORDER_UPDATE, response);
+        sendRealtimeUpdateToAdmin(SocketEventType.ADMIN_ORDER_UPDATE, updatedOrder, response);
 
         return response;
     }
@@ -428,6 +464,8 @@ public class OrderServiceImpl implements OrderService {
     public String deleteOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "ID", orderId));
+        orderSummaryService.remove(order.getId());
+        orderNumberRepository.deleteById(order.getOrderId());
         orderRepository.delete(order);
         return "Order with ID " + orderId + " has been deleted successfully.";
     }
@@ -459,17 +497,15 @@ public class OrderServiceImpl implements OrderService {
 
         order.setOrderStatus(OrderStatus.CANCELLED);
 
-        // Hoàn trả tồn kho (Race condition handling: database row lock on productVariant suggested for high load)
+        // Hoàn trả tồn kho bằng UPDATE tương đối, không ghi đè giá trị do checkout đồng thời vừa trừ
         for (OrderItem item : order.getOrderItems()) {
-            ProductVariant variant = item.getVariant();
-
-            variant.setQuantity(variant.getQuantity() + item.getQuantity());
-            int currentSold = (variant.getSold() != null) ? variant.getSold() : 0;
-            variant.setSold(Math.max(0, currentSold - item.getQuantity()));
-            productVariantRepository.save(variant);
+            productVariantRepository.restoreStock(item.getVariant().getId(), item.getQuantity());
         }
 
         Order cancelledOrder = orderRepository.save(order);
+        recordSold(List.of(cancelledOrder), -1);
+        salesRankingService.recordCancellation(cancelledOrder);
+        orderSummaryService.refresh(cancelledOrder);
         OrderResponse response = mapOrderToOrderResponse(cancelledOrder);
 
         // 1. Notification Database
@@ -487,6 +523,7 @@ public class OrderServiceImpl implements OrderService {
         // 3. Realtime WebSocket cho Admin (Realtime Dashboard)
         sendRealtimeUpdateToAdmin(
                 SocketEventType.ADMIN_ORDER_CANCELLED,
+                cancelledOrder,
                 response
         );
 
@@ -0,0 +1,164 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.response.PageCustomResponse;
+import com.bangvan.dto.response.order.OrderResponse;
+import com.bangvan.entity.Order;
+import com.bangvan.entity.OrderSummary;
+import com.bangvan.mapper.OrderMapper;
+import com.bangvan.repository.OrderRepository;
+import com.bangvan.repository.OrderSummaryRepository;
+import com.bangvan.service.OrderSummaryService;
+import com.bangvan.utils.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Duy trì read model order_summaries. Các method ghi được gọi trong transaction đang sửa order,
+ * nên summary luôn commit/rollback cùng với order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderSummaryServiceImpl implements OrderSummaryService {
+
+    private static final String BACKFILL_DONE_KEY = "order-summary:backfill:done";
+    private static final String BACKFILL_LOCK_KEY = "order-summary:backfill:lock";
+
+    // chỉ xóa lock nếu vẫn là của mình (lock có thể đã hết hạn và bị node khác lấy)
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, String> stringRedisTemplate;
+
+    @Value("${app.order-summary.backfill-batch-size:200}")
+    private int backfillBatchSize;
+
+    @Value("${app.order-summary.backfill-lock-ttl-ms:1800000}")
+    private long backfillLockTtlMillis;
+
+    @Value("${app.order-summary.backfill-lookback-hours:24}")
+    private long backfillLookbackHours;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Order order) {
+        orderSummaryRepository.save(orderMapper.toOrderSummary(order));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Long orderId) {
+        orderSummaryRepository.deleteById(orderId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageCustomResponse<OrderResponse> findByUser(Long userId, OrderStatus orderStatus, Pageable pageable) {
+        Page<OrderSummary> summaryPage = (orderStatus != null)
+                ? orderSummaryRepository.findByUserIdAndOrderStatus(userId, orderStatus, pageable)
+                : orderSummaryRepository.findByUserId(userId, pageable);
+        List<OrderResponse> orderResponses = summaryPage.getContent().stream()
+                .map(orderMapper::toOrderResponse)
+                .collect(Collectors.toList());
+
+        return PageCustomResponse.<OrderResponse>builder()
+                .pageNo(summaryPage.getNumber() + 1)
+                .pageSize(summaryPage.getSize())
+                .totalPages(summaryPage.getTotalPages())
+                .totalElements(summaryPage.getTotalElements())
+                .pageContent(orderResponses)
+                .build();
+    }
+
+    /**
+     * Backfill summary cho các order chưa có, theo từng batch id tăng dần. Chạy định kỳ trên scheduler, không chặn lúc khởi động.
+     * Lần quét đầu duyệt toàn bộ orders (dữ liệu trước khi có read model), xong thì đặt cờ done; các lần sau chỉ quét
+     * các đơn trong app.order-summary.backfill-lookback-hours gần nhất (partition pruning theo order_date),
+     * để bắt các đơn do node bản cũ tạo trong lúc rolling deploy.
+     * Chỉ một node chạy mỗi lượt (lock SET NX kèm token, nhả bằng so token). Lỗi giữa chừng thì lượt sau chạy lại.
+     */
+    @Scheduled(initialDelayString = "${app.order-summary.backfill-initial-delay-ms:30000}",
+            fixedDelayString = "${app.order-summary.backfill-interval-ms:600000}")
+    public void backfillMissingSummaries() {
+        String token = UUID.randomUUID().toString();
+        boolean fullSweep;
+        try {
+            fullSweep = !Boolean.TRUE.equals(stringRedisTemplate.hasKey(BACKFILL_DONE_KEY));
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(BACKFILL_LOCK_KEY, token, Duration.ofMillis(backfillLockTtlMillis));
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("Order summary backfill skipped, cannot acquire lock: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            LocalDateTime since = fullSweep ? null : LocalDateTime.now().minusHours(backfillLookbackHours);
+            int total = backfill(since);
+            if (fullSweep) {
+                stringRedisTemplate.opsForValue().set(BACKFILL_DONE_KEY, "1");
+            }
+            if (total > 0) {
+                log.info("Backfilled {} order summaries ({} sweep)", total, fullSweep ? "full" : "recent");
+            }
+        } catch (Exception e) {
+            log.error("Order summary backfill stopped: {}", e.getMessage());
+        } finally {
+            try {
+                stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(BACKFILL_LOCK_KEY), token);
+            } catch (Exception e) {
+                log.warn("Failed to release order summary backfill lock: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param since chỉ xét đơn đặt từ thời điểm này; null là toàn bộ
+     */
+    private int backfill(LocalDateTime since) {
+        int total = 0;
+        long afterId = 0L;
+        while (true) {
+            PageRequest batch = PageRequest.of(0, backfillBatchSize);
+            List<Long> orderIds = (since != null)
+                    ? orderSummaryRepository.findRecentOrderIdsWithoutSummary(afterId, since, batch)
+                    : orderSummaryRepository.findOrderIdsWithoutSummary(afterId, batch);
+            if (orderIds.isEmpty()) {
+                return total;
+            }
+            Integer written = transactionTemplate.execute(status -> {
+                List<OrderSummary> summaries = orderRepository.findAllWithItemsByIdIn(orderIds).stream()
+                        .map(orderMapper::toOrderSummary)
+                        .collect(Collectors.toList());
+                orderSummaryRepository.saveAll(summaries);
+                return summaries.size();
+            });
+            total += (written != null) ? written : 0;
+            afterId = orderIds.get(orderIds.size() - 1);
+        }
+    }
+}
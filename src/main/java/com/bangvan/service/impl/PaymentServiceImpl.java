@@ -7,13 +7,16 @@ import com.bangvan.entity.SellerReport;
 import com.bangvan.entity.Transaction;
 import com.bangvan.exception.ResourceNotFoundException;
 import com.bangvan.repository.*;
+import com.bangvan.service.OrderSummaryService;
 import com.bangvan.service.PaymentService;
+import com.bangvan.service.ReplicaRoutingService;
 import com.bangvan.service.SellerReportService;
 import com.bangvan.utils.OrderStatus;
 import com.bangvan.utils.PaymentStatus;
 import com.bangvan.utils.VnpayUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,6 +34,9 @@ public class PaymentServiceImpl implements PaymentService {
     private final SellerReportService sellerReportService;
     private final SellerReportRepository sellerReportRepository;
     private final PaymentOrderRepository paymentOrderRepository;
+    private final OrderSummaryService orderSummaryService;
+    // Chỉ có khi bật app.datasource.replica.enabled
+    private final ObjectProvider<ReplicaRoutingService> replicaRoutingService;
 
     @Value("${payment.vnpay.tmnCode}")
     private String tmnCode;
@@ -146,7 +152,14 @@ public class PaymentServiceImpl implements PaymentService {
             if (paymentOrder != null) {
                 paymentOrderRepository.save(paymentOrder);
             }
-            orderRepository.save(order);
+            orderSummaryService.refresh(orderRepository.save(order));
+            // Callback không có user đăng nhập: pin read của buyer và seller về primary để họ thấy kết quả thanh toán ngay
+            String buyerUsername = order.getUser().getUsername();
+            String sellerUsername = order.getSeller().getUser().getUsername();
+            replicaRoutingService.ifAvailable(routing -> {
+                routing.recordWriteAfterCommit(buyerUsername);
+                routing.recordWriteAfterCommit(sellerUsername);
+            });
             return Map.of("RspCode", "00", "Message", "success");
         } else {
             return Map.of("RspCode", "97", "Message", "Invalid Signature");
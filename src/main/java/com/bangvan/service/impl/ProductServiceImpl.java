@@ -1,31 +1,42 @@
 package com.bangvan.service.impl;
 
+import com.bangvan.config.RedisConfig;
 import com.bangvan.dto.request.product.CreateProductRequest;
 import com.bangvan.dto.request.product.UpdateProductRequest;
 import com.bangvan.dto.request.product.UpdateStockRequest;
 import com.bangvan.dto.response.PageCustomResponse;
+import com.bangvan.dto.response.product.ProductCardResponse;
 import com.bangvan.dto.response.product.ProductResponse;
 import com.bangvan.entity.*;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
 import com.bangvan.repository.*;
+import com.bangvan.mapper.ProductMapper;
+import com.bangvan.service.DealIndexService;
 import com.bangvan.service.ProductService;
 import jakarta.persistence.criteria.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -38,11 +49,22 @@ public class ProductServiceImpl implements ProductService {
     private final SellerRepository sellerRepository;
     private final CategoryRepository categoryRepository;
     private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
     private final ProductRepository productRepository;
     private final ProductVariantRepository productVariantRepository;
     private static final Set<String> ALLOWED_SORT_FIELDS = Set.of("id", "title", "price", "sellingPrice", "createdAt", "updatedAt", "averageRating", "sold");
     private final UserRepository userRepository;
     private final ReviewRepository reviewRepository;
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final CacheManager cacheManager;
+    private final DealIndexService dealIndexService;
+    private final GenericJackson2JsonRedisSerializer cacheValueSerializer;
+
+    private static final String PRODUCT_DETAILS_CACHE = "productDetails";
+    private static final int MAX_BATCH_SIZE = 100;
+
+    // variant không bao giờ đổi product nên mapping variantId -> productId được cache vĩnh viễn
+    private static final String VARIANT_PRODUCT_KEY = "product:variant-owner";
 
     @Transactional
     @Override
@@ -77,31 +99,191 @@ public class ProductServiceImpl implements ProductService {
     }
 
     private ProductResponse mapProductToResponse(Product product) {
-        ProductResponse response = modelMapper.map(product, ProductResponse.class);
+        ProductResponse response = productMapper.toProductResponse(product);
         response.setTotalQuantity(product.getTotalQuantity());
         response.setTotalSold(product.getTotalSold());
-        return response;
+        return dealIndexService.applyDeal(response);
     }
 
+    /**
+     * Cache productDetails chỉ giữ product gốc; deal của category được áp dụng sau khi đọc cache,
+     * nên deal bắt đầu/kết thúc không cần xóa cache.
+     */
     @Override
-    @Cacheable(value = "productDetails", key = "#productId")
     public ProductResponse getProductById(Long productId) {
-        // Log để kiểm tra xem request có hit vào database hay không (Check cache miss)
-        log.info("Fetching product from Database with ID: {}", productId);
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        Cache cache = cacheManager.getCache(PRODUCT_DETAILS_CACHE);
+        ProductResponse product = (cache != null) ? cache.get(productId, ProductResponse.class) : null;
+        if (product == null) {
+            // Log để kiểm tra xem request có hit vào database hay không (Check cache miss)
+            log.info("Fetching product from Database with ID: {}", productId);
+            Product entity = productRepository.findWithDetailsById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+            product = mapProductToBaseResponseWithRating(entity);
+            if (cache != null) {
+                cache.put(productId, product);
+            }
+        }
+        return dealIndexService.applyDeal(product);
+    }
+
+    /**
+     * Lấy nhiều product một lần: hit đọc bằng một lệnh MGET trên key của cache productDetails,
+     * miss load bằng một query (kèm association) rồi ghi ngược vào cache bằng pipeline.
+     * Kết quả giữ nguyên thứ tự đầu vào, id không tồn tại bị bỏ qua.
+     */
+    @Override
+    public List<ProductResponse> getProductsByIds(List<Long> productIds) {
+        List<Long> ids = productIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "At most " + MAX_BATCH_SIZE + " product ids per request");
+        }
+
+        Map<Long, ProductResponse> productsById = new HashMap<>(readProductDetailsCache(ids));
+        List<Long> misses = ids.stream().filter(id -> !productsById.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            log.info("Fetching {} products from Database (batch cache miss)", misses.size());
+            Map<Long, ProductResponse> loaded = loadProductsWithRating(misses);
+            productsById.putAll(loaded);
+            writeProductDetailsCache(loaded.values());
+        }
+
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(dealIndexService::applyDeal)
+                .toList();
+    }
+
+    private Map<Long, ProductResponse> readProductDetailsCache(List<Long> ids) {
+        Map<Long, ProductResponse> cached = new HashMap<>();
+        try {
+            byte[][] keys = ids.stream().map(this::productDetailsKey).toArray(byte[][]::new);
+            List<byte[]> values = stringRedisTemplate.execute(
+                    (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(keys));
+            if (values == null) {
+                return cached;
+            }
+            for (int i = 0; i < ids.size() && i < values.size(); i++) {
+                byte[] value = values.get(i);
+                if (value != null && cacheValueSerializer.deserialize(value) instanceof ProductResponse product) {
+                    cached.put(ids.get(i), product);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Product cache MGET failed, loading {} products from database: {}", ids.size(), e.getMessage());
+        }
+        return cached;
+    }
+
+    private void writeProductDetailsCache(Collection<ProductResponse> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        try {
+            Expiration ttl = Expiration.from(RedisConfig.PRODUCT_DETAILS_TTL);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (ProductResponse product : products) {
+                    connection.stringCommands().set(productDetailsKey(product.getId()),
+                            cacheValueSerializer.serialize(product), ttl, RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to backfill {} products into cache: {}", products.size(), e.getMessage());
+        }
+    }
+
+    private Map<Long, ProductResponse> loadProductsWithRating(List<Long> ids) {
+        Map<Long, Double> ratings = findAverageRatings(ids);
+        Map<Long, ProductResponse> products = new HashMap<>();
+        for (Product product : productRepository.findAllWithDetailsByIdIn(ids)) {
+            products.put(product.getId(), mapProductToBaseResponse(product, ratings.get(product.getId())));
+        }
+        return products;
+    }
 
-        return mapProductToResponseWithRating(product);
+    // Key giống RedisCacheManager để dùng chung entry với getProductById
+    private byte[] productDetailsKey(Long productId) {
+        return (RedisConfig.PRODUCT_DETAILS_KEY_PREFIX + productId).getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
+    public Long getProductIdByVariantId(Long variantId) {
+        String field = String.valueOf(variantId);
+        Object cached = stringRedisTemplate.opsForHash().get(VARIANT_PRODUCT_KEY, field);
+        if (cached != null) {
+            return Long.valueOf(cached.toString());
+        }
+        Long productId = productVariantRepository.findProductIdById(variantId)
+                .orElseThrow(() -> new ResourceNotFoundException("ProductVariant", "ID", variantId));
+        stringRedisTemplate.opsForHash().put(VARIANT_PRODUCT_KEY, field, String.valueOf(productId));
+        return productId;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<ProductResponse> getAllProducts(
             String keyword, Long categoryId, Long sellerId,
             BigDecimal minPrice, BigDecimal maxPrice, String color, String size,
             Double minRating,
             Pageable pageable) {
 
-        Specification<Product> spec = (root, query, criteriaBuilder) -> {
+        Specification<Product> spec = buildProductFilter(keyword, categoryId, sellerId, minPrice, maxPrice, color, size, minRating);
+        Page<Product> productPage = productRepository.findAll(spec, pageable);
+
+        List<ProductResponse> productResponses = mapProductPage(productPage.getContent());
+
+        return PageCustomResponse.<ProductResponse>builder()
+                .pageNo(productPage.getNumber() + 1)
+                .pageSize(productPage.getSize())
+                .totalPages(productPage.getTotalPages())
+                .totalElements(productPage.getTotalElements())
+                .pageContent(productResponses)
+                .build();
+    }
+
+    /**
+     * Listing dạng card: projection chỉ các cột cần cho grid, sau đó bổ sung ảnh đại diện
+     * và rating cho cả trang bằng 2 query gộp (không load entity, không ModelMapper).
+     */
+    @Override
+    public PageCustomResponse<ProductCardResponse> getProductCards(
+            String keyword, Long categoryId, Long sellerId,
+            BigDecimal minPrice, BigDecimal maxPrice, String color, String size,
+            Double minRating,
+            Pageable pageable) {
+
+        Specification<Product> spec = buildProductFilter(keyword, categoryId, sellerId, minPrice, maxPrice, color, size, minRating);
+        Page<ProductCardResponse> cardPage = productRepository.findCards(spec, pageable);
+
+        List<Long> productIds = cardPage.getContent().stream().map(ProductCardResponse::getId).toList();
+        if (!productIds.isEmpty()) {
+            Map<Long, String> images = productRepository.findCoverImages(productIds);
+            Map<Long, Double> ratings = findAverageRatings(productIds);
+            for (ProductCardResponse card : cardPage.getContent()) {
+                card.setImage(images.get(card.getId()));
+                Double averageRating = ratings.get(card.getId());
+                card.setAverageRating(averageRating != null ? Math.round(averageRating * 10.0) / 10.0 : 0.0);
+                dealIndexService.applyDeal(card);
+            }
+        }
+
+        return PageCustomResponse.<ProductCardResponse>builder()
+                .pageNo(cardPage.getNumber() + 1)
+                .pageSize(cardPage.getSize())
+                .totalPages(cardPage.getTotalPages())
+                .totalElements(cardPage.getTotalElements())
+                .pageContent(cardPage.getContent())
+                .build();
+    }
+
+    private Specification<Product> buildProductFilter(String keyword, Long categoryId, Long sellerId,
+                                                      BigDecimal minPrice, BigDecimal maxPrice, String color, String size,
+                                                      Double minRating) {
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             if (keyword != null && !keyword.isEmpty()) {
@@ -131,20 +313,24 @@ public class ProductServiceImpl implements ProductService {
                 predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("sellingPrice"), maxPrice));
             }
 
-            boolean needsDistinct = false;
+            // EXISTS thay cho join variants + DISTINCT, để projection/ORDER BY không phụ thuộc DISTINCT
             if (color != null && !color.isEmpty() || size != null && !size.isEmpty()) {
-                Join<Product, ProductVariant> variantJoin = root.join("variants", JoinType.INNER);
+                Subquery<Long> variantSubquery = query.subquery(Long.class);
+                Root<ProductVariant> variantRoot = variantSubquery.from(ProductVariant.class);
+                List<Predicate> variantPredicates = new ArrayList<>();
+                variantPredicates.add(criteriaBuilder.equal(variantRoot.get("product"), root));
                 if (color != null && !color.isEmpty()) {
-                    predicates.add(criteriaBuilder.equal(variantJoin.get("color"), color));
+                    variantPredicates.add(criteriaBuilder.equal(variantRoot.get("color"), color));
                 }
                 if (size != null && !size.isEmpty()) {
                     if ("One Size".equalsIgnoreCase(size)) {
-                        predicates.add(criteriaBuilder.equal(variantJoin.get("size"), "One Size"));
+                        variantPredicates.add(criteriaBuilder.equal(variantRoot.get("size"), "One Size"));
                     } else {
-                        predicates.add(criteriaBuilder.equal(variantJoin.get("size"), size));
+                        variantPredicates.add(criteriaBuilder.equal(variantRoot.get("size"), size));
                     }
                 }
-                needsDistinct = true;
+                variantSubquery.select(variantRoot.get("id")).where(variantPredicates.toArray(new Predicate[0]));
+                predicates.add(criteriaBuilder.exists(variantSubquery));
             }
 
             if (minRating != null && minRating > 0) {
@@ -158,26 +344,8 @@ public class ProductServiceImpl implements ProductService {
                 predicates.add(criteriaBuilder.greaterThanOrEqualTo(avgRatingSubquery, minRating));
             }
 
-            if (needsDistinct) {
-                query.distinct(true);
-            }
-
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
-
-        Page<Product> productPage = productRepository.findAll(spec, pageable);
-
-        List<ProductResponse> productResponses = productPage.getContent().stream()
-                .map(this::mapProductToResponseWithRating)
-                .collect(Collectors.toList());
-
-        return PageCustomResponse.<ProductResponse>builder()
-                .pageNo(productPage.getNumber() + 1)
-                .pageSize(productPage.getSize())
-                .totalPages(productPage.getTotalPages())
-                .totalElements(productPage.getTotalElements())
-                .pageContent(productResponses)
-                .build();
     }
 
     private Set<Long> getAllCategoryIdsIncludingChildren(Long categoryId) {
@@ -212,12 +380,38 @@ public class ProductServiceImpl implements ProductService {
         return collectedCategoryIds;
     }
 
+    // Map một trang product: rating của cả trang lấy bằng một query, variants/images được batch-load (@BatchSize)
+    private List<ProductResponse> mapProductPage(List<Product> products) {
+        if (products.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Double> ratings = findAverageRatings(products.stream().map(Product::getId).toList());
+        return products.stream()
+                .map(product -> dealIndexService.applyDeal(mapProductToBaseResponse(product, ratings.get(product.getId()))))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Double> findAverageRatings(Collection<Long> productIds) {
+        Map<Long, Double> ratings = new HashMap<>();
+        for (Object[] row : reviewRepository.findAverageRatingsByProductIds(productIds)) {
+            ratings.put((Long) row[0], (Double) row[1]);
+        }
+        return ratings;
+    }
+
     private ProductResponse mapProductToResponseWithRating(Product product) {
-        ProductResponse response = modelMapper.map(product, ProductResponse.class);
+        return dealIndexService.applyDeal(mapProductToBaseResponseWithRating(product));
+    }
+
+    private ProductResponse mapProductToBaseResponseWithRating(Product product) {
+        return mapProductToBaseResponse(product, reviewRepository.findAverageRatingByProductId(product.getId()));
+    }
+
+    private ProductResponse mapProductToBaseResponse(Product product, Double averageRating) {
+        ProductResponse response = productMapper.toProductResponse(product);
         response.setTotalQuantity(product.getTotalQuantity());
         response.setTotalSold(product.getTotalSold());
 
-        Double averageRating = reviewRepository.findAverageRatingByProductId(product.getId());
         double avg = (averageRating != null) ? averageRating : 0.0;
         avg = Math.round(avg * 10.0) / 10.0;
 
@@ -376,11 +570,10 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<ProductResponse> findProductBySeller(Long sellerId, Pageable pageable) {
         Page<Product> productPage = productRepository.findBySellerId(sellerId, pageable);
-        List<ProductResponse> productResponses = productPage.getContent().stream()
-                .map(this::mapProductToResponseWithRating)
-                .collect(Collectors.toList());
+        List<ProductResponse> productResponses = mapProductPage(productPage.getContent());
 
         return PageCustomResponse.<ProductResponse>builder()
                 .pageNo(productPage.getNumber() + 1)
@@ -392,6 +585,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<ProductResponse> getMyProducts(Principal principal, Pageable pageable) {
         String username = principal.getName();
         Seller seller = sellerRepository.findByUser_UsernameAndUser_EnabledIsTrue(username)
@@ -401,13 +595,12 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<ProductResponse> searchProduct(String keyword, Pageable pageable) {
         log.info("Searching products in Database with keyword: {}", keyword);
         Page<Product> productPage = productRepository.searchProducts(keyword, pageable);
 
-        List<ProductResponse> productResponses = productPage.getContent().stream()
-                .map(this::mapProductToResponseWithRating)
-                .collect(Collectors.toList());
+        List<ProductResponse> productResponses = mapProductPage(productPage.getContent());
 
         return PageCustomResponse.<ProductResponse>builder()
                 .pageNo(productPage.getNumber() + 1)
@@ -419,15 +612,14 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<ProductResponse> findProductByCategory(Long categoryId, Pageable pageable) {
         categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
 
         Page<Product> productPage = productRepository.findByCategoryId(categoryId, pageable);
 
-        List<ProductResponse> productResponses = productPage.getContent().stream()
-                .map(this::mapProductToResponseWithRating)
-                .collect(Collectors.toList());
+        List<ProductResponse> productResponses = mapProductPage(productPage.getContent());
 
         return PageCustomResponse.<ProductResponse>builder()
                 .pageNo(productPage.getNumber() + 1)
@@ -0,0 +1,181 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.dto.response.product.ProductViewStatsResponse;
+import com.bangvan.service.ProductService;
+import com.bangvan.service.ProductViewService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Đếm lượt xem sản phẩm. Hot path (recordView) chỉ tăng một LongAdder trong map của node, không I/O;
+ * job định kỳ gom toàn bộ và ghi Redis trong một pipeline:
+ * - "product:views" (hash productId -> tổng lượt xem)
+ * - "product:trending" (ZSET điểm trending, được nhân hệ số decay định kỳ để lượt xem cũ giảm dần trọng số)
+ * Số đếm là xấp xỉ: lượt xem chưa flush sẽ mất nếu node chết.
+ */
+@Service
+@Slf4j
+public class ProductViewServiceImpl implements ProductViewService {
+
+    private static final String VIEWS_KEY = "product:views";
+    private static final String TRENDING_KEY = "product:trending";
+    private static final String DECAY_LOCK_KEY = "product:trending:decay-lock";
+    private static final int MAX_LIMIT = 100;
+
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final ProductService productService;
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    private final Counter flushedViews;
+    private final Timer flushTimer;
+
+    @Value("${app.product-views.decay-factor:0.95}")
+    private double decayFactor;
+
+    @Value("${app.product-views.decay-interval-ms:600000}")
+    private long decayIntervalMillis;
+
+    @Value("${app.product-views.trending-max-size:1000}")
+    private int trendingMaxSize;
+
+    public ProductViewServiceImpl(RedisTemplate<String, String> stringRedisTemplate,
+                                  ProductService productService,
+                                  MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.productService = productService;
+        this.flushedViews = Counter.builder("product.views.flushed")
+                .description("Product views written to Redis")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("product.views.flush")
+                .description("Time spent flushing buffered product views")
+                .register(meterRegistry);
+        Gauge.builder("product.views.pending.products", pendingViews, Map::size)
+                .description("Products with buffered views on this node")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordView(Long productId) {
+        LongAdder adder = pendingViews.get(productId);
+        if (adder == null) {
+            adder = pendingViews.computeIfAbsent(productId, key -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    @Override
+    public ProductViewStatsResponse getViewStats(Long productId) {
+        Object views = stringRedisTemplate.opsForHash().get(VIEWS_KEY, String.valueOf(productId));
+        Double score = stringRedisTemplate.opsForZSet().score(TRENDING_KEY, String.valueOf(productId));
+        LongAdder pending = pendingViews.get(productId);
+        long total = (views != null ? Long.parseLong(views.toString()) : 0L) + (pending != null ? pending.sum() : 0L);
+        return new ProductViewStatsResponse(productId, total, score != null ? score : 0.0);
+    }
+
+    @Override
+    public List<ProductResponse> getTrendingProducts(int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Set<String> productIds = stringRedisTemplate.opsForZSet().reverseRange(TRENDING_KEY, 0, size - 1);
+        if (productIds == null || productIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // MGET cache + một query cho phần miss, giữ thứ tự trending; id không còn tồn tại bị bỏ qua
+        List<ProductResponse> result = productService.getProductsByIds(productIds.stream().map(Long::valueOf).toList());
+        if (result.size() < productIds.size()) {
+            Set<String> found = result.stream().map(product -> String.valueOf(product.getId())).collect(Collectors.toSet());
+            Object[] missing = productIds.stream().filter(productId -> !found.contains(productId)).toArray();
+            if (missing.length > 0) {
+                stringRedisTemplate.opsForZSet().remove(TRENDING_KEY, missing);
+            }
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${app.product-views.flush-interval-ms:5000}")
+    public void flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        Iterator<Map.Entry<Long, LongAdder>> iterator = pendingViews.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, LongAdder> entry = iterator.next();
+            long views = entry.getValue().sumThenReset();
+            if (views > 0) {
+                batch.put(entry.getKey(), views);
+            } else {
+                // sản phẩm không có lượt xem trong chu kỳ vừa rồi: bỏ adder để map không phình mãi
+                pendingViews.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        flushTimer.record(() -> {
+            try {
+                byte[] viewsKey = bytes(VIEWS_KEY);
+                byte[] trendingKey = bytes(TRENDING_KEY);
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (Map.Entry<Long, Long> entry : batch.entrySet()) {
+                        byte[] member = bytes(String.valueOf(entry.getKey()));
+                        connection.hashCommands().hIncrBy(viewsKey, member, entry.getValue());
+                        connection.zSetCommands().zIncrBy(trendingKey, entry.getValue(), member);
+                    }
+                    return null;
+                });
+                flushedViews.increment(batch.values().stream().mapToLong(Long::longValue).sum());
+            } catch (Exception e) {
+                log.error("Failed to flush {} buffered product views: {}", batch.size(), e.getMessage());
+                // trả lại lượt xem vào buffer để lần flush sau ghi tiếp
+                batch.forEach((productId, views) ->
+                        pendingViews.computeIfAbsent(productId, key -> new LongAdder()).add(views));
+            }
+        });
+    }
+
+    /**
+     * Decay điểm trending: nhân mọi điểm với decayFactor (ZUNIONSTORE với WEIGHTS) và cắt bớt đuôi ZSET.
+     * Chỉ một node chạy mỗi chu kỳ (lock SET NX).
+     */
+    @Scheduled(fixedDelayString = "${app.product-views.decay-interval-ms:600000}")
+    public void decayTrendingScores() {
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(DECAY_LOCK_KEY, "1", Duration.ofMillis(Math.max(1000L, decayIntervalMillis - 1000L)));
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+            stringRedisTemplate.opsForZSet().unionAndStore(TRENDING_KEY, Collections.emptyList(), TRENDING_KEY,
+                    Aggregate.SUM, Weights.of(decayFactor));
+            stringRedisTemplate.opsForZSet().removeRange(TRENDING_KEY, 0, -(trendingMaxSize + 1L));
+        } catch (Exception e) {
+            log.error("Failed to decay trending scores: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
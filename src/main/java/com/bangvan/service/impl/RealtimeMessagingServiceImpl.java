@@ -0,0 +1,102 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.ws.RelayEnvelope;
+import com.bangvan.service.RealtimeMessagingService;
+import com.bangvan.service.WebSocketSessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * Gửi message WebSocket cho toàn cluster.
+ * Simple broker của mỗi node chỉ biết session local, nên message được relay qua Redis pub/sub:
+ * - Broadcast topic: deliver local + publish lên channel chung, các node khác deliver cho session của chúng.
+ * - Message cho user: chỉ publish tới channel của các node đang giữ session của user (theo session registry).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RealtimeMessagingServiceImpl implements RealtimeMessagingService {
+
+    public static final String BROADCAST_CHANNEL = "ws:relay:broadcast";
+    public static final String NODE_CHANNEL_PREFIX = "ws:relay:node:";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean sendToUser(String username, String destination, Object payload) {
+        Set<String> nodes;
+        try {
+            nodes = sessionRegistry.findNodesForUser(username);
+        } catch (Exception e) {
+            // không biết user có session ở node khác hay không: gửi local nhưng báo là chưa chắc đã tới
+            log.error("Session registry unavailable, delivering to local sessions of {} only: {}", username, e.getMessage());
+            messagingTemplate.convertAndSendToUser(username, destination, payload);
+            return false;
+        }
+
+        if (nodes.isEmpty()) {
+            log.debug("User {} has no WebSocket session on any node, skip {}", username, destination);
+            return false;
+        }
+
+        String localNode = sessionRegistry.getNodeId();
+        boolean delivered = false;
+        for (String node : nodes) {
+            if (node.equals(localNode)) {
+                messagingTemplate.convertAndSendToUser(username, destination, payload);
+                delivered = true;
+            } else {
+                delivered |= publish(NODE_CHANNEL_PREFIX + node, username, destination, payload);
+            }
+        }
+        return delivered;
+    }
+
+    @Override
+    public void broadcast(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        publish(BROADCAST_CHANNEL, null, destination, payload);
+    }
+
+    @Override
+    public void handleRelayMessage(String body) {
+        try {
+            RelayEnvelope envelope = objectMapper.readValue(body, RelayEnvelope.class);
+            if (sessionRegistry.getNodeId().equals(envelope.getOriginNode())) {
+                return;
+            }
+            if (envelope.getUsername() != null) {
+                messagingTemplate.convertAndSendToUser(envelope.getUsername(), envelope.getDestination(), envelope.getPayload());
+            } else {
+                messagingTemplate.convertAndSend(envelope.getDestination(), envelope.getPayload());
+            }
+        } catch (Exception e) {
+            log.error("Failed to deliver relayed WebSocket message: {}", e.getMessage());
+        }
+    }
+
+    private boolean publish(String channel, String username, String destination, Object payload) {
+        try {
+            RelayEnvelope envelope = RelayEnvelope.builder()
+                    .originNode(sessionRegistry.getNodeId())
+                    .username(username)
+                    .destination(destination)
+                    .payload(objectMapper.valueToTree(payload))
+                    .build();
+            stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(envelope));
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to publish WebSocket message to {}: {}", channel, e.getMessage());
+            return false;
+        }
+    }
+}
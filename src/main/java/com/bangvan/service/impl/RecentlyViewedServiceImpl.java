@@ -0,0 +1,121 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.service.ProductService;
+import com.bangvan.service.RecentlyViewedService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Danh sách sản phẩm xem gần đây của user, lưu trong Redis list "recently-viewed:{username}" (mới nhất ở đầu).
+ * Request xem sản phẩm chỉ đẩy event vào queue có giới hạn (không I/O, queue đầy thì bỏ event);
+ * job định kỳ gom event, khử trùng lặp và ghi LREM + LPUSH + LTRIM trong một pipeline.
+ */
+@Service
+@Slf4j
+public class RecentlyViewedServiceImpl implements RecentlyViewedService {
+
+    private static final String RECENTLY_VIEWED_PREFIX = "recently-viewed:";
+    private static final int DRAIN_BATCH_SIZE = 5000;
+
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final ProductService productService;
+    private final BlockingQueue<ViewEvent> pendingEvents;
+    private final Counter droppedEvents;
+
+    @Value("${app.recently-viewed.max-size:20}")
+    private int maxSize;
+
+    @Value("${app.recently-viewed.ttl-days:30}")
+    private int ttlDays;
+
+    public RecentlyViewedServiceImpl(RedisTemplate<String, String> stringRedisTemplate,
+                                     ProductService productService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.recently-viewed.queue-capacity:10000}") int queueCapacity) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.productService = productService;
+        this.pendingEvents = new ArrayBlockingQueue<>(queueCapacity);
+        this.droppedEvents = Counter.builder("recently.viewed.dropped")
+                .description("Recently viewed events dropped because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void record(String username, Long productId) {
+        if (!pendingEvents.offer(new ViewEvent(username, productId))) {
+            droppedEvents.increment();
+        }
+    }
+
+    @Override
+    public List<ProductResponse> getRecentlyViewed(String username, int limit) {
+        int size = Math.max(1, Math.min(limit, maxSize));
+        List<String> productIds = stringRedisTemplate.opsForList().range(RECENTLY_VIEWED_PREFIX + username, 0, size - 1);
+        if (productIds == null || productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return productService.getProductsByIds(productIds.stream().map(Long::valueOf).toList());
+    }
+
+    @Scheduled(fixedDelayString = "${app.recently-viewed.flush-interval-ms:1000}")
+    public void flush() {
+        List<ViewEvent> events = new ArrayList<>();
+        pendingEvents.drainTo(events, DRAIN_BATCH_SIZE);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // username -> productId theo thứ tự xem, mỗi product chỉ giữ lần xem cuối cùng
+        Map<String, LinkedHashSet<Long>> viewsByUser = new HashMap<>();
+        for (ViewEvent event : events) {
+            LinkedHashSet<Long> views = viewsByUser.computeIfAbsent(event.username(), key -> new LinkedHashSet<>());
+            views.remove(event.productId());
+            views.add(event.productId());
+        }
+
+        long ttlSeconds = Duration.ofDays(ttlDays).toSeconds();
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, LinkedHashSet<Long>> entry : viewsByUser.entrySet()) {
+                    byte[] key = bytes(RECENTLY_VIEWED_PREFIX + entry.getKey());
+                    for (Long productId : entry.getValue()) {
+                        byte[] member = bytes(String.valueOf(productId));
+                        connection.listCommands().lRem(key, 0, member);
+                        connection.listCommands().lPush(key, member);
+                    }
+                    connection.listCommands().lTrim(key, 0, maxSize - 1);
+                    connection.keyCommands().expire(key, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to flush {} recently viewed events: {}", events.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record ViewEvent(String username, Long productId) {
+    }
+}
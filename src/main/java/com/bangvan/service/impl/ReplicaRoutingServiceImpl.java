@@ -0,0 +1,162 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.config.SchedulingConfig;
+import com.bangvan.service.ReplicaRoutingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Quyết định một transaction readOnly có được đọc từ replica hay không.
+ * - Lag: định kỳ đo độ trễ replay của replica; lag vượt app.datasource.replica.max-lag-ms
+ *   hoặc không kết nối được thì mọi read quay về primary cho tới lần đo kế tiếp.
+ * - Read-your-writes: sau khi user commit một transaction ghi, read của user đó đi primary trong
+ *   max(app.datasource.replica.read-your-writes-ms, lag hiện tại). Pin lưu ở Redis (key có TTL) để request kế tiếp
+ *   rơi vào node khác vẫn thấy; map local chỉ là lối tắt cho pin do chính node này ghi.
+ *   Không đọc được Redis thì coi như đang pin (đi primary).
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReplicaRoutingServiceImpl implements ReplicaRoutingService {
+
+    // replay_lsn đã bắt kịp receive_lsn thì coi như không lag (replay timestamp đứng yên khi primary không có ghi)
+    private static final String LAG_SQL = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+    private static final String PIN_PREFIX = "db:primary-pin:";
+
+    private final DataSource replicaDataSource;
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final long maxLagMillis;
+    private final long readYourWritesMillis;
+    private final Counter primaryFallbackCounter;
+    private final Counter readYourWritesCounter;
+
+    private final Map<String, Long> pinnedToPrimaryUntil = new ConcurrentHashMap<>();
+    private volatile long lagMillis = 0;
+    private volatile boolean replicaAvailable = false;
+
+    public ReplicaRoutingServiceImpl(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                     RedisTemplate<String, String> stringRedisTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.datasource.replica.max-lag-ms:5000}") long maxLagMillis,
+                                     @Value("${app.datasource.replica.read-your-writes-ms:3000}") long readYourWritesMillis) {
+        this.replicaDataSource = replicaDataSource;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.maxLagMillis = maxLagMillis;
+        this.readYourWritesMillis = readYourWritesMillis;
+        this.primaryFallbackCounter = Counter.builder("db.routing.primary.fallback")
+                .description("Read-only transactions routed to primary because the replica lagged or was unavailable")
+                .register(meterRegistry);
+        this.readYourWritesCounter = Counter.builder("db.routing.read.your.writes")
+                .description("Read-only transactions routed to primary after the user's own write")
+                .register(meterRegistry);
+        Gauge.builder("db.replica.lag", this, service -> service.lagMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("db.replica.available", this, service -> service.replicaAvailable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean useReplica(String username) {
+        if (!replicaAvailable) {
+            primaryFallbackCounter.increment();
+            return false;
+        }
+        if (username != null && isPinnedToPrimary(username)) {
+            readYourWritesCounter.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isPinnedToPrimary(String username) {
+        Long pinnedUntil = pinnedToPrimaryUntil.get(username);
+        if (pinnedUntil != null) {
+            if (pinnedUntil > System.currentTimeMillis()) {
+                return true;
+            }
+            pinnedToPrimaryUntil.remove(username, pinnedUntil);
+        }
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(PIN_PREFIX + username));
+        } catch (Exception e) {
+            log.warn("Failed to read primary pin of {}, reading from primary: {}", username, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void recordWrite(String username) {
+        // lag vượt max-lag-ms thì replica đã bị tắt, pin không cần dài hơn ngưỡng đó
+        long pinMillis = Math.max(readYourWritesMillis, Math.min(lagMillis, maxLagMillis));
+        pinnedToPrimaryUntil.put(username, System.currentTimeMillis() + pinMillis);
+        try {
+            stringRedisTemplate.opsForValue().set(PIN_PREFIX + username, "1", Duration.ofMillis(pinMillis));
+        } catch (Exception e) {
+            log.warn("Failed to store primary pin of {}: {}", username, e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordWriteAfterCommit(String username) {
+        if (username == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordWrite(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(username);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}", scheduler = SchedulingConfig.REPLICA_LAG_SCHEDULER)
+    public void checkReplicaLag() {
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+            long lag = resultSet.next() ? (long) resultSet.getDouble(1) : Long.MAX_VALUE;
+            boolean available = lag <= maxLagMillis;
+            if (available != replicaAvailable) {
+                log.warn("Replica {} for reads (lag {} ms, max {} ms)", available ? "enabled" : "disabled", lag, maxLagMillis);
+            }
+            lagMillis = lag;
+            replicaAvailable = available;
+        } catch (Exception e) {
+            if (replicaAvailable) {
+                log.error("Replica unreachable, routing reads to primary: {}", e.getMessage());
+            }
+            replicaAvailable = false;
+        }
+    }
+
+    // Dọn các user đã hết thời gian pin trong map local, tránh map lớn dần (key Redis tự hết hạn)
+    @Scheduled(fixedDelayString = "${app.datasource.replica.read-your-writes-cleanup-ms:60000}")
+    public void evictExpiredPins() {
+        long now = System.currentTimeMillis();
+        pinnedToPrimaryUntil.values().removeIf(pinnedUntil -> pinnedUntil <= now);
+    }
+}
@@ -3,9 +3,7 @@ package com.bangvan.service.impl;
 import com.bangvan.dto.request.review.ReviewRequest;
 import com.bangvan.dto.response.PageCustomResponse;
 
-import com.bangvan.dto.response.order.OrderItemResponse;
 import com.bangvan.dto.response.review.ReviewResponse;
-import com.bangvan.dto.response.user.UserResponse;
 
 import com.bangvan.entity.OrderItem;
 import com.bangvan.entity.Product;
@@ -14,6 +12,7 @@ import com.bangvan.entity.User;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.ReviewMapper;
 import com.bangvan.repository.OrderItemRepository;
 import com.bangvan.repository.OrderRepository;
 import com.bangvan.repository.ProductRepository;
@@ -42,6 +41,7 @@ public class ReviewServiceImpl implements ReviewService {
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
     private final ModelMapper modelMapper;
+    private final ReviewMapper reviewMapper;
     private final OrderItemRepository orderItemRepository;
 
     @Transactional
@@ -127,6 +127,7 @@ public class ReviewServiceImpl implements ReviewService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<ReviewResponse> getReviewsByProductId(Long productId, Pageable pageable) {
 
         productRepository.findById(productId)
@@ -147,21 +148,6 @@ public class ReviewServiceImpl implements ReviewService {
     }
 
     private ReviewResponse mapReviewToResponse(Review review) {
-        ReviewResponse response = modelMapper.map(review, ReviewResponse.class);
-        response.setUser(modelMapper.map(review.getUser(), UserResponse.class));
-
-
-        if (review.getOrderItem() != null) {
-            OrderItem orderItem = review.getOrderItem();
-            OrderItemResponse orderItemResponse = modelMapper.map(orderItem, OrderItemResponse.class);
-
-
-            if (orderItem.getVariant() != null) {
-                orderItemResponse.setProduct(orderItem.getVariant().getProduct());
-            }
-            response.setOrderItem(orderItemResponse);
-        }
-
-        return response;
+        return reviewMapper.toReviewResponse(review);
     }
 }
\ No newline at end of file
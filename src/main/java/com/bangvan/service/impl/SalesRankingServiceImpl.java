@@ -0,0 +1,341 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.dto.response.product.BestSellerResponse;
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.entity.Category;
+import com.bangvan.entity.Order;
+import com.bangvan.entity.OrderItem;
+import com.bangvan.entity.Product;
+import com.bangvan.exception.AppException;
+import com.bangvan.exception.ErrorCode;
+import com.bangvan.repository.CategoryRepository;
+import com.bangvan.repository.ProductRepository;
+import com.bangvan.service.ProductService;
+import com.bangvan.service.SalesRankingService;
+import com.bangvan.utils.RankingScope;
+import com.bangvan.utils.RankingWindow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bảng xếp hạng sản phẩm bán chạy trong Redis ZSET (member = productId, score = số lượng bán):
+ * - Toàn thời gian: "ranking:sold:{scope}"
+ * - Theo giờ (để tính cửa sổ 24h/7d): "ranking:sold:{scope}:h:{yyyyMMddHH}", giữ 8 ngày
+ * với scope = all | category:{id} (cộng dồn lên mọi category cha) | seller:{id}.
+ * Cửa sổ 24h/7d được ZUNIONSTORE từ các bucket giờ và cache ngắn hạn.
+ * ZSET toàn thời gian được dựng lại định kỳ từ products.sold (nguồn đúng, cập nhật cùng transaction với order)
+ * để seed Redis mới và bù các increment bị mất khi Redis lỗi. Bucket giờ không dựng lại được từ products.sold.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRankingServiceImpl implements SalesRankingService {
+
+    private static final String RANKING_PREFIX = "ranking:sold:";
+    private static final String GLOBAL_SCOPE = "all";
+    private static final DateTimeFormatter HOUR_BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final Duration HOUR_BUCKET_TTL = Duration.ofDays(8);
+    private static final int MAX_LIMIT = 100;
+    private static final String REBUILT_KEY = RANKING_PREFIX + "rebuilt";
+    private static final String REBUILD_LOCK_KEY = RANKING_PREFIX + "rebuild:lock";
+
+    // chỉ xóa lock nếu vẫn là của mình (lock có thể đã hết hạn và bị node khác lấy)
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    // node này đã mất increment (Redis lỗi lúc ghi) nên cần dựng lại ở lượt kiểm tra kế tiếp
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    @Value("${app.ranking.window-cache-seconds:60}")
+    private long windowCacheSeconds;
+
+    @Value("${app.ranking.rebuild-batch-size:500}")
+    private int rebuildBatchSize;
+
+    @Value("${app.ranking.rebuild-lock-ttl-ms:600000}")
+    private long rebuildLockTtlMillis;
+
+    @Value("${app.ranking.rebuild-interval-ms:3600000}")
+    private long rebuildIntervalMillis;
+
+    @Override
+    public void recordOrder(Order order) {
+        record(order, 1);
+    }
+
+    @Override
+    public void recordCancellation(Order order) {
+        record(order, -1);
+    }
+
+    @Override
+    public List<BestSellerResponse> getBestSellers(RankingScope scope, Long scopeId, RankingWindow window, int limit) {
+        String scopeKey = scopeKey(scope, scopeId);
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String key = (window == RankingWindow.ALL_TIME) ? RANKING_PREFIX + scopeKey : windowKey(scopeKey, window);
+
+        Set<ZSetOperations.TypedTuple<String>> entries = stringRedisTemplate.opsForZSet().reverseRangeWithScores(key, 0, size - 1);
+        List<BestSellerResponse> result = new ArrayList<>();
+        if (entries == null || entries.isEmpty()) {
+            return result;
+        }
+        // load mọi product của bảng xếp hạng trong một lần (MGET cache + một query cho phần miss)
+        List<Long> productIds = entries.stream()
+                .map(ZSetOperations.TypedTuple::getValue)
+                .filter(Objects::nonNull)
+                .map(Long::valueOf)
+                .toList();
+        Map<Long, ProductResponse> productsById = productService.getProductsByIds(productIds).stream()
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity(), (first, second) -> first));
+
+        List<String> missing = new ArrayList<>();
+        for (ZSetOperations.TypedTuple<String> entry : entries) {
+            long sold = (entry.getScore() != null) ? entry.getScore().longValue() : 0L;
+            if (sold <= 0 || entry.getValue() == null) {
+                continue;
+            }
+            ProductResponse product = productsById.get(Long.valueOf(entry.getValue()));
+            if (product == null) {
+                missing.add(entry.getValue());
+                continue;
+            }
+            result.add(new BestSellerResponse(result.size() + 1, sold, product));
+        }
+        if (!missing.isEmpty()) {
+            // sản phẩm đã bị xóa: bỏ khỏi bảng xếp hạng
+            stringRedisTemplate.opsForZSet().remove(key, missing.toArray());
+        }
+        return result;
+    }
+
+    /**
+     * Gom số lượng theo product trong transaction (entity còn load được), ghi Redis sau khi commit.
+     */
+    private void record(Order order, int sign) {
+        Map<Long, Long> quantityByProduct = new HashMap<>();
+        Map<Long, List<String>> scopesByProduct = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getVariant().getProduct();
+            quantityByProduct.merge(product.getId(), (long) item.getQuantity() * sign, Long::sum);
+            scopesByProduct.computeIfAbsent(product.getId(), id -> scopesOf(product));
+        }
+        if (quantityByProduct.isEmpty()) {
+            return;
+        }
+        String hourBucket = HOUR_BUCKET_FORMAT.format(order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now());
+
+        Runnable write = () -> {
+            try {
+                writeIncrements(quantityByProduct, scopesByProduct, hourBucket, sign < 0);
+            } catch (Exception e) {
+                rebuildRequested.set(true);
+                log.error("Failed to update sales ranking for order {}, rebuild scheduled: {}", order.getOrderId(), e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    private void writeIncrements(Map<Long, Long> quantityByProduct, Map<Long, List<String>> scopesByProduct,
+                                 String hourBucket, boolean pruneNonPositive) {
+        long bucketTtlSeconds = HOUR_BUCKET_TTL.toSeconds();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<Long, Long> entry : quantityByProduct.entrySet()) {
+                byte[] member = bytes(String.valueOf(entry.getKey()));
+                double delta = entry.getValue();
+                for (String scope : scopesByProduct.get(entry.getKey())) {
+                    byte[] allTimeKey = bytes(RANKING_PREFIX + scope);
+                    byte[] hourKey = bytes(RANKING_PREFIX + scope + ":h:" + hourBucket);
+                    connection.zSetCommands().zIncrBy(allTimeKey, delta, member);
+                    connection.zSetCommands().zIncrBy(hourKey, delta, member);
+                    connection.keyCommands().expire(hourKey, bucketTtlSeconds);
+                    if (pruneNonPositive) {
+                        pruneNonPositive(connection, allTimeKey);
+                        pruneNonPositive(connection, hourKey);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Dựng lại ZSET toàn thời gian từ products.sold khi chưa có cờ rebuilt (Redis mới/bị flush, hoặc cờ đã hết hạn
+     * sau app.ranking.rebuild-interval-ms) hoặc khi node này ghi increment lỗi. Mỗi scope được ghi vào key tạm
+     * rồi RENAME đè key thật nên đọc không bao giờ thấy bảng dở dang.
+     * Increment commit trong lúc đang dựng có thể bị RENAME ghi đè; products.sold đã có nên lượt sau bù lại.
+     * Chỉ một node chạy mỗi lượt (lock SET NX kèm token, nhả bằng so token). Lỗi giữa chừng thì lượt sau chạy lại.
+     */
+    @Scheduled(initialDelayString = "${app.ranking.rebuild-initial-delay-ms:30000}",
+            fixedDelayString = "${app.ranking.rebuild-check-interval-ms:60000}")
+    public void rebuildAllTimeRankings() {
+        String token = UUID.randomUUID().toString();
+        try {
+            if (!rebuildRequested.get() && Boolean.TRUE.equals(stringRedisTemplate.hasKey(REBUILT_KEY))) {
+                return;
+            }
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(REBUILD_LOCK_KEY, token, Duration.ofMillis(rebuildLockTtlMillis));
+            if (!Boolean.TRUE.equals(acquired)) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("Sales ranking rebuild skipped, cannot acquire lock: {}", e.getMessage());
+            return;
+        }
+
+        // xóa yêu cầu trước khi đọc DB: increment lỗi trong lúc dựng sẽ yêu cầu lại
+        rebuildRequested.set(false);
+        try {
+            int products = rebuild(token);
+            stringRedisTemplate.opsForValue().set(REBUILT_KEY, "1", Duration.ofMillis(rebuildIntervalMillis));
+            log.info("Rebuilt all-time sales rankings from {} products", products);
+        } catch (Exception e) {
+            rebuildRequested.set(true);
+            log.error("Sales ranking rebuild stopped: {}", e.getMessage());
+        } finally {
+            try {
+                stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(REBUILD_LOCK_KEY), token);
+            } catch (Exception e) {
+                log.warn("Failed to release sales ranking rebuild lock: {}", e.getMessage());
+            }
+        }
+    }
+
+    private int rebuild(String token) {
+        Map<Long, Long> parentByCategory = new HashMap<>();
+        for (Object[] row : categoryRepository.findParentIds()) {
+            parentByCategory.put((Long) row[0], (Long) row[1]);
+        }
+        String tempPrefix = RANKING_PREFIX + "rebuild:" + token + ":";
+        long tempTtlSeconds = Duration.ofMillis(rebuildLockTtlMillis).toSeconds();
+        Set<String> scopes = new HashSet<>();
+        int total = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> rows = productRepository.findSoldAfter(afterId, PageRequest.of(0, rebuildBatchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Object[] row : rows) {
+                    byte[] member = bytes(String.valueOf(row[0]));
+                    double sold = ((Number) row[1]).doubleValue();
+                    for (String scope : scopesOf((Long) row[2], (Long) row[3], parentByCategory)) {
+                        byte[] tempKey = bytes(tempPrefix + scope);
+                        connection.zSetCommands().zAdd(tempKey, sold, member);
+                        if (scopes.add(scope)) {
+                            // key tạm tự hết hạn nếu node chết giữa chừng
+                            connection.keyCommands().expire(tempKey, tempTtlSeconds);
+                        }
+                    }
+                }
+                return null;
+            });
+            total += rows.size();
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String scope : scopes) {
+                connection.keyCommands().rename(bytes(tempPrefix + scope), bytes(RANKING_PREFIX + scope));
+            }
+            return null;
+        });
+        return total;
+    }
+
+    private void pruneNonPositive(RedisConnection connection, byte[] key) {
+        connection.zSetCommands().zRemRangeByScore(key, Double.NEGATIVE_INFINITY, 0);
+    }
+
+    private String windowKey(String scopeKey, RankingWindow window) {
+        String key = RANKING_PREFIX + scopeKey + ":w:" + window.name().toLowerCase();
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            return key;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<String> buckets = new ArrayList<>(window.getHours());
+        for (int i = 0; i < window.getHours(); i++) {
+            buckets.add(RANKING_PREFIX + scopeKey + ":h:" + HOUR_BUCKET_FORMAT.format(now.minusHours(i)));
+        }
+        stringRedisTemplate.opsForZSet().unionAndStore(buckets.get(0), buckets.subList(1, buckets.size()), key);
+        stringRedisTemplate.expire(key, Duration.ofSeconds(windowCacheSeconds));
+        return key;
+    }
+
+    private List<String> scopesOf(Product product) {
+        List<String> scopes = new ArrayList<>();
+        scopes.add(GLOBAL_SCOPE);
+        if (product.getSeller() != null) {
+            scopes.add("seller:" + product.getSeller().getId());
+        }
+        Category category = product.getCategory();
+        Set<Long> visited = new HashSet<>();
+        while (category != null && visited.add(category.getId())) {
+            scopes.add("category:" + category.getId());
+            category = category.getParentCategory();
+        }
+        return scopes;
+    }
+
+    private List<String> scopesOf(Long sellerId, Long categoryId, Map<Long, Long> parentByCategory) {
+        List<String> scopes = new ArrayList<>();
+        scopes.add(GLOBAL_SCOPE);
+        if (sellerId != null) {
+            scopes.add("seller:" + sellerId);
+        }
+        Set<Long> visited = new HashSet<>();
+        for (Long id = categoryId; id != null && visited.add(id); id = parentByCategory.get(id)) {
+            scopes.add("category:" + id);
+        }
+        return scopes;
+    }
+
+    private String scopeKey(RankingScope scope, Long scopeId) {
+        if (scope == RankingScope.GLOBAL) {
+            return GLOBAL_SCOPE;
+        }
+        if (scopeId == null) {
+            throw new AppException(ErrorCode.INVALID_INPUT, "scopeId is required for " + scope + " rankings.");
+        }
+        return scope.name().toLowerCase() + ":" + scopeId;
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
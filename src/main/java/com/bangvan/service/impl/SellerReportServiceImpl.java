@@ -2,6 +2,7 @@ package com.bangvan.service.impl;
 
 import com.bangvan.dto.response.seller.MonthlySalesResponse;
 import com.bangvan.dto.response.seller.SellerDashboardResponse;
+import com.bangvan.mapper.SellerMapper;
 import com.bangvan.service.SellerReportService;
 import com.bangvan.repository.ProductVariantRepository; // Import mới
 import lombok.RequiredArgsConstructor;
@@ -18,7 +19,6 @@ import com.bangvan.repository.OrderRepository;
 import com.bangvan.repository.SellerRepository;
 import com.bangvan.repository.SellerReportRepository;
 import com.bangvan.utils.OrderStatus;
-import org.modelmapper.ModelMapper;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -41,7 +41,7 @@ public class SellerReportServiceImpl implements SellerReportService {
     private final SellerRepository sellerRepository;
     private final OrderRepository orderRepository;
     private final ProductVariantRepository productVariantRepository; // Inject thêm
-    private final ModelMapper modelMapper;
+    private final SellerMapper sellerMapper;
 
     @Override
     public SellerReportResponse getMySellerReport(Principal principal) {
@@ -64,9 +64,7 @@ public class SellerReportServiceImpl implements SellerReportService {
         SellerReport report = sellerReportRepository.findBySellerId(sellerId)
                 .orElseGet(() -> createInitialReport(seller));
 
-        SellerReportResponse response = modelMapper.map(report, SellerReportResponse.class);
-        response.setSellerId(seller.getId());
-        return response;
+        return sellerMapper.toSellerReportResponse(report);
     }
 
     private SellerReport createInitialReport(Seller seller) {
@@ -107,9 +105,7 @@ public class SellerReportServiceImpl implements SellerReportService {
 
         SellerReport updatedReport = sellerReportRepository.save(report);
 
-        SellerReportResponse response = modelMapper.map(updatedReport, SellerReportResponse.class);
-        response.setSellerId(seller.getId());
-        return response;
+        return sellerMapper.toSellerReportResponse(updatedReport);
     }
 
     @Override
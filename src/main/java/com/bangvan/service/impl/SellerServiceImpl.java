@@ -5,7 +5,6 @@ import com.bangvan.dto.request.seller.UpdateSellerRequest;
 import com.bangvan.dto.response.PageCustomResponse;
 import com.bangvan.dto.response.seller.SellerResponse;
 import com.bangvan.dto.response.seller.UpdateSellerStatusRequest;
-import com.bangvan.dto.response.user.UserResponse;
 import com.bangvan.entity.Address;
 import com.bangvan.entity.Role;
 import com.bangvan.entity.Seller;
@@ -13,6 +12,7 @@ import com.bangvan.entity.User;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.SellerMapper;
 import com.bangvan.repository.AddressRepository;
 import com.bangvan.repository.RoleRepository;
 import com.bangvan.repository.SellerRepository;
@@ -21,7 +21,6 @@ import com.bangvan.service.SellerService;
 import com.bangvan.utils.AccountStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -29,7 +28,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -38,18 +36,16 @@ public class SellerServiceImpl implements SellerService {
 
     private final UserRepository userRepository;
     private final SellerRepository sellerRepository;
-    private final ModelMapper modelMapper;
+    private final SellerMapper sellerMapper;
     private final RoleRepository roleRepository;
     private final AddressRepository addressRepository;
 
     private SellerResponse mapSellerToSellerResponse(Seller seller) {
-        SellerResponse sellerResponse = modelMapper.map(seller, SellerResponse.class);
-        UserResponse userResponse = modelMapper.map(seller.getUser(), UserResponse.class);
-        sellerResponse.setUser(userResponse);
-        return sellerResponse;
+        return sellerMapper.toSellerResponse(seller);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public SellerResponse getProfile(Principal principal){
         String username = principal.getName();
         Seller seller = sellerRepository.findByUser_UsernameAndUser_EnabledIsTrue(username)
@@ -132,12 +128,14 @@ public class SellerServiceImpl implements SellerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<SellerResponse> getAllSellers(Pageable pageable){
         Page<Seller> page = sellerRepository.findAll(pageable);
         return mapToPageResponse(page);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<SellerResponse> getPendingSellers(Pageable pageable) {
         Page<Seller> page = sellerRepository.findByAccountStatus(AccountStatus.PENDING_VERIFICATION, pageable);
         return mapToPageResponse(page);
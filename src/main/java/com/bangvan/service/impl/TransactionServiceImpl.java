@@ -2,25 +2,27 @@ package com.bangvan.service.impl;
 
 
 import com.bangvan.dto.response.PageCustomResponse;
-import com.bangvan.dto.response.order.OrderItemResponse;
-import com.bangvan.dto.response.order.OrderResponse;
 
 import com.bangvan.dto.response.payment.TransactionResponse;
-import com.bangvan.entity.Order;
 import com.bangvan.entity.Transaction;
 import com.bangvan.entity.User;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.OrderMapper;
+import com.bangvan.repository.OrderRepository;
 import com.bangvan.repository.TransactionRepository;
 import com.bangvan.repository.UserRepository;
 import com.bangvan.service.TransactionService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,41 +30,22 @@ import java.util.stream.Collectors;
 public class TransactionServiceImpl implements TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final OrderRepository orderRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
-
-    private OrderResponse mapOrderToOrderResponse(Order order) {
-        OrderResponse orderResponse = modelMapper.map(order, OrderResponse.class);
-        List<OrderItemResponse> orderItemResponses = order.getOrderItems().stream()
-                .map(orderItem -> modelMapper.map(orderItem, OrderItemResponse.class))
-                .collect(Collectors.toList());
-        orderResponse.setOrderItems(orderItemResponses);
-        return orderResponse;
-    }
+    private final OrderMapper orderMapper;
 
     private TransactionResponse mapTransactionToResponse(Transaction transaction) {
-        TransactionResponse response = modelMapper.map(transaction, TransactionResponse.class);
-        response.setOrder(mapOrderToOrderResponse(transaction.getOrder()));
-        return response;
+        return orderMapper.toTransactionResponse(transaction);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<TransactionResponse> getAllTransactions(Pageable pageable) {
-        Page<Transaction> transactionPage = transactionRepository.findAll(pageable);
-        List<TransactionResponse> transactionResponses = transactionPage.getContent().stream()
-                .map(this::mapTransactionToResponse)
-                .collect(Collectors.toList());
-
-        return PageCustomResponse.<TransactionResponse>builder()
-                .pageNo(transactionPage.getNumber() + 1)
-                .pageSize(transactionPage.getSize())
-                .totalPages(transactionPage.getTotalPages())
-                .totalElements(transactionPage.getTotalElements())
-                .pageContent(transactionResponses)
-                .build();
+        return mapTransactionPage(transactionRepository.findPageOfIds(pageable));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TransactionResponse getTransactionById(Long transactionId) {
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction", "ID", transactionId));
@@ -70,21 +53,44 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<TransactionResponse> getMyTransactions(Principal principal, Pageable pageable) {
         String username = principal.getName();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
 
-        Page<Transaction> transactionPage = transactionRepository.findByOrder_User(user, pageable);
-        List<TransactionResponse> transactionResponses = transactionPage.getContent().stream()
-                .map(this::mapTransactionToResponse)
-                .collect(Collectors.toList());
+        return mapTransactionPage(transactionRepository.findIdsByOrderUser(user, pageable));
+    }
+
+    /**
+     * Map một trang id transaction: load transaction + order bằng một query, rồi load user/địa chỉ/items
+     * của các order đó bằng một query nữa (cùng persistence context), giữ nguyên thứ tự của trang id.
+     */
+    private PageCustomResponse<TransactionResponse> mapTransactionPage(Page<Long> idPage) {
+        List<TransactionResponse> transactionResponses = new ArrayList<>();
+        if (!idPage.getContent().isEmpty()) {
+            Map<Long, Transaction> transactionsById = transactionRepository.findAllWithOrderByIdIn(idPage.getContent()).stream()
+                    .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+            List<Long> orderIds = transactionsById.values().stream()
+                    .map(transaction -> transaction.getOrder().getId())
+                    .distinct()
+                    .collect(Collectors.toList());
+            if (!orderIds.isEmpty()) {
+                orderRepository.findAllWithItemsByIdIn(orderIds);
+            }
+            for (Long transactionId : idPage.getContent()) {
+                Transaction transaction = transactionsById.get(transactionId);
+                if (transaction != null) {
+                    transactionResponses.add(mapTransactionToResponse(transaction));
+                }
+            }
+        }
 
         return PageCustomResponse.<TransactionResponse>builder()
-                .pageNo(transactionPage.getNumber() + 1)
-                .pageSize(transactionPage.getSize())
-                .totalPages(transactionPage.getTotalPages())
-                .totalElements(transactionPage.getTotalElements())
+                .pageNo(idPage.getNumber() + 1)
+                .pageSize(idPage.getSize())
+                .totalPages(idPage.getTotalPages())
+                .totalElements(idPage.getTotalElements())
                 .pageContent(transactionResponses)
                 .build();
     }
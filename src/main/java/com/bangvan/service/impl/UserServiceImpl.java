@@ -10,6 +10,7 @@ import com.bangvan.entity.*;
 import com.bangvan.exception.AppException;
 import com.bangvan.exception.ErrorCode;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.UserMapper;
 import com.bangvan.repository.CartRepository;
 import com.bangvan.repository.RoleRepository;
 import com.bangvan.repository.UserRepository;
@@ -34,6 +35,7 @@ import java.util.Set;
 public class UserServiceImpl implements UserService {
 
     private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
@@ -69,7 +71,7 @@ public class UserServiceImpl implements UserService {
 
 
         log.info("Saving user to database");
-        return modelMapper.map(user, UserResponse.class);
+        return userMapper.toUserResponse(user);
     }
     @Transactional(rollbackFor = Exception.class)
     @Override
@@ -91,7 +93,7 @@ public class UserServiceImpl implements UserService {
 
         log.info("Saving updated user to database");
         User updatedUser = userRepository.save(currentUser);
-        return modelMapper.map(updatedUser, UserResponse.class);
+        return userMapper.toUserResponse(updatedUser);
     }
     @Override
     public String deleteUser(Long userId){
@@ -107,18 +109,21 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse findUserById(Long userId){
         User user = userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("user", "userId", userId));
-        return modelMapper.map(user, UserResponse.class);
+        return userMapper.toUserResponse(user);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getProfile(Principal principal){
         User user = userRepository.findByUsernameAndEnabledIsTrue(principal.getName()).orElseThrow(() -> new ResourceNotFoundException("user", "userId", principal.getName()));
-        return modelMapper.map(user, UserResponse.class);
+        return userMapper.toUserResponse(user);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageCustomResponse<UserResponse> findAllUsers(Pageable pageable){
         Page<User> page = userRepository.findAll(pageable);
         return PageCustomResponse.<UserResponse>builder()
@@ -126,10 +131,11 @@ public class UserServiceImpl implements UserService {
                 .pageSize(page.getSize())
                 .totalPages(page.getTotalPages())
                 .totalElements(page.getTotalElements())
-                .pageContent(page.getContent().stream().map(user -> modelMapper.map(user, UserResponse.class)).toList()).build();
+                .pageContent(page.getContent().stream().map(userMapper::toUserResponse).toList()).build();
     }
 
     @Override
+    @Transactional
     public UserResponse changePassword(Principal principal, ChangePasswordRequest request){
         User user = userRepository.findByUsernameAndEnabledIsTrue(principal.getName()).orElseThrow(() -> new ResourceNotFoundException("user", "userId", principal.getName()));
         if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword())) {
@@ -138,7 +144,7 @@ public class UserServiceImpl implements UserService {
 
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         user=userRepository.save(user);
-        return modelMapper.map(user,UserResponse.class);
+        return userMapper.toUserResponse(user);
     }
 
 
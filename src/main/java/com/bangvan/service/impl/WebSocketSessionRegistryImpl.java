@@ -0,0 +1,180 @@
+package com.bangvan.service.impl;
+
+import com.bangvan.config.SchedulingConfig;
+import com.bangvan.service.WebSocketSessionRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry user -> node đang giữ session WebSocket của user đó (đồng thời là presence registry của cluster).
+ * Mỗi node giữ số session local theo user, và đăng ký nodeId vào Redis set "ws:user-nodes:{username}"
+ * khi user có session đầu tiên trên node. Node còn sống được đánh dấu bằng heartbeat trong ZSET "ws:nodes",
+ * node chết (không heartbeat) bị bỏ qua khi route message: liveness đọc trực tiếp từ "ws:nodes" lúc route,
+ * không dùng snapshot local, và đường đọc không xóa gì. Set của user được heartbeat gia hạn TTL,
+ * nên entry của node chết tự hết hạn khi không còn node sống nào giữ session của user.
+ */
+@Service
+@Slf4j
+public class WebSocketSessionRegistryImpl implements WebSocketSessionRegistry {
+
+    private static final String USER_NODES_PREFIX = "ws:user-nodes:";
+    private static final String NODES_KEY = "ws:nodes";
+
+    private final RedisTemplate<String, String> stringRedisTemplate;
+    private final String nodeId;
+    private final long nodeTtlMillis;
+
+    private final Map<String, AtomicInteger> localSessionsByUser = new ConcurrentHashMap<>();
+    private final Map<String, String> usernameBySession = new ConcurrentHashMap<>();
+
+    public WebSocketSessionRegistryImpl(RedisTemplate<String, String> stringRedisTemplate,
+                                        @Value("${app.websocket.node-id:${random.uuid}}") String nodeId,
+                                        @Value("${app.websocket.heartbeat-interval-ms:10000}") long heartbeatIntervalMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.nodeId = nodeId;
+        this.nodeTtlMillis = heartbeatIntervalMillis * 3;
+        log.info("WebSocket node id: {}", nodeId);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean hasLocalSession(String username) {
+        AtomicInteger count = localSessionsByUser.get(username);
+        return count != null && count.get() > 0;
+    }
+
+    @Override
+    public boolean isOnline(String username) {
+        if (hasLocalSession(username)) {
+            return true;
+        }
+        try {
+            return !findNodesForUser(username).isEmpty();
+        } catch (Exception e) {
+            log.error("Presence lookup failed for user {}: {}", username, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public Set<String> findNodesForUser(String username) {
+        Set<String> nodes = stringRedisTemplate.opsForSet().members(USER_NODES_PREFIX + username);
+        if (nodes == null || nodes.isEmpty()) {
+            return hasLocalSession(username) ? Set.of(nodeId) : Collections.emptySet();
+        }
+        List<String> candidates = new ArrayList<>(nodes);
+        List<Double> heartbeats = stringRedisTemplate.opsForZSet().score(NODES_KEY, candidates.toArray());
+        long aliveSince = System.currentTimeMillis() - nodeTtlMillis;
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            String node = candidates.get(i);
+            Double heartbeat = (heartbeats != null) ? heartbeats.get(i) : null;
+            if (node.equals(nodeId) || (heartbeat != null && heartbeat >= aliveSince)) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    @EventListener
+    public void handleSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (user == null || sessionId == null) {
+            return;
+        }
+        String username = user.getName();
+        usernameBySession.put(sessionId, username);
+        int sessions = localSessionsByUser.computeIfAbsent(username, key -> new AtomicInteger()).incrementAndGet();
+        if (sessions == 1) {
+            try {
+                stringRedisTemplate.opsForSet().add(USER_NODES_PREFIX + username, nodeId);
+                stringRedisTemplate.expire(USER_NODES_PREFIX + username, Duration.ofMillis(nodeTtlMillis));
+            } catch (Exception e) {
+                log.error("Failed to register WebSocket session of user {} in Redis: {}", username, e.getMessage());
+            }
+        }
+    }
+
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        // SessionDisconnectEvent có thể bắn nhiều lần cho cùng một session
+        String username = usernameBySession.remove(event.getSessionId());
+        if (username == null) {
+            return;
+        }
+        AtomicInteger count = localSessionsByUser.get(username);
+        if (count != null && count.decrementAndGet() <= 0) {
+            localSessionsByUser.remove(username, count);
+            try {
+                stringRedisTemplate.opsForSet().remove(USER_NODES_PREFIX + username, nodeId);
+            } catch (Exception e) {
+                log.error("Failed to unregister WebSocket session of user {} in Redis: {}", username, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Heartbeat của node: cập nhật ZSET node còn sống, dọn node hết hạn khỏi ZSET,
+     * đăng ký lại các user local (phòng trường hợp Redis bị flush/restart) và gia hạn TTL set của họ.
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.heartbeat-interval-ms:10000}", scheduler = SchedulingConfig.WEBSOCKET_HEARTBEAT_SCHEDULER)
+    public void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            stringRedisTemplate.opsForZSet().add(NODES_KEY, nodeId, now);
+            stringRedisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, 0, now - nodeTtlMillis);
+
+            if (!localSessionsByUser.isEmpty()) {
+                byte[] node = nodeId.getBytes(StandardCharsets.UTF_8);
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String username : localSessionsByUser.keySet()) {
+                        byte[] key = (USER_NODES_PREFIX + username).getBytes(StandardCharsets.UTF_8);
+                        connection.setCommands().sAdd(key, node);
+                        connection.keyCommands().pExpire(key, nodeTtlMillis);
+                    }
+                    return null;
+                });
+            }
+        } catch (Exception e) {
+            log.error("WebSocket node heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void unregisterNode() {
+        try {
+            for (String username : localSessionsByUser.keySet()) {
+                stringRedisTemplate.opsForSet().remove(USER_NODES_PREFIX + username, nodeId);
+            }
+            stringRedisTemplate.opsForZSet().remove(NODES_KEY, nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to unregister WebSocket node {}: {}", nodeId, e.getMessage());
+        }
+    }
+}
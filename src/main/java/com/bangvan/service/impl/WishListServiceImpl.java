@@ -6,6 +6,7 @@ import com.bangvan.entity.Product;
 import com.bangvan.entity.User;
 import com.bangvan.entity.WishList;
 import com.bangvan.exception.ResourceNotFoundException;
+import com.bangvan.mapper.WishListMapper;
 import com.bangvan.repository.ProductRepository;
 import com.bangvan.repository.UserRepository;
 import com.bangvan.repository.WishListRepository;
@@ -13,7 +14,6 @@ import com.bangvan.repository.WishListRepository;
 import com.bangvan.service.WishListService;
 
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,7 +26,7 @@ public class WishListServiceImpl implements WishListService {
     private final WishListRepository wishlistRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
-    private final ModelMapper modelMapper;
+    private final WishListMapper wishListMapper;
 
     @Transactional
     @Override
@@ -45,7 +45,7 @@ public class WishListServiceImpl implements WishListService {
         wishlist.getProducts().add(product);
         wishlistRepository.save(wishlist);
 
-        return modelMapper.map(wishlist, WishListResponse.class);
+        return wishListMapper.toWishListResponse(wishlist);
     }
 
     @Transactional
@@ -63,6 +63,7 @@ public class WishListServiceImpl implements WishListService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public WishListResponse getUserWishlist(Principal principal) {
         User user = userRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", principal.getName()));
@@ -73,6 +74,6 @@ public class WishListServiceImpl implements WishListService {
             return newWishlist;
         });
 
-        return modelMapper.map(wishlist, WishListResponse.class);
+        return wishListMapper.toWishListResponse(wishlist);
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.bangvan.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Tiền được tính bằng long theo đơn vị nhỏ nhất (minor unit) bên trong, chỉ đổi sang BigDecimal ở API/DB.
+ * VND không có đơn vị lẻ nên 1 minor unit = 1 đồng.
+ */
+public final class MoneyUtil {
+
+    public static final int MINOR_UNIT_SCALE = 0;
+    // phần trăm được biểu diễn bằng basis point: 12.5% -> 1250
+    public static final long BASIS_POINTS = 10_000L;
+
+    private MoneyUtil() {
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.movePointRight(MINOR_UNIT_SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, MINOR_UNIT_SCALE);
+    }
+
+    public static long toBasisPoints(BigDecimal percentage) {
+        if (percentage == null) {
+            return 0L;
+        }
+        return percentage.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static long applyBasisPoints(long amount, long basisPoints) {
+        return divideHalfUp(Math.multiplyExact(amount, basisPoints), BASIS_POINTS);
+    }
+
+    /**
+     * Phần trăm giảm giá của sellingPrice so với price, làm tròn 2 chữ số thập phân.
+     */
+    public static BigDecimal discountPercent(long price, long sellingPrice) {
+        if (price <= 0 || sellingPrice > price) {
+            return BigDecimal.ZERO;
+        }
+        long basisPoints = divideHalfUp(Math.multiplyExact(price - sellingPrice, BASIS_POINTS), price);
+        return BigDecimal.valueOf(basisPoints, 2);
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        return (Math.abs(remainder) * 2 >= Math.abs(divisor)) ? quotient + Long.signum(dividend) * Long.signum(divisor) : quotient;
+    }
+}
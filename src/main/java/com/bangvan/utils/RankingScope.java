@@ -0,0 +1,7 @@
+package com.bangvan.utils;
+
+public enum RankingScope {
+    GLOBAL,
+    CATEGORY,
+    SELLER
+}
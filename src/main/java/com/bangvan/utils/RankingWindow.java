@@ -0,0 +1,17 @@
+package com.bangvan.utils;
+
+public enum RankingWindow {
+    ALL_TIME(0),
+    LAST_24H(24),
+    LAST_7D(24 * 7);
+
+    private final int hours;
+
+    RankingWindow(int hours) {
+        this.hours = hours;
+    }
+
+    public int getHours() {
+        return hours;
+    }
+}
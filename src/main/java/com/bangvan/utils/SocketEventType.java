@@ -10,5 +10,6 @@ public enum SocketEventType {
     // Sự kiện cho Admin (MỚI)
     ADMIN_NEW_ORDER,        // Có đơn hàng mới toàn hệ thống
     ADMIN_ORDER_CANCELLED,  // Có đơn hàng bị hủy
-    ADMIN_ORDER_UPDATE      // Cập nhật trạng thái khác
+    ADMIN_ORDER_UPDATE,     // Cập nhật trạng thái khác
+    ADMIN_ORDER_EVENTS      // Batch event gọn (gom theo cửa sổ thời gian)
 }
\ No newline at end of file
@@ -0,0 +1,306 @@
+-- Schema gốc, trước đây do Hibernate ddl-auto: update sinh ra.
+-- Mọi lệnh đều IF NOT EXISTS: DB đang chạy (đã có bảng) được baseline ở version 0 rồi chạy file này như no-op,
+-- DB mới được tạo đầy đủ. Các thay đổi sau đó nằm ở các migration V2+.
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS payment_orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cart_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS notifications_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS product_variants_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS reviews_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6),
+    username       VARCHAR(255) NOT NULL UNIQUE,
+    password       VARCHAR(255) NOT NULL,
+    email          VARCHAR(255) NOT NULL UNIQUE,
+    phone          VARCHAR(255) NOT NULL UNIQUE,
+    first_name     VARCHAR(255) NOT NULL,
+    last_name      VARCHAR(255) NOT NULL,
+    avatar         VARCHAR(255),
+    gender         VARCHAR(255),
+    enabled        BOOLEAN,
+    birth_date     DATE,
+    account_status VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS roles (
+    role_id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL UNIQUE,
+    description VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS user_role (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    role_id BIGINT NOT NULL REFERENCES roles (role_id),
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE IF NOT EXISTS addresses (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    full_name    VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255) NOT NULL,
+    email        VARCHAR(255),
+    address      VARCHAR(255) NOT NULL,
+    district     VARCHAR(255) NOT NULL,
+    province     VARCHAR(255) NOT NULL,
+    country      VARCHAR(255),
+    note         VARCHAR(255),
+    user_id      BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS sellers (
+    id                  BIGINT PRIMARY KEY REFERENCES users (id),
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    business_name       VARCHAR(255),
+    business_email      VARCHAR(255),
+    business_mobile     VARCHAR(255),
+    business_address    VARCHAR(255),
+    logo                VARCHAR(255),
+    banner              VARCHAR(255),
+    account_number      VARCHAR(255),
+    account_holder_name VARCHAR(255),
+    bank_name           VARCHAR(255),
+    ifsc_code           VARCHAR(255),
+    pickup_address_id   BIGINT UNIQUE REFERENCES addresses (id),
+    gstin               VARCHAR(255),
+    is_email_verified   BOOLEAN,
+    account_status      VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    category_id        VARCHAR(255),
+    name               VARCHAR(255),
+    parent_category_id BIGINT REFERENCES categories (id),
+    level              INTEGER NOT NULL,
+    image_url          VARCHAR(255),
+    is_active          BOOLEAN
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6),
+    title            VARCHAR(255),
+    description      VARCHAR(255),
+    price            NUMERIC(38, 2),
+    selling_price    NUMERIC(38, 2),
+    discount_percent INTEGER,
+    num_ratings      INTEGER,
+    sold             INTEGER NOT NULL DEFAULT 0,
+    category_id      BIGINT REFERENCES categories (id),
+    seller_id        BIGINT REFERENCES sellers (id)
+);
+
+CREATE TABLE IF NOT EXISTS product_images (
+    product_id BIGINT NOT NULL REFERENCES products (id),
+    image_url  VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS product_variants (
+    id         BIGINT PRIMARY KEY,
+    sku        VARCHAR(255) UNIQUE,
+    color      VARCHAR(255),
+    size       VARCHAR(255),
+    quantity   INTEGER,
+    sold       INTEGER NOT NULL DEFAULT 0,
+    product_id BIGINT REFERENCES products (id)
+);
+
+CREATE TABLE IF NOT EXISTS carts (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id             BIGINT UNIQUE REFERENCES users (id),
+    total_price         NUMERIC(38, 2),
+    total_selling_price NUMERIC(38, 2),
+    total_item          INTEGER,
+    discount            NUMERIC(38, 2),
+    coupon_code         VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS cart_items (
+    id            BIGINT PRIMARY KEY,
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6),
+    cart_id       BIGINT REFERENCES carts (id),
+    variant_id    BIGINT REFERENCES product_variants (id),
+    quantity      INTEGER,
+    price         NUMERIC(38, 2),
+    selling_price NUMERIC(38, 2)
+);
+
+CREATE TABLE IF NOT EXISTS coupons (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code                VARCHAR(255),
+    discount_percentage NUMERIC(38, 2),
+    start_date          DATE,
+    end_date            DATE,
+    min_order_value     NUMERIC(38, 2),
+    is_active           BOOLEAN,
+    usage_limit         INTEGER,
+    used_count          INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS user_coupon (
+    coupon_id BIGINT NOT NULL REFERENCES coupons (id),
+    user_id   BIGINT NOT NULL REFERENCES users (id),
+    CONSTRAINT uk_user_coupon_coupon_user UNIQUE (coupon_id, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS deals (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    discount    INTEGER,
+    category_id BIGINT REFERENCES categories (id),
+    start_at    TIMESTAMP(6),
+    end_at      TIMESTAMP(6),
+    is_active   BOOLEAN
+);
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id         BIGINT PRIMARY KEY,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    user_id    BIGINT REFERENCES users (id),
+    seller_id  BIGINT REFERENCES sellers (id),
+    message    TEXT         NOT NULL,
+    is_read    BOOLEAN      NOT NULL,
+    link       VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS payment_orders (
+    id             BIGINT PRIMARY KEY,
+    amount         NUMERIC(38, 2),
+    status         VARCHAR(255),
+    payment_method VARCHAR(255),
+    payment_link   TEXT,
+    user_id        BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id                  BIGINT PRIMARY KEY,
+    version             BIGINT,
+    order_id            VARCHAR(36) NOT NULL,
+    user_id             BIGINT REFERENCES users (id),
+    seller_id           BIGINT REFERENCES sellers (id),
+    shipping_address_id BIGINT REFERENCES addresses (id),
+    total_price         NUMERIC(38, 2),
+    order_status        VARCHAR(255),
+    total_item          INTEGER,
+    payment_status      VARCHAR(255),
+    order_date          TIMESTAMP(6),
+    deliver_date        TIMESTAMP(6),
+    payment_order_id    BIGINT REFERENCES payment_orders (id)
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id                        BIGINT PRIMARY KEY,
+    order_id                  BIGINT REFERENCES orders (id),
+    variant_id                BIGINT REFERENCES product_variants (id),
+    product_title             VARCHAR(255),
+    variant_sku               VARCHAR(255),
+    color                     VARCHAR(255),
+    size                      VARCHAR(255),
+    image_url                 VARCHAR(255),
+    quantity                  INTEGER,
+    price_at_purchase         NUMERIC(38, 2),
+    selling_price_at_purchase NUMERIC(38, 2),
+    is_reviewed               BOOLEAN NOT NULL DEFAULT false
+);
+
+CREATE TABLE IF NOT EXISTS order_summaries (
+    id               BIGINT PRIMARY KEY,
+    order_code       VARCHAR(255) UNIQUE,
+    user_id          BIGINT  NOT NULL,
+    seller_id        BIGINT,
+    buyer            JSONB,
+    shipping_address JSONB,
+    total_price      NUMERIC(38, 2),
+    order_status     VARCHAR(255),
+    payment_status   VARCHAR(255),
+    total_item       INTEGER NOT NULL,
+    order_date       TIMESTAMP(6),
+    deliver_date     TIMESTAMP(6),
+    items            JSONB
+);
+
+CREATE TABLE IF NOT EXISTS reviews (
+    id            BIGINT PRIMARY KEY,
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6),
+    review_text   VARCHAR(255)   NOT NULL,
+    rating        NUMERIC(38, 2) NOT NULL,
+    order_item_id BIGINT         NOT NULL UNIQUE REFERENCES order_items (id),
+    user_id       BIGINT         NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS review_product_images (
+    review_id      BIGINT NOT NULL REFERENCES reviews (id),
+    product_images VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS seller_reports (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    seller_id          BIGINT UNIQUE REFERENCES sellers (id),
+    total_earnings     NUMERIC(38, 2),
+    total_sales        NUMERIC(38, 2),
+    total_refunds      NUMERIC(38, 2),
+    total_tax          NUMERIC(38, 2),
+    net_earnings       NUMERIC(38, 2),
+    total_orders       INTEGER,
+    canceled_orders    INTEGER,
+    total_transactions INTEGER
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id BIGINT UNIQUE REFERENCES orders (id),
+    date     TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS verification_codes (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    otp          VARCHAR(255),
+    email        VARCHAR(255),
+    user_id      BIGINT UNIQUE REFERENCES users (id),
+    expired_time TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS wish_list (
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT UNIQUE REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS wish_list_products (
+    wish_list_id BIGINT NOT NULL REFERENCES wish_list (id),
+    product_id   BIGINT NOT NULL REFERENCES products (id)
+);
+
+-- Index khai báo trên entity (@Table(indexes = ...)).
+-- DB đang chạy cũng chạy file này (baseline ở 0): CREATE INDEX thường khóa ghi trên bảng đang có dữ liệu,
+-- nên chỉ tạo ở đây khi bảng còn rỗng (DB mới). Bảng đã có dữ liệu thì V7 tạo bằng CONCURRENTLY;
+-- orders được V5 tạo lại dưới dạng partition trong cửa sổ bảo trì.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM orders) THEN
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_orders_order_id ON orders (order_id);
+    END IF;
+    -- notifications.user_id có thể chưa tồn tại trên schema cũ (V2 thêm)
+    IF NOT EXISTS (SELECT 1 FROM notifications)
+            AND EXISTS (SELECT 1 FROM information_schema.columns
+                        WHERE table_name = 'notifications' AND column_name = 'user_id') THEN
+        CREATE INDEX IF NOT EXISTS idx_notifications_user_created ON notifications (user_id, created_at);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM notifications) THEN
+        CREATE INDEX IF NOT EXISTS idx_notifications_seller_created ON notifications (seller_id, created_at);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM deals) THEN
+        CREATE INDEX IF NOT EXISTS idx_deals_category ON deals (category_id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM order_summaries) THEN
+        CREATE INDEX IF NOT EXISTS idx_order_summaries_user_date ON order_summaries (user_id, order_date);
+    END IF;
+END $$;
@@ -0,0 +1,63 @@
+-- Cột/constraint thay đổi sau khi schema cũ đã có dữ liệu. ddl-auto: update chỉ thêm cột rỗng,
+-- không backfill, không bỏ NOT NULL/UNIQUE cũ. Trên DB mới (V1 vừa tạo) các lệnh dưới là no-op.
+
+-- notifications: inbox theo user_id; notification cũ của seller có user_id = seller_id (sellers.id = users.id)
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS user_id BIGINT REFERENCES users (id);
+UPDATE notifications SET user_id = seller_id WHERE user_id IS NULL AND seller_id IS NOT NULL;
+ALTER TABLE notifications ALTER COLUMN seller_id DROP NOT NULL;
+
+-- coupons: giới hạn lượt dùng, used_count đếm lại từ user_coupon
+ALTER TABLE coupons ADD COLUMN IF NOT EXISTS usage_limit INTEGER;
+ALTER TABLE coupons ADD COLUMN IF NOT EXISTS used_count INTEGER;
+UPDATE coupons c
+SET used_count = (SELECT COUNT(*) FROM user_coupon uc WHERE uc.coupon_id = c.id)
+WHERE c.used_count IS NULL OR c.used_count = 0;
+ALTER TABLE coupons ALTER COLUMN used_count SET DEFAULT 0;
+ALTER TABLE coupons ALTER COLUMN used_count SET NOT NULL;
+
+-- user_coupon: INSERT ... ON CONFLICT DO NOTHING cần unique (coupon_id, user_id); xóa dòng trùng trước
+DELETE FROM user_coupon a
+USING user_coupon b
+WHERE a.ctid > b.ctid AND a.coupon_id = b.coupon_id AND a.user_id = b.user_id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_user_coupon_coupon_user') THEN
+        ALTER TABLE user_coupon ADD CONSTRAINT uk_user_coupon_coupon_user UNIQUE (coupon_id, user_id);
+    END IF;
+END $$;
+
+-- deals: trước là @OneToOne với category (unique category_id), nay một category có nhiều deal theo khung giờ
+DO $$
+DECLARE
+    constraint_name TEXT;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.conrelid = 'deals'::regclass
+          AND c.contype = 'u'
+          AND a.attname = 'category_id'
+          AND array_length(c.conkey, 1) = 1
+    LOOP
+        EXECUTE format('ALTER TABLE deals DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+
+ALTER TABLE deals ADD COLUMN IF NOT EXISTS start_at TIMESTAMP(6);
+ALTER TABLE deals ADD COLUMN IF NOT EXISTS end_at TIMESTAMP(6);
+ALTER TABLE deals ADD COLUMN IF NOT EXISTS is_active BOOLEAN;
+UPDATE deals SET is_active = true WHERE is_active IS NULL;
+
+-- products.sold: số lượng bán denormalized, tính lại từ product_variants
+ALTER TABLE products ADD COLUMN IF NOT EXISTS sold INTEGER;
+UPDATE products p
+SET sold = COALESCE((SELECT SUM(v.sold) FROM product_variants v WHERE v.product_id = p.id), 0)
+WHERE p.sold IS NULL OR p.sold = 0;
+ALTER TABLE products ALTER COLUMN sold SET DEFAULT 0;
+ALTER TABLE products ALTER COLUMN sold SET NOT NULL;
+
+-- orders.order_id: đơn cũ giữ mã UUID (đã nằm trong link notification và nội dung thanh toán VNPay)
+UPDATE orders SET order_id = gen_random_uuid()::text WHERE order_id IS NULL;
+ALTER TABLE orders ALTER COLUMN order_id SET NOT NULL;
@@ -0,0 +1,9 @@
+-- Các bảng ghi nhiều chuyển từ IDENTITY sang sequence (pooled optimizer, allocationSize = 50).
+-- Đẩy sequence lên trên MAX(id) hiện có, cộng thêm một block để block đầu tiên không trùng id đã có.
+SELECT setval('orders_seq', GREATEST(COALESCE((SELECT MAX(id) FROM orders), 0) + 50, (SELECT last_value FROM orders_seq)));
+SELECT setval('order_items_seq', GREATEST(COALESCE((SELECT MAX(id) FROM order_items), 0) + 50, (SELECT last_value FROM order_items_seq)));
+SELECT setval('payment_orders_seq', GREATEST(COALESCE((SELECT MAX(id) FROM payment_orders), 0) + 50, (SELECT last_value FROM payment_orders_seq)));
+SELECT setval('cart_items_seq', GREATEST(COALESCE((SELECT MAX(id) FROM cart_items), 0) + 50, (SELECT last_value FROM cart_items_seq)));
+SELECT setval('notifications_seq', GREATEST(COALESCE((SELECT MAX(id) FROM notifications), 0) + 50, (SELECT last_value FROM notifications_seq)));
+SELECT setval('product_variants_seq', GREATEST(COALESCE((SELECT MAX(id) FROM product_variants), 0) + 50, (SELECT last_value FROM product_variants_seq)));
+SELECT setval('reviews_seq', GREATEST(COALESCE((SELECT MAX(id) FROM reviews), 0) + 50, (SELECT last_value FROM reviews_seq)));
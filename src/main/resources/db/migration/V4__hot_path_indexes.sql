@@ -0,0 +1,32 @@
+-- Index cho các predicate trên hot path. CONCURRENTLY để không khóa ghi trên bảng lớn;
+-- file chỉ chứa lệnh CONCURRENTLY nên Flyway chạy nó ngoài transaction.
+-- Nếu một lệnh bị ngắt giữa chừng, index INVALID còn lại phải DROP thủ công trước khi chạy lại (IF NOT EXISTS sẽ bỏ qua nó).
+
+-- Đơn của seller lọc theo trạng thái, sắp theo ngày đặt
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_seller_status_date ON orders (seller_id, order_status, order_date);
+
+-- Đơn của buyer theo ngày đặt
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_user_date ON orders (user_id, order_date);
+
+-- Load items theo order (listing đơn, hủy đơn)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_items_order ON order_items (order_id);
+
+-- Review theo product đi qua order_items.variant_id -> product_variants.product_id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_items_variant ON order_items (variant_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_variants_product ON product_variants (product_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_user ON reviews (user_id);
+
+-- CartItemRepository.findByCartAndVariant và load items của cart
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cart_items_cart_variant ON cart_items (cart_id, variant_id);
+
+-- Badge/summary notification chưa đọc của seller
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_seller_read ON notifications (seller_id, is_read);
+
+-- Listing theo category lọc/sắp theo giá bán
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_category_selling_price ON products (category_id, selling_price);
+
+-- Sắp theo "bán chạy" (products.sold denormalized)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_sold ON products (sold);
+
+-- Deal đang chạy / sắp chạy (DealRepository.findAllActiveOrUpcoming)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deals_active_end ON deals (is_active, end_at);
@@ -0,0 +1,142 @@
+-- Partition theo tháng cho orders, order_items và transactions.
+--   orders       LIST (archived) -> orders_live / orders_archive, mỗi nhánh RANGE (order_date) theo tháng
+--   order_items  RANGE (order_date), order_date chép từ order cha
+--   transactions RANGE (date)
+-- Query listing/dashboard lọc archived = false nên chỉ chạm các partition orders_live_*.
+-- Khóa chính của bảng partition phải chứa partition key, nên FK trỏ vào orders/order_items
+-- (order_items.order_id, transactions.order_id, reviews.order_item_id) được bỏ; các dòng này luôn được ghi
+-- trong cùng transaction với dòng cha. Tương tự, order_id không còn unique toàn cục: mã mới do
+-- OrderIdGenerator sinh là duy nhất, mã UUID cũ giữ nguyên.
+-- Migration chép lại toàn bộ dữ liệu trong một transaction: chạy trong cửa sổ bảo trì.
+
+-- Tạo các partition tháng [from_month, to_month] còn thiếu cho một bảng cha, trả về số partition đã tạo.
+-- Dùng lại bởi job tạo partition tự động (OrderPartitionService).
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, from_month DATE, to_month DATE) RETURNS INTEGER AS $$
+DECLARE
+    month_start    DATE    := date_trunc('month', from_month)::date;
+    partition_name TEXT;
+    created        INTEGER := 0;
+BEGIN
+    WHILE month_start <= to_month LOOP
+        partition_name := parent || '_' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent, month_start, (month_start + INTERVAL '1 month')::date);
+            created := created + 1;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE orders RENAME TO orders_old;
+ALTER TABLE order_items RENAME TO order_items_old;
+ALTER TABLE transactions RENAME TO transactions_old;
+
+-- orders
+CREATE TABLE orders (
+    id                  BIGINT       NOT NULL,
+    version             BIGINT,
+    order_id            VARCHAR(36)  NOT NULL,
+    user_id             BIGINT,
+    seller_id           BIGINT,
+    shipping_address_id BIGINT,
+    total_price         NUMERIC(38, 2),
+    order_status        VARCHAR(255),
+    total_item          INTEGER,
+    payment_status      VARCHAR(255),
+    order_date          TIMESTAMP(6) NOT NULL,
+    deliver_date        TIMESTAMP(6),
+    payment_order_id    BIGINT,
+    archived            BOOLEAN      NOT NULL DEFAULT false,
+    CONSTRAINT pk_orders PRIMARY KEY (id, archived, order_date),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_orders_seller FOREIGN KEY (seller_id) REFERENCES sellers (id),
+    CONSTRAINT fk_orders_shipping_address FOREIGN KEY (shipping_address_id) REFERENCES addresses (id),
+    CONSTRAINT fk_orders_payment_order FOREIGN KEY (payment_order_id) REFERENCES payment_orders (id)
+) PARTITION BY LIST (archived);
+
+CREATE TABLE orders_live PARTITION OF orders FOR VALUES IN (false) PARTITION BY RANGE (order_date);
+CREATE TABLE orders_archive PARTITION OF orders FOR VALUES IN (true) PARTITION BY RANGE (order_date);
+CREATE TABLE orders_live_default PARTITION OF orders_live DEFAULT;
+CREATE TABLE orders_archive_default PARTITION OF orders_archive DEFAULT;
+
+-- order_items
+CREATE TABLE order_items (
+    id                        BIGINT       NOT NULL,
+    order_id                  BIGINT,
+    order_date                TIMESTAMP(6) NOT NULL,
+    variant_id                BIGINT,
+    product_title             VARCHAR(255),
+    variant_sku               VARCHAR(255),
+    color                     VARCHAR(255),
+    size                      VARCHAR(255),
+    image_url                 VARCHAR(255),
+    quantity                  INTEGER,
+    price_at_purchase         NUMERIC(38, 2),
+    selling_price_at_purchase NUMERIC(38, 2),
+    is_reviewed               BOOLEAN      NOT NULL DEFAULT false,
+    CONSTRAINT pk_order_items PRIMARY KEY (id, order_date),
+    CONSTRAINT fk_order_items_variant FOREIGN KEY (variant_id) REFERENCES product_variants (id)
+) PARTITION BY RANGE (order_date);
+
+CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+
+-- transactions: id vẫn do DB sinh (Hibernate IDENTITY), dùng sequence thường thay cho identity column
+CREATE SEQUENCE transactions_seq;
+
+CREATE TABLE transactions (
+    id       BIGINT       NOT NULL DEFAULT nextval('transactions_seq'),
+    order_id BIGINT,
+    date     TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_transactions PRIMARY KEY (id, date)
+) PARTITION BY RANGE (date);
+
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- Partition tháng cho dữ liệu hiện có + 3 tháng tới, tạo trước khi chép để dữ liệu không rơi vào DEFAULT
+SELECT create_monthly_partitions('orders_live',
+                                 COALESCE((SELECT MIN(order_date) FROM orders_old), now())::date,
+                                 (now() + INTERVAL '3 months')::date);
+SELECT create_monthly_partitions('order_items',
+                                 COALESCE((SELECT MIN(order_date) FROM orders_old), now())::date,
+                                 (now() + INTERVAL '3 months')::date);
+SELECT create_monthly_partitions('transactions',
+                                 COALESCE((SELECT MIN(date) FROM transactions_old), now())::date,
+                                 (now() + INTERVAL '3 months')::date);
+
+INSERT INTO orders (id, version, order_id, user_id, seller_id, shipping_address_id, total_price,
+                    order_status, total_item, payment_status, order_date, deliver_date, payment_order_id)
+SELECT id, version, order_id, user_id, seller_id, shipping_address_id, total_price,
+       order_status, total_item, payment_status, COALESCE(order_date, now()), deliver_date, payment_order_id
+FROM orders_old;
+
+INSERT INTO order_items (id, order_id, order_date, variant_id, product_title, variant_sku, color, size,
+                         image_url, quantity, price_at_purchase, selling_price_at_purchase, is_reviewed)
+SELECT oi.id, oi.order_id, COALESCE(o.order_date, now()), oi.variant_id, oi.product_title, oi.variant_sku,
+       oi.color, oi.size, oi.image_url, oi.quantity, oi.price_at_purchase, oi.selling_price_at_purchase,
+       oi.is_reviewed
+FROM order_items_old oi
+LEFT JOIN orders_old o ON o.id = oi.order_id;
+
+INSERT INTO transactions (id, order_id, date)
+SELECT id, order_id, COALESCE(date, now())
+FROM transactions_old;
+
+SELECT setval('transactions_seq', COALESCE((SELECT MAX(id) FROM transactions), 0) + 1, false);
+
+-- CASCADE chỉ bỏ các FK của bảng khác trỏ vào bảng cũ (reviews.order_item_id)
+DROP TABLE transactions_old CASCADE;
+DROP TABLE order_items_old CASCADE;
+DROP TABLE orders_old CASCADE;
+
+ALTER SEQUENCE transactions_seq OWNED BY transactions.id;
+
+-- Index trên bảng cha được tạo cho mọi partition, kể cả partition tạo sau này
+CREATE INDEX idx_orders_order_id ON orders (order_id);
+CREATE INDEX idx_orders_seller_status_date ON orders (seller_id, order_status, order_date);
+CREATE INDEX idx_orders_user_date ON orders (user_id, order_date);
+CREATE INDEX idx_order_items_order ON order_items (order_id);
+CREATE INDEX idx_order_items_variant ON order_items (variant_id);
+CREATE INDEX idx_transactions_order ON transactions (order_id);
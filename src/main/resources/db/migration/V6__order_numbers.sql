@@ -0,0 +1,36 @@
+-- Bảng orders partition theo (archived, order_date) nên không còn unique index toàn cục trên order_id.
+-- order_numbers (không partition) giữ mã đơn duy nhất toàn cục; được ghi trong cùng transaction tạo order,
+-- mã trùng làm transaction tạo đơn rollback. id/order_date trỏ về dòng orders tương ứng.
+CREATE TABLE order_numbers (
+    order_id   VARCHAR(36)  NOT NULL,
+    id         BIGINT       NOT NULL,
+    order_date TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_order_numbers PRIMARY KEY (order_id)
+);
+
+-- Mã trùng sẵn có (nếu có) làm migration lỗi: cần xử lý tay trước khi chạy lại
+INSERT INTO order_numbers (order_id, id, order_date)
+SELECT order_id, id, order_date
+FROM orders;
+
+-- Nhiều node cùng tạo partition: CREATE TABLE ... PARTITION OF đồng thời có thể lỗi "relation already exists"
+-- giữa lúc kiểm tra to_regclass và lúc tạo. Advisory lock theo transaction tuần tự hóa các lần gọi.
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, from_month DATE, to_month DATE) RETURNS INTEGER AS $$
+DECLARE
+    month_start    DATE    := date_trunc('month', from_month)::date;
+    partition_name TEXT;
+    created        INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('create_monthly_partitions'));
+    WHILE month_start <= to_month LOOP
+        partition_name := parent || '_' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent, month_start, (month_start + INTERVAL '1 month')::date);
+            created := created + 1;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,8 @@
+-- Index của V1 mà V1 bỏ qua trên DB đang có dữ liệu (tránh khóa ghi). Trên DB mới các lệnh dưới là no-op.
+-- File chỉ chứa lệnh CONCURRENTLY nên Flyway chạy nó ngoài transaction (cần spring.flyway.postgresql.transactional-lock: false).
+-- Nếu một lệnh bị ngắt giữa chừng, index INVALID còn lại phải DROP thủ công trước khi chạy lại (IF NOT EXISTS sẽ bỏ qua nó).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_created ON notifications (user_id, created_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_seller_created ON notifications (seller_id, created_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deals_category ON deals (category_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_summaries_user_date ON order_summaries (user_id, order_date);
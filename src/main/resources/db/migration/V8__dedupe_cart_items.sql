@@ -0,0 +1,9 @@
+-- Flush cart đồng thời trước đây có thể thêm hai CartItem cho cùng (cart_id, variant_id).
+-- Giữ dòng mới nhất (id lớn nhất); lần flush kế tiếp ghi lại số lượng từ Redis.
+-- Phải chạy trước V9 (unique index).
+
+DELETE FROM cart_items ci
+USING cart_items newer
+WHERE newer.cart_id = ci.cart_id
+  AND newer.variant_id = ci.variant_id
+  AND newer.id > ci.id;
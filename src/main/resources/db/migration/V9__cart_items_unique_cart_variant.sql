@@ -0,0 +1,9 @@
+-- Một variant chỉ có một dòng trong mỗi cart. CONCURRENTLY để không khóa ghi cart_items;
+-- file chỉ chứa lệnh CONCURRENTLY nên Flyway chạy nó ngoài transaction.
+-- Node bản cũ còn chạy có thể chèn trùng giữa V8 và V9: khi đó lệnh tạo index thất bại,
+-- DROP index INVALID còn lại, chạy lại nội dung V8 rồi chạy lại migration.
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_cart_items_cart_variant ON cart_items (cart_id, variant_id);
+
+-- index thường của V4 trùng cột với unique index ở trên
+DROP INDEX CONCURRENTLY IF EXISTS idx_cart_items_cart_variant;
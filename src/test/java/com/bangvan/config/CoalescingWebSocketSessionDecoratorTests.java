@@ -0,0 +1,142 @@
+package com.bangvan.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Buffer của session khi client ngừng đọc: frame dashboard được gộp latest-wins, frame khác vẫn đủ và đúng thứ tự,
+ * buffer vượt giới hạn thì session bị đánh dấu không tin cậy.
+ */
+class CoalescingWebSocketSessionDecoratorTests {
+
+    private static final String ORDER_EVENTS = "/topic/admin/order-events";
+    private static final String NOTIFICATIONS = "/user/queue/notifications";
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch unstall = new CountDownLatch(1);
+    private final AtomicInteger coalesced = new AtomicInteger();
+    private final ExecutorService stalledSender = Executors.newSingleThreadExecutor();
+
+    private WebSocketSession stalledSession;
+
+    @BeforeEach
+    void stalledClient() throws Exception {
+        stalledSession = mock(WebSocketSession.class);
+        when(stalledSession.getId()).thenReturn("s1");
+        when(stalledSession.isOpen()).thenReturn(true);
+        // client không đọc: lần ghi đầu tiên treo cho tới khi unstall
+        doAnswer(invocation -> {
+            WebSocketMessage<?> message = invocation.getArgument(0);
+            if (delivered.isEmpty()) {
+                writing.countDown();
+                unstall.await(10, TimeUnit.SECONDS);
+            }
+            delivered.add(((TextMessage) message).getPayload());
+            return null;
+        }).when(stalledSession).sendMessage(any());
+    }
+
+    @AfterEach
+    void shutdown() {
+        unstall.countDown();
+        stalledSender.shutdownNow();
+    }
+
+    @Test
+    void coalescesDashboardFramesWhileTheClientIsStalled() throws Exception {
+        CoalescingWebSocketSessionDecorator session = decorate(64 * 1024);
+        blockOnFirstFrame(session);
+
+        for (int i = 0; i < 20; i++) {
+            session.sendMessage(frame(ORDER_EVENTS, "batch-" + i));
+            if (i % 5 == 0) {
+                session.sendMessage(frame(NOTIFICATIONS, "notification-" + i));
+            }
+        }
+
+        // 4 notification + 1 batch order-events mới nhất
+        assertThat(session.getBufferedFrameCount()).isEqualTo(5);
+        assertThat(coalesced.get()).isEqualTo(19);
+
+        unstall.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> delivered.size() == 6);
+        assertThat(delivered).filteredOn(frame -> frame.contains(ORDER_EVENTS))
+                .singleElement().satisfies(frame -> assertThat(frame).endsWith("batch-19\0"));
+        assertThat(delivered).filteredOn(frame -> frame.contains("notification-"))
+                .extracting(frame -> frame.substring(frame.indexOf("\n\n") + 2))
+                .containsExactly("notification-first\0", "notification-0\0", "notification-5\0",
+                        "notification-10\0", "notification-15\0");
+        assertThat(session.getBufferSize()).isZero();
+    }
+
+    @Test
+    void dashboardFloodDoesNotExceedTheBufferLimit() throws Exception {
+        CoalescingWebSocketSessionDecorator session = decorate(2048);
+        blockOnFirstFrame(session);
+
+        String batch = "x".repeat(1000);
+        for (int i = 0; i < 500; i++) {
+            session.sendMessage(frame(ORDER_EVENTS, batch));
+        }
+
+        assertThat(session.getBufferedFrameCount()).isEqualTo(1);
+        assertThat(session.getBufferSize()).isLessThan(2048);
+    }
+
+    @Test
+    void marksTheSessionUnreliableWhenOtherFramesOverflowTheBuffer() throws Exception {
+        CoalescingWebSocketSessionDecorator session = decorate(2048);
+        blockOnFirstFrame(session);
+
+        String notification = "x".repeat(800);
+        session.sendMessage(frame(NOTIFICATIONS, notification));
+        session.sendMessage(frame(NOTIFICATIONS, notification));
+
+        assertThatThrownBy(() -> session.sendMessage(frame(NOTIFICATIONS, notification)))
+                .isInstanceOf(SessionLimitExceededException.class);
+        assertThat(session.getBufferSize()).isZero();
+    }
+
+    private CoalescingWebSocketSessionDecorator decorate(int bufferSizeLimit) {
+        return new CoalescingWebSocketSessionDecorator(stalledSession, 10_000, bufferSizeLimit,
+                ORDER_EVENTS::equals, destination -> coalesced.incrementAndGet());
+    }
+
+    /**
+     * Một thread gửi frame đầu tiên và bị treo trong lúc ghi, giữ quyền flush của session.
+     */
+    private void blockOnFirstFrame(CoalescingWebSocketSessionDecorator session) throws InterruptedException {
+        stalledSender.submit(() -> {
+            session.sendMessage(frame(NOTIFICATIONS, "notification-first"));
+            return null;
+        });
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static TextMessage frame(String destination, String body) {
+        return new TextMessage("MESSAGE\ndestination:" + destination + "\ncontent-type:application/json\n"
+                + "subscription:sub-0\nmessage-id:m-" + body.hashCode() + "\ncontent-length:" + body.length() + "\n\n" + body + "\0");
+    }
+}
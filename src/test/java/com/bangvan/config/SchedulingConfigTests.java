@@ -0,0 +1,85 @@
+package com.bangvan.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Job trên scheduler riêng vẫn chạy khi pool chung bị một job chậm chiếm hết.
+ */
+class SchedulingConfigTests {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class, TaskSchedulingAutoConfiguration.class))
+            .withUserConfiguration(SchedulingConfig.class, ProbeConfig.class)
+            .withPropertyValues("spring.task.scheduling.pool.size=1", "spring.task.scheduling.thread-name-prefix=scheduling-");
+
+    @Test
+    void dedicatedSchedulersAreNotBlockedBySharedPool() {
+        contextRunner.run(context -> {
+            Probe probe = context.getBean(Probe.class);
+
+            assertThat(probe.dedicatedRuns.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(probe.threadNames).anyMatch(name -> name.startsWith("scheduling-"));
+            assertThat(probe.threadNames).anyMatch(name -> name.startsWith("order-id-lease-"));
+            assertThat(probe.threadNames).anyMatch(name -> name.startsWith("ws-heartbeat-"));
+            assertThat(probe.threadNames).anyMatch(name -> name.startsWith("replica-lag-"));
+            probe.release.countDown();
+        });
+    }
+
+    @Configuration
+    @EnableScheduling
+    static class ProbeConfig {
+        @Bean
+        Probe probe() {
+            return new Probe();
+        }
+    }
+
+    static class Probe {
+        final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        final CountDownLatch dedicatedRuns = new CountDownLatch(6);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // chiếm thread duy nhất của pool chung
+        @Scheduled(fixedDelay = 60000)
+        void slowSharedJob() throws InterruptedException {
+            threadNames.add(Thread.currentThread().getName());
+            release.await(10, TimeUnit.SECONDS);
+        }
+
+        @Scheduled(fixedDelay = 10, scheduler = SchedulingConfig.ORDER_ID_LEASE_SCHEDULER)
+        void lease() {
+            ran();
+        }
+
+        @Scheduled(fixedDelay = 10, scheduler = SchedulingConfig.WEBSOCKET_HEARTBEAT_SCHEDULER)
+        void heartbeat() {
+            ran();
+        }
+
+        @Scheduled(fixedDelay = 10, scheduler = SchedulingConfig.REPLICA_LAG_SCHEDULER)
+        void replicaLag() {
+            ran();
+        }
+
+        private void ran() {
+            threadNames.add(Thread.currentThread().getName());
+            dedicatedRuns.countDown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bangvan.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Broker do WebSocketBrokerConfig bật bọc session bằng CoalescingWebSocketSessionDecorator
+ * với giới hạn lấy từ configureWebSocketTransport.
+ */
+class WebSocketBrokerConfigTests {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withUserConfiguration(BrokerConfig.class);
+
+    @Test
+    void sessionsAreDecoratedWithTheCoalescingBuffer() {
+        contextRunner.run(context -> {
+            SubProtocolWebSocketHandler handler = (SubProtocolWebSocketHandler) context.getBean("subProtocolWebSocketHandler", WebSocketHandler.class);
+            assertThat(handler.getSendBufferSizeLimit()).isEqualTo(4096);
+
+            Object decorated = ReflectionTestUtils.invokeMethod(handler, "decorateSession", mock(WebSocketSession.class));
+
+            assertThat(decorated).isInstanceOf(CoalescingWebSocketSessionDecorator.class);
+        });
+    }
+
+    @Configuration
+    @Import(WebSocketBrokerConfig.class)
+    static class BrokerConfig implements WebSocketMessageBrokerConfigurer {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        WebSocketOutboundInterceptor webSocketOutboundInterceptor(MeterRegistry meterRegistry) {
+            return new WebSocketOutboundInterceptor(meterRegistry, 100, List.of("/topic/admin/order-events"));
+        }
+
+        @Override
+        public void registerStompEndpoints(StompEndpointRegistry registry) {
+            registry.addEndpoint("/ws");
+        }
+
+        @Override
+        public void configureMessageBroker(MessageBrokerRegistry registry) {
+            registry.enableSimpleBroker("/topic", "/queue");
+        }
+
+        @Override
+        public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+            registration.setSendBufferSizeLimit(4096);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.bangvan.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Trạng thái theo session của WebSocketOutboundInterceptor chỉ tồn tại giữa CONNECT và DISCONNECT.
+ */
+class WebSocketOutboundInterceptorTests {
+
+    private static final String DESTINATION = "/topic/admin/order-events";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WebSocketOutboundInterceptor interceptor =
+            new WebSocketOutboundInterceptor(meterRegistry, 100, List.of(DESTINATION));
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void countsFramesOfConnectedSessions() {
+        interceptor.handleSessionConnect(new SessionConnectEvent(this, message(SimpMessageType.CONNECT, "s1")));
+
+        interceptor.preSend(message(SimpMessageType.MESSAGE, "s1"), channel);
+
+        assertThat(queued()).isEqualTo(1);
+    }
+
+    @Test
+    void lateFrameAfterDisconnectIsNotTracked() {
+        interceptor.handleSessionConnect(new SessionConnectEvent(this, message(SimpMessageType.CONNECT, "s1")));
+        interceptor.handleSessionDisconnect(new SessionDisconnectEvent(this, message(SimpMessageType.DISCONNECT, "s1"),
+                "s1", CloseStatus.NORMAL));
+
+        Message<?> late = message(SimpMessageType.MESSAGE, "s1");
+        assertThat(interceptor.preSend(late, channel)).isSameAs(late);
+        interceptor.preSend(message(SimpMessageType.MESSAGE, "s1"), channel);
+
+        assertThat(meterRegistry.find("websocket.outbound.queued").gauge()).isNull();
+    }
+
+    private double queued() {
+        Gauge gauge = meterRegistry.find("websocket.outbound.queued").tag("destination", DESTINATION).gauge();
+        return (gauge != null) ? gauge.value() : 0;
+    }
+
+    private static Message<byte[]> message(SimpMessageType type, String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        if (type == SimpMessageType.MESSAGE) {
+            accessor.setDestination(DESTINATION);
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
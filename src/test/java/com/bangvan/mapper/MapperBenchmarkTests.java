@@ -0,0 +1,176 @@
+package com.bangvan.mapper;
+
+import com.bangvan.config.ModelMapperConfig;
+import com.bangvan.dto.response.order.OrderResponse;
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.entity.*;
+import com.bangvan.utils.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MapStruct (code generate lúc compile) so với ModelMapper (reflection, STRICT + property condition như ModelMapperConfig)
+ * trên Product -> ProductResponse và Order -> OrderResponse.
+ */
+@SpringJUnitConfig(MapperBenchmarkTests.Mappers.class)
+class MapperBenchmarkTests {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+
+    private final ModelMapper modelMapper = new ModelMapperConfig().modelMapper();
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Test
+    void productToResponse() {
+        Product product = product(1);
+
+        ProductResponse generated = productMapper.toProductResponse(product);
+        ProductResponse reflective = modelMapper.map(product, ProductResponse.class);
+        assertThat(generated.getTitle()).isEqualTo(reflective.getTitle());
+        assertThat(generated.getVariants()).hasSameSizeAs(reflective.getVariants());
+
+        long mapStructNanos = measure(() -> productMapper.toProductResponse(product));
+        long modelMapperNanos = measure(() -> modelMapper.map(product, ProductResponse.class));
+        System.out.printf("Product -> ProductResponse: MapStruct %,d ns/op, ModelMapper %,d ns/op%n", mapStructNanos, modelMapperNanos);
+        assertThat(mapStructNanos).isLessThan(modelMapperNanos);
+    }
+
+    @Test
+    void orderToResponse() {
+        Order order = order();
+
+        OrderResponse generated = orderMapper.toOrderResponse(order);
+        OrderResponse reflective = modelMapper.map(order, OrderResponse.class);
+        assertThat(generated.getOrderId()).isEqualTo(reflective.getOrderId());
+        assertThat(generated.getOrderItems()).hasSameSizeAs(reflective.getOrderItems());
+
+        long mapStructNanos = measure(() -> orderMapper.toOrderResponse(order));
+        long modelMapperNanos = measure(() -> modelMapper.map(order, OrderResponse.class));
+        System.out.printf("Order -> OrderResponse: MapStruct %,d ns/op, ModelMapper %,d ns/op%n", mapStructNanos, modelMapperNanos);
+        assertThat(mapStructNanos).isLessThan(modelMapperNanos);
+    }
+
+    private static long measure(Supplier<?> mapping) {
+        for (int i = 0; i < WARMUP; i++) {
+            mapping.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapping.get();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private static Product product(long id) {
+        User owner = new User();
+        owner.setId(10L);
+        owner.setUsername("giaysneakerhn");
+        owner.setEmail("shop@vsv.test");
+        Seller seller = new Seller();
+        seller.setId(12L);
+        seller.setUser(owner);
+
+        Category parent = new Category();
+        parent.setId(1L);
+        parent.setCategoryId("men");
+        parent.setName("Nam");
+        parent.setLevel(1);
+        Category category = new Category();
+        category.setId(2L);
+        category.setCategoryId("men-shoes");
+        category.setName("Giày nam");
+        category.setLevel(2);
+        category.setParentCategory(parent);
+
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle("Giày chạy bộ nam mẫu " + id);
+        product.setDescription("Đế cao su, thoáng khí");
+        product.setPrice(new BigDecimal("499000.00"));
+        product.setSellingPrice(new BigDecimal("419000.00"));
+        product.setSeller(seller);
+        product.setCategory(category);
+        product.getImages().add("https://res.cloudinary.com/vsv/image/upload/v1/products/" + id + ".jpg");
+        for (int i = 0; i < 4; i++) {
+            ProductVariant variant = new ProductVariant();
+            variant.setId(id * 10 + i);
+            variant.setSku("SKU-" + id + "-" + i);
+            variant.setColor("Đen");
+            variant.setSize(String.valueOf(39 + i));
+            variant.setQuantity(25);
+            variant.setProduct(product);
+            product.getVariants().add(variant);
+        }
+        return product;
+    }
+
+    /**
+     * Đơn điển hình: buyer, địa chỉ giao hàng và 3 item.
+     */
+    private static Order order() {
+        User buyer = new User();
+        buyer.setId(42L);
+        buyer.setUsername("nguyenvana");
+        buyer.setEmail("nguyenvana@example.com");
+        buyer.setFirstName("Văn A");
+        buyer.setLastName("Nguyễn");
+
+        Address address = new Address();
+        address.setId(7L);
+        address.setFullName("Nguyễn Văn A");
+        address.setPhoneNumber("0901234567");
+        address.setAddress("12 Lê Lợi, Phường Bến Nghé");
+        address.setDistrict("Quận 1");
+        address.setProvince("Hồ Chí Minh");
+
+        Order order = new Order();
+        order.setId(1L);
+        order.setOrderId("ORD1000000001");
+        order.setUser(buyer);
+        order.setShippingAddress(address);
+        order.setOrderStatus(OrderStatus.PENDING);
+        order.setTotalPrice(new BigDecimal("1257000.00"));
+        order.setTotalItem(3);
+        for (long i = 1; i <= 3; i++) {
+            Product product = product(100 + i);
+            order.setSeller(product.getSeller());
+            ProductVariant variant = product.getVariants().iterator().next();
+            OrderItem item = new OrderItem();
+            item.setId(i);
+            item.setOrder(order);
+            item.setVariant(variant);
+            item.setOrderDate(LocalDateTime.now());
+            item.setQuantity(1);
+            item.setProductTitle(product.getTitle());
+            item.setVariantSku(variant.getSku());
+            item.setColor(variant.getColor());
+            item.setSize(variant.getSize());
+            item.setImageUrl(product.getImages().get(0));
+            item.setPriceAtPurchase(product.getPrice());
+            item.setSellingPriceAtPurchase(product.getSellingPrice());
+            order.getOrderItems().add(item);
+        }
+        return order;
+    }
+
+    @Configuration
+    @ComponentScan(basePackageClasses = ProductMapper.class)
+    static class Mappers {
+    }
+}
@@ -0,0 +1,145 @@
+package com.bangvan.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chạy toàn bộ migration trên PostgreSQL thật, seed dữ liệu đủ lớn rồi EXPLAIN các query
+ * trên hot path: planner phải chọn index của V4/V5 thay vì seq scan.
+ * Bảng orders/order_items là partitioned: index tạo trên bảng cha mang tên tự sinh ở từng partition
+ * ({partition}_{cột}_idx), nên so theo hậu tố tên cột.
+ */
+@JdbcTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.locations=classpath:db/migration",
+        // giống application-prod.yml: V4 dùng CREATE INDEX CONCURRENTLY
+        "spring.flyway.postgresql.transactional-lock=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class HotPathIndexPlanTests {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("""
+                INSERT INTO users (id, username, password, email, phone, first_name, last_name, enabled)
+                SELECT g, 'user' || g, 'secret', 'user' || g || '@vsv.test', '09' || lpad(g::text, 8, '0'), 'Test', 'User', true
+                FROM generate_series(1, 2000) g
+                """);
+        jdbcTemplate.execute("INSERT INTO sellers (id) SELECT g FROM generate_series(1, 50) g");
+        jdbcTemplate.execute("""
+                INSERT INTO addresses (id, full_name, phone_number, address, district, province, user_id)
+                SELECT g, 'User', '0900000000', '1 Le Loi', 'District 1', 'Ho Chi Minh', g
+                FROM generate_series(1, 2000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO categories (id, category_id, name, level)
+                SELECT g, 'cat-' || g, 'Category ' || g, 2 FROM generate_series(1, 100) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO products (id, title, price, selling_price, sold, category_id, seller_id)
+                SELECT g, 'Product ' || g, 200000 + g, 150000 + (g % 997) * 100, g % 500, g % 100 + 1, g % 50 + 1
+                FROM generate_series(1, 20000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO product_variants (id, sku, color, size, quantity, product_id)
+                SELECT g, 'SKU-' || g, 'Black', '40', 10, (g + 1) / 2 FROM generate_series(1, 40000) g
+                """);
+        jdbcTemplate.execute("INSERT INTO carts (id, user_id) SELECT g, g FROM generate_series(1, 2000) g");
+        jdbcTemplate.execute("""
+                INSERT INTO cart_items (id, cart_id, variant_id, quantity)
+                SELECT g, g % 2000 + 1, g * 2, 1 FROM generate_series(1, 20000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO notifications (id, user_id, seller_id, message, is_read)
+                SELECT g, g % 50 + 1, g % 50 + 1, 'Đơn hàng mới', g % 3 = 0 FROM generate_series(1, 20000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO orders (id, order_id, user_id, seller_id, shipping_address_id, total_price, order_status,
+                                    total_item, order_date)
+                SELECT g, 'ORDER-' || g, g % 2000 + 1, g % 50 + 1, g % 2000 + 1, 150000,
+                       (ARRAY['PENDING', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED'])[g % 5 + 1],
+                       2, now() - (g % 20) * INTERVAL '1 hour'
+                FROM generate_series(1, 40000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO order_items (id, order_id, order_date, variant_id, quantity)
+                SELECT g, o.id, o.order_date, g % 40000 + 1, 1
+                FROM generate_series(1, 80000) g
+                JOIN orders o ON o.id = (g + 1) / 2
+                """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void sellerActiveOrdersUseSellerStatusDateIndex() {
+        assertThat(explain("SELECT COUNT(*) FROM orders WHERE seller_id = 7 AND archived = false " +
+                "AND order_status IN ('PENDING', 'PROCESSING')"))
+                .contains("seller_id_order_status_order_date_idx");
+    }
+
+    @Test
+    void buyerOrdersUseUserDateIndex() {
+        assertThat(explain("SELECT id FROM orders WHERE user_id = 42 ORDER BY order_date DESC"))
+                .contains("user_id_order_date_idx");
+    }
+
+    @Test
+    void orderItemsOfAPageUseOrderIndex() {
+        assertThat(explain("SELECT * FROM order_items WHERE order_id IN (10, 20, 30, 40, 50)"))
+                .contains("order_id_idx");
+    }
+
+    @Test
+    void variantsOfProductsUseProductIndex() {
+        assertThat(explain("SELECT * FROM product_variants WHERE product_id IN (1, 2, 3)"))
+                .contains("idx_product_variants_product");
+    }
+
+    @Test
+    void cartLineLookupUsesCartVariantUniqueIndex() {
+        assertThat(explain("SELECT * FROM cart_items WHERE cart_id = 5 AND variant_id = 8008"))
+                .contains("uk_cart_items_cart_variant");
+    }
+
+    @Test
+    void categoryListingByPriceUsesCategoryPriceIndex() {
+        assertThat(explain("SELECT id FROM products WHERE category_id = 3 ORDER BY selling_price LIMIT 20"))
+                .contains("idx_products_category_selling_price");
+    }
+
+    @Test
+    void bestSellersUseSoldIndex() {
+        assertThat(explain("SELECT id FROM products ORDER BY sold DESC LIMIT 20"))
+                .contains("idx_products_sold");
+    }
+
+    @Test
+    void unreadSellerNotificationsUseSellerReadIndex() {
+        assertThat(explain("SELECT COUNT(*) FROM notifications WHERE seller_id = 3 AND is_read = false"))
+                .contains("idx_notifications_seller_read");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
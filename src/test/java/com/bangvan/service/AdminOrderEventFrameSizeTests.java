@@ -0,0 +1,133 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.response.order.OrderItemResponse;
+import com.bangvan.dto.response.order.OrderResponse;
+import com.bangvan.dto.response.product.ProductSnapshotResponse;
+import com.bangvan.dto.response.product.ProductVariantResponse;
+import com.bangvan.dto.response.user.AddressResponse;
+import com.bangvan.dto.response.user.UserResponse;
+import com.bangvan.dto.ws.AdminOrderEvent;
+import com.bangvan.dto.ws.SocketMessage;
+import com.bangvan.entity.Role;
+import com.bangvan.utils.OrderStatus;
+import com.bangvan.utils.SocketEventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kích thước frame Admin nhận cho cùng một lượng thay đổi đơn hàng:
+ * full OrderResponse trên /topic/admin/orders so với AdminOrderEvent gom batch trên /topic/admin/order-events.
+ */
+class AdminOrderEventFrameSizeTests {
+
+    private static final int ORDERS_IN_WINDOW = 20;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void compactEventIsAFractionOfTheFullOrderFrame() throws Exception {
+        int fullFrame = size(SocketMessage.of(SocketEventType.ADMIN_NEW_ORDER, orderResponse(1)));
+        int eventFrame = size(SocketMessage.of(SocketEventType.ADMIN_ORDER_EVENTS, List.of(event(1))));
+
+        System.out.printf("OrderResponse frame: %d bytes, single AdminOrderEvent batch frame: %d bytes%n", fullFrame, eventFrame);
+        assertThat(eventFrame * 4).isLessThan(fullFrame);
+    }
+
+    @Test
+    void oneBatchFrameIsSmallerThanTheLegacyFramesItReplaces() throws Exception {
+        int legacyBytes = 0;
+        List<AdminOrderEvent> events = new ArrayList<>();
+        for (long i = 1; i <= ORDERS_IN_WINDOW; i++) {
+            legacyBytes += size(SocketMessage.of(SocketEventType.ADMIN_NEW_ORDER, orderResponse(i)));
+            events.add(event(i));
+        }
+        int batchBytes = size(SocketMessage.of(SocketEventType.ADMIN_ORDER_EVENTS, events));
+
+        System.out.printf("%d orders: %d legacy frames = %d bytes, one batch frame = %d bytes%n",
+                ORDERS_IN_WINDOW, ORDERS_IN_WINDOW, legacyBytes, batchBytes);
+        assertThat(batchBytes * 5).isLessThan(legacyBytes);
+    }
+
+    private int size(Object frame) throws Exception {
+        return objectMapper.writeValueAsBytes(frame).length;
+    }
+
+    private static AdminOrderEvent event(long id) {
+        return AdminOrderEvent.builder()
+                .type(SocketEventType.ADMIN_NEW_ORDER)
+                .id(id)
+                .orderId("ORD" + (1_000_000_000L + id))
+                .orderStatus(OrderStatus.PENDING)
+                .totalPrice(new BigDecimal("1259000.00"))
+                .totalItem(3)
+                .sellerId(12L)
+                .sellerName("Giày Sneaker Hà Nội")
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Đơn điển hình: buyer kèm role, địa chỉ giao hàng và 3 item.
+     */
+    private static OrderResponse orderResponse(long id) {
+        Role role = new Role();
+        role.setId(2L);
+        role.setName("ROLE_USER");
+        role.setDescription("Customer");
+        UserResponse user = UserResponse.builder()
+                .id(42L).username("nguyenvana").email("nguyenvana@example.com").phone("0901234567")
+                .firstName("Văn A").lastName("Nguyễn").avatar("https://res.cloudinary.com/vsv/image/upload/v1/avatars/42.jpg")
+                .birthDate(LocalDate.of(1995, 5, 20)).enabled(true).roles(Set.of(role))
+                .build();
+
+        AddressResponse address = new AddressResponse();
+        address.setId(7L);
+        address.setFullName("Nguyễn Văn A");
+        address.setPhoneNumber("0901234567");
+        address.setEmail("nguyenvana@example.com");
+        address.setAddress("12 Lê Lợi, Phường Bến Nghé");
+        address.setDistrict("Quận 1");
+        address.setProvince("Hồ Chí Minh");
+        address.setCountry("Việt Nam");
+
+        List<OrderItemResponse> items = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            OrderItemResponse item = new OrderItemResponse();
+            item.setId(id * 10 + i);
+            item.setProduct(ProductSnapshotResponse.builder()
+                    .id(100 + i).title("Giày chạy bộ nam mẫu " + i)
+                    .image("https://res.cloudinary.com/vsv/image/upload/v1/products/" + (100 + i) + ".jpg")
+                    .price(new BigDecimal("499000.00")).sellingPrice(new BigDecimal("419000.00"))
+                    .build());
+            item.setVariant(ProductVariantResponse.builder()
+                    .id(1000 + i).color("Đen").size("42").quantity(25).sold(130).sku("SKU-" + (1000 + i))
+                    .build());
+            item.setProductTitle("Giày chạy bộ nam mẫu " + i);
+            item.setVariantSku("SKU-" + (1000 + i));
+            item.setColor("Đen");
+            item.setSize("42");
+            item.setImageUrl("https://res.cloudinary.com/vsv/image/upload/v1/products/" + (100 + i) + ".jpg");
+            item.setQuantity(1);
+            item.setPriceAtPurchase(new BigDecimal("499000.00"));
+            item.setSellingPriceAtPurchase(new BigDecimal("419000.00"));
+            item.setIsReviewed(false);
+            items.add(item);
+        }
+
+        return new OrderResponse(id, "ORD" + (1_000_000_000L + id), user, address, new BigDecimal("1259000.00"),
+                OrderStatus.PENDING, 3, LocalDateTime.now(), null, items);
+    }
+}
@@ -0,0 +1,176 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.cart.CartLine;
+import com.bangvan.dto.cart.CartSnapshot;
+import com.bangvan.dto.cart.PricedLine;
+import com.bangvan.dto.request.cart.UpdateCartItemRequest;
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.dto.response.product.ProductVariantResponse;
+import com.bangvan.entity.User;
+import com.bangvan.mapper.ProductMapperImpl;
+import com.bangvan.repository.CouponRepository;
+import com.bangvan.repository.UserRepository;
+import com.bangvan.service.impl.CartItemServiceImpl;
+import com.bangvan.service.impl.CartPricingServiceImpl;
+import com.bangvan.service.impl.CartServiceImpl;
+import com.bangvan.utils.MoneyUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cart 200 dòng: định giá lại toàn bộ (xem cart) so với chỉ định giá dòng vừa sửa (update item)
+ * và cộng tổng từ giá đã lưu (gợi ý coupon).
+ */
+class CartRepricingBenchmarkTests {
+
+    private static final int LINES = 200;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1_000;
+    private static final Principal PRINCIPAL = () -> "alice";
+    private static final long UNIT_PRICE = MoneyUtil.toMinor(new BigDecimal("499000.00"));
+    private static final long UNIT_SELLING_PRICE = MoneyUtil.toMinor(new BigDecimal("419000.00"));
+
+    private ProductService productService;
+    private CartStoreService cartStoreService;
+    private CartService cartService;
+    private CartItemService cartItemService;
+    private final List<ProductResponse> products = new ArrayList<>();
+    // mock stubOnly để Mockito không ghi lại hàng nghìn lần gọi trong lúc đo; số lần load product đếm riêng
+    private final AtomicInteger productLoads = new AtomicInteger();
+    private final List<Collection<PricedLine>> savedPrices = new ArrayList<>();
+
+    @BeforeEach
+    void cartWithTwoHundredPricedLines() {
+        for (long i = 1; i <= LINES; i++) {
+            products.add(product(i));
+        }
+        productService = mock(ProductService.class, withSettings().stubOnly());
+        when(productService.getProductsByIds(anyList())).thenAnswer(invocation -> {
+            productLoads.addAndGet(invocation.<List<Long>>getArgument(0).size());
+            return products;
+        });
+        when(productService.getProductById(anyLong())).thenAnswer(invocation -> {
+            productLoads.incrementAndGet();
+            return products.get(invocation.<Long>getArgument(0).intValue() - 1);
+        });
+
+        cartStoreService = mock(CartStoreService.class, withSettings().stubOnly());
+        when(cartStoreService.load("alice")).thenAnswer(invocation -> snapshot());
+        doAnswer(invocation -> savedPrices.add(new ArrayList<>(invocation.<Collection<PricedLine>>getArgument(1))))
+                .when(cartStoreService).savePrices(eq("alice"), anyCollection());
+
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        CouponIndexService couponIndexService = mock(CouponIndexService.class, withSettings().stubOnly());
+        when(couponIndexService.findApplicableCoupons(anyLong())).thenReturn(List.of());
+
+        CartPricingService cartPricingService = new CartPricingServiceImpl();
+        ProductMapperImpl productMapper = new ProductMapperImpl();
+        cartService = new CartServiceImpl(userRepository, mock(CouponRepository.class), cartStoreService, productService,
+                cartPricingService, couponIndexService, productMapper);
+        cartItemService = new CartItemServiceImpl(cartStoreService, cartService, productService, cartPricingService, productMapper);
+    }
+
+    @Test
+    void updatingOneLineRepricesOnlyThatLine() {
+        UpdateCartItemRequest request = new UpdateCartItemRequest();
+        request.setQuantity(2);
+
+        long fullNanos = measure(() -> cartService.findCartByUser(PRINCIPAL));
+        long updateNanos = measure(() -> cartItemService.updateCartItem(PRINCIPAL, 1000L + LINES / 2, request));
+        System.out.printf("%d-line cart: full reprice %,d ns/op, single line update %,d ns/op%n", LINES, fullNanos, updateNanos);
+
+        productLoads.set(0);
+        cartItemService.updateCartItem(PRINCIPAL, 1000L + LINES / 2, request);
+        assertThat(productLoads).hasValue(1);
+        assertThat(updateNanos).isLessThan(fullNanos);
+    }
+
+    @Test
+    void couponTotalsUseStoredLinePrices() {
+        long fullNanos = measure(() -> cartService.findCartByUser(PRINCIPAL));
+        long totalsNanos = measure(() -> cartService.suggestBestCoupon(PRINCIPAL));
+        System.out.printf("%d-line cart: full reprice %,d ns/op, totals from stored prices %,d ns/op%n", LINES, fullNanos, totalsNanos);
+
+        productLoads.set(0);
+        cartService.suggestBestCoupon(PRINCIPAL);
+        assertThat(productLoads).hasValue(0);
+        assertThat(totalsNanos).isLessThan(fullNanos);
+    }
+
+    @Test
+    void fullRepriceStoresOnlyChangedPrices() {
+        products.get(0).setSellingPrice(new BigDecimal("379000.00"));
+
+        cartService.findCartByUser(PRINCIPAL);
+
+        assertThat(productLoads).hasValue(LINES);
+        assertThat(savedPrices).singleElement()
+                .satisfies(lines -> assertThat(lines).extracting(PricedLine::getVariantId).containsExactly(1001L));
+    }
+
+    private static long measure(Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    /**
+     * Cart trong Redis: mỗi dòng là một product khác nhau, giá đã lưu khớp giá hiện tại của product.
+     */
+    private CartSnapshot snapshot() {
+        CartSnapshot cart = CartSnapshot.builder().cartId(1L).build();
+        for (ProductResponse product : products) {
+            cart.getLines().add(CartLine.builder()
+                    .variantId(1000L + product.getId())
+                    .productId(product.getId())
+                    .quantity(1)
+                    .addedAt(product.getId())
+                    .unitPrice(UNIT_PRICE)
+                    .unitSellingPrice(UNIT_SELLING_PRICE)
+                    .build());
+        }
+        return cart;
+    }
+
+    private static ProductResponse product(long id) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setTitle("Giày chạy bộ nam mẫu " + id);
+        product.setPrice(new BigDecimal("499000.00"));
+        product.setSellingPrice(new BigDecimal("419000.00"));
+        product.setImages(List.of("https://res.cloudinary.com/vsv/image/upload/v1/products/" + id + ".jpg"));
+        Set<ProductVariantResponse> variants = Set.of(ProductVariantResponse.builder()
+                .id(1000L + id).color("Đen").size("42").quantity(25).sold(130).sku("SKU-" + (1000 + id))
+                .build());
+        product.setVariants(variants);
+        return product;
+    }
+}
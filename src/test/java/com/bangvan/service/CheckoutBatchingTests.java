@@ -0,0 +1,105 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.request.order.CreateOrderRequest;
+import com.bangvan.dto.response.order.OrderResponse;
+import com.bangvan.entity.*;
+import com.bangvan.service.impl.CartPricingServiceImpl;
+import com.bangvan.service.impl.OrderServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checkout cart 30 item của 5 seller với cấu hình batch như application-prod.yml:
+ * id lấy từ sequence (pooled) nên INSERT order/order item/payment order được gom batch.
+ * In ra thời gian checkout và số câu SQL.
+ */
+@Import({OrderServiceImpl.class, CartPricingServiceImpl.class, StatementCountTestSupport.MapperConfig.class})
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.jdbc.batch_versioned_data=true",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+class CheckoutBatchingTests extends StatementCountTestSupport {
+
+    private static final int SELLERS = 5;
+    private static final int ITEMS_PER_SELLER = 6;
+    private static final AtomicLong ORDER_NUMBER = new AtomicLong(1_000_000_000L);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private CartStoreService cartStoreService;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private RealtimeMessagingService realtimeMessagingService;
+
+    @MockBean
+    private AdminOrderEventService adminOrderEventService;
+
+    @MockBean
+    private SalesRankingService salesRankingService;
+
+    @MockBean
+    private OrderSummaryService orderSummaryService;
+
+    @MockBean
+    private OrderIdGenerator orderIdGenerator;
+
+    @Test
+    void thirtyItemMultiSellerCheckoutBatchesItsInserts() {
+        when(orderIdGenerator.nextOrderId()).thenAnswer(invocation -> "ORD" + ORDER_NUMBER.incrementAndGet());
+        User buyer = persistUser("checkout-buyer");
+        Address address = persistAddress(buyer);
+        Category category = persistCategory();
+        Cart cart = new Cart();
+        cart.setUser(buyer);
+        for (int s = 0; s < SELLERS; s++) {
+            Seller seller = persistSeller("checkout-seller-" + s);
+            for (int i = 0; i < ITEMS_PER_SELLER; i++) {
+                CartItem item = new CartItem();
+                item.setCart(cart);
+                item.setVariant(persistProduct(seller, category, 1).getVariants().iterator().next());
+                item.setQuantity(1);
+                cart.getCartItems().add(item);
+            }
+        }
+        entityManager.persist(cart);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<OrderResponse>[] orders = new List[1];
+        long start = System.nanoTime();
+        long statements = countStatements(() -> orders[0] = orderService.createOrder(
+                new CreateOrderRequest(address.getId(), null), buyer::getUsername));
+        entityManager.flush();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long inserts = statistics.getEntityInsertCount();
+        System.out.printf("Checkout of %d items from %d sellers: %d ms, %d statements for %d inserted rows%n",
+                SELLERS * ITEMS_PER_SELLER, SELLERS, elapsedMillis, statements, inserts);
+
+        assertThat(orders[0]).hasSize(SELLERS);
+        // order item, order, payment order, order number
+        assertThat(inserts).isEqualTo(SELLERS * ITEMS_PER_SELLER + 3L * SELLERS);
+        // mỗi item một UPDATE trừ kho và một UPDATE sold; INSERT gom batch theo bảng nên không cộng thêm một câu mỗi dòng
+        assertThat(statements).isLessThan(inserts + 2L * SELLERS * ITEMS_PER_SELLER);
+    }
+}
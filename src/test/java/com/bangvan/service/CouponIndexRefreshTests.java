@@ -0,0 +1,85 @@
+package com.bangvan.service;
+
+import com.bangvan.entity.Coupon;
+import com.bangvan.repository.CouponRepository;
+import com.bangvan.service.impl.CouponIndexServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * markExhausted không nạp lại index trên thread request, và node publish bỏ qua message của chính nó.
+ */
+class CouponIndexRefreshTests {
+
+    private CouponRepository couponRepository;
+    private RedisTemplate<String, String> redisTemplate;
+    private ThreadPoolTaskScheduler taskScheduler;
+    private CouponIndexService couponIndexService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void indexWithOneCoupon() {
+        Coupon coupon = new Coupon();
+        coupon.setId(1L);
+        coupon.setCode("SALE10");
+        coupon.setDiscountPercentage(new BigDecimal("10"));
+        coupon.setMinOrderValue(BigDecimal.ZERO);
+        coupon.setStartDate(LocalDate.now().minusDays(1));
+        coupon.setEndDate(LocalDate.now().plusDays(1));
+        couponRepository = mock(CouponRepository.class);
+        when(couponRepository.findAllByIsActiveTrueAndEndDateGreaterThanEqual(any(LocalDate.class))).thenReturn(List.of(coupon));
+        redisTemplate = mock(RedisTemplate.class);
+        taskScheduler = mock(ThreadPoolTaskScheduler.class);
+        couponIndexService = new CouponIndexServiceImpl(couponRepository, redisTemplate, taskScheduler);
+        couponIndexService.refresh();
+        clearInvocations(couponRepository);
+    }
+
+    @Test
+    void exhaustedCouponIsHiddenAtOnceAndPublishedOffTheRequestThread() {
+        couponIndexService.markExhausted(1L);
+
+        assertThat(couponIndexService.findApplicableCoupons(100_000L)).isEmpty();
+        verify(couponRepository, never()).findAllByIsActiveTrueAndEndDateGreaterThanEqual(any());
+        verify(redisTemplate, never()).convertAndSend(any(), any());
+        ArgumentCaptor<Runnable> publish = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).execute(publish.capture());
+
+        publish.getValue().run();
+        verify(redisTemplate).convertAndSend(eq(CouponIndexServiceImpl.REFRESH_CHANNEL), any(String.class));
+    }
+
+    @Test
+    void ownRefreshMessageIsSkipped() {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(taskScheduler).execute(any(Runnable.class));
+        couponIndexService.markExhausted(1L);
+        ArgumentCaptor<String> publisher = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CouponIndexServiceImpl.REFRESH_CHANNEL), publisher.capture());
+
+        couponIndexService.onRefreshMessage(publisher.getValue());
+        verify(couponRepository, never()).findAllByIsActiveTrueAndEndDateGreaterThanEqual(any());
+
+        couponIndexService.onRefreshMessage("another-node");
+        verify(couponRepository).findAllByIsActiveTrueAndEndDateGreaterThanEqual(any());
+    }
+}
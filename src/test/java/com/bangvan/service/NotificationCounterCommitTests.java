@@ -0,0 +1,91 @@
+package com.bangvan.service;
+
+import com.bangvan.entity.Notification;
+import com.bangvan.entity.User;
+import com.bangvan.repository.NotificationRepository;
+import com.bangvan.repository.UserRepository;
+import com.bangvan.service.impl.NotificationServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counter notification được đánh dấu pending trước commit và chỉ nhả sau HINCRBY,
+ * để lần seed từ DB chạy xen giữa không làm đếm hai lần.
+ */
+class NotificationCounterCommitTests {
+
+    private static final List<String> COUNTER_KEYS = List.of(
+            "notification:counter:7", "notification:counter-gen:7", "notification:counter-pending:7");
+
+    private RedisTemplate<String, String> redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private NotificationService notificationService;
+    private final User user = new User();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void transactionInProgress() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        NotificationRepository notificationRepository = mock(NotificationRepository.class);
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        notificationService = new NotificationServiceImpl(notificationRepository, mock(UserRepository.class),
+                mock(RealtimeMessagingService.class), mock(WebSocketSessionRegistry.class),
+                mock(NotificationInboxService.class), redisTemplate);
+        user.setId(7L);
+        user.setUsername("alice");
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void counterIsPendingFromBeforeCommitUntilItIsIncremented() {
+        notificationService.sendNotificationToUser(user, "Đơn hàng đã giao", "/orders");
+        verifyNoInteractions(redisTemplate);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        InOrder order = inOrder(redisTemplate);
+        order.verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("notification:counter-pending:7")), anyString());
+        order.verify(redisTemplate).execute(any(RedisScript.class), eq(COUNTER_KEYS), eq("1"), eq("1"), anyString(), eq("1"));
+    }
+
+    @Test
+    void rollbackOnlyReleasesThePendingMark() {
+        notificationService.sendNotificationToUser(user, "Đơn hàng đã giao", "/orders");
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(valueOperations).decrement("notification:counter-pending:7");
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(COUNTER_KEYS), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,63 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.response.notification.NotificationResponse;
+import com.bangvan.service.impl.NotificationInboxServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Inbox chỉ bị xóa khi frame đã được giao cho một node đang giữ session của user.
+ */
+class NotificationInboxDeliveryTests {
+
+    private RedisTemplate<String, String> redisTemplate;
+    private RealtimeMessagingService realtimeMessagingService;
+    private NotificationInboxService inboxService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void inboxWithOneNotification() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        redisTemplate = mock(RedisTemplate.class);
+        ListOperations<String, String> listOperations = mock(ListOperations.class);
+        when(redisTemplate.opsForList()).thenReturn(listOperations);
+        when(listOperations.range("notification:inbox:alice", 0, -1)).thenReturn(List.of(
+                objectMapper.writeValueAsString(NotificationResponse.builder().id(1L).message("Đơn hàng đã giao").build())));
+        realtimeMessagingService = mock(RealtimeMessagingService.class);
+        inboxService = new NotificationInboxServiceImpl(redisTemplate, realtimeMessagingService, objectMapper);
+    }
+
+    @Test
+    void keepsTheInboxWhenNoNodeReceivedTheFrame() {
+        when(realtimeMessagingService.sendToUser(eq("alice"), anyString(), anyList())).thenReturn(false);
+
+        inboxService.deliverPending("alice");
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void removesDeliveredEntries() {
+        when(realtimeMessagingService.sendToUser(eq("alice"), anyString(), anyList())).thenReturn(true);
+
+        inboxService.deliverPending("alice");
+
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+}
@@ -0,0 +1,83 @@
+package com.bangvan.service;
+
+import com.bangvan.service.impl.OrderIdGeneratorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Node id lease của OrderIdGenerator: chỉ sinh mã khi lease chắc chắn còn hạn.
+ */
+class OrderIdGeneratorLeaseTests {
+
+    private static final long TTL_MILLIS = 400;
+    private static final long MARGIN_MILLIS = 200;
+
+    private RedisTemplate<String, String> redisTemplate;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void leaseAvailable() {
+        redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment(anyString())).thenReturn(7L);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @Test
+    void stopsGeneratingOnceTheLeaseWasNotRenewedInTime() throws InterruptedException {
+        OrderIdGenerator generator = new OrderIdGeneratorImpl(redisTemplate, null, TTL_MILLIS, MARGIN_MILLIS);
+        assertThat(generator.nextOrderId()).hasSize(13);
+
+        // renew không chạy (scheduler bị chặn / Redis lỗi): quá TTL - margin thì từ chối
+        Thread.sleep(TTL_MILLIS - MARGIN_MILLIS + 50);
+
+        assertThatThrownBy(generator::nextOrderId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void successfulRenewExtendsTheLease() throws InterruptedException {
+        OrderIdGeneratorImpl generator = new OrderIdGeneratorImpl(redisTemplate, null, TTL_MILLIS, MARGIN_MILLIS);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(1L);
+
+        Thread.sleep(TTL_MILLIS - MARGIN_MILLIS + 50);
+        generator.renewLease();
+
+        assertThat(generator.nextOrderId()).hasSize(13);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedRenewDoesNotExtendTheLease() throws InterruptedException {
+        OrderIdGeneratorImpl generator = new OrderIdGeneratorImpl(redisTemplate, null, TTL_MILLIS, MARGIN_MILLIS);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenThrow(new IllegalStateException("Redis down"));
+
+        Thread.sleep(TTL_MILLIS - MARGIN_MILLIS + 50);
+        generator.renewLease();
+
+        assertThatThrownBy(generator::nextOrderId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void configuredNodeIdNeedsNoLease() {
+        OrderIdGenerator generator = new OrderIdGeneratorImpl(redisTemplate, 3L, TTL_MILLIS, MARGIN_MILLIS);
+
+        assertThat(List.of(generator.nextOrderId(), generator.nextOrderId())).doesNotHaveDuplicates();
+    }
+}
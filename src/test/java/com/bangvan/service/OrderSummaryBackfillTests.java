@@ -0,0 +1,90 @@
+package com.bangvan.service;
+
+import com.bangvan.mapper.OrderMapper;
+import com.bangvan.repository.OrderRepository;
+import com.bangvan.repository.OrderSummaryRepository;
+import com.bangvan.service.impl.OrderSummaryServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Backfill order_summaries: quét toàn bộ một lần, sau đó chỉ quét đơn gần đây; lock được nhả bằng so token.
+ */
+class OrderSummaryBackfillTests {
+
+    private OrderSummaryRepository orderSummaryRepository;
+    private RedisTemplate<String, String> redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private OrderSummaryServiceImpl orderSummaryService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void noMissingSummaries() {
+        orderSummaryRepository = mock(OrderSummaryRepository.class);
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        orderSummaryService = new OrderSummaryServiceImpl(orderSummaryRepository, mock(OrderRepository.class),
+                mock(OrderMapper.class), mock(TransactionTemplate.class), redisTemplate);
+        ReflectionTestUtils.setField(orderSummaryService, "backfillBatchSize", 200);
+        ReflectionTestUtils.setField(orderSummaryService, "backfillLockTtlMillis", 60_000L);
+        ReflectionTestUtils.setField(orderSummaryService, "backfillLookbackHours", 24L);
+    }
+
+    @Test
+    void firstSweepCoversAllOrdersAndMarksDone() {
+        when(redisTemplate.hasKey("order-summary:backfill:done")).thenReturn(false);
+
+        orderSummaryService.backfillMissingSummaries();
+
+        verify(orderSummaryRepository).findOrderIdsWithoutSummary(eq(0L), any(Pageable.class));
+        verify(valueOperations).set("order-summary:backfill:done", "1");
+    }
+
+    @Test
+    void laterSweepsOnlyCoverRecentOrders() {
+        when(redisTemplate.hasKey("order-summary:backfill:done")).thenReturn(true);
+
+        orderSummaryService.backfillMissingSummaries();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderSummaryRepository).findRecentOrderIdsWithoutSummary(eq(0L), since.capture(), any(Pageable.class));
+        assertThat(since.getValue()).isBefore(LocalDateTime.now().minusHours(23));
+        verify(orderSummaryRepository, never()).findOrderIdsWithoutSummary(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releasesTheLockOnlyWithItsOwnToken() {
+        when(redisTemplate.hasKey("order-summary:backfill:done")).thenReturn(true);
+
+        orderSummaryService.backfillMissingSummaries();
+
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).setIfAbsent(eq("order-summary:backfill:lock"), token.capture(), any(Duration.class));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("order-summary:backfill:lock")), eq(token.getValue()));
+        verify(redisTemplate, never()).delete("order-summary:backfill:lock");
+    }
+}
@@ -0,0 +1,111 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.service.impl.ProductViewServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chi phí recordView thêm vào GET /api/products/{id}, so với một lần đọc product từ cache in-memory
+ * (mức rẻ nhất có thể của đường đọc đã cache; cache productDetails thật là Redis nên còn đắt hơn).
+ */
+class ProductViewOverheadTests {
+
+    private static final int PRODUCTS = 1_000;
+    private static final int THREADS = 8;
+    private static final int VIEWS_PER_THREAD = 500_000;
+
+    private RedisTemplate<String, String> redisTemplate;
+    private ProductViewServiceImpl productViewService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void emptyCounters() {
+        redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForHash()).thenReturn(mock(HashOperations.class));
+        when(redisTemplate.opsForZSet()).thenReturn(mock(ZSetOperations.class));
+        productViewService = new ProductViewServiceImpl(redisTemplate, mock(ProductService.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void recordViewStaysInMemory() {
+        Cache productDetails = new ConcurrentMapCache("productDetails");
+        for (long id = 0; id < PRODUCTS; id++) {
+            ProductResponse product = new ProductResponse();
+            product.setId(id);
+            productDetails.put(id, product);
+        }
+
+        long readNanos = measure(i -> productDetails.get((long) (i % PRODUCTS), ProductResponse.class));
+        long recordNanos = measure(i -> productViewService.recordView((long) (i % PRODUCTS)));
+        System.out.printf("recordView %,d ns/op, in-memory cached product read %,d ns/op%n", recordNanos, readNanos);
+
+        // không chạm Redis trên hot path; ngưỡng rộng để máy CI chậm không làm test chập chờn
+        verifyNoInteractions(redisTemplate);
+        assertThat(recordNanos).isLessThan(1_000);
+    }
+
+    @Test
+    void concurrentViewsAreCountedWithoutLossAndFlushedInOnePipeline() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                    productViewService.recordView((long) (i % PRODUCTS));
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        System.out.printf("%d threads: %,d ns wall-clock per recordView per thread%n",
+                THREADS, elapsed / VIEWS_PER_THREAD);
+
+        long total = 0;
+        for (long id = 0; id < PRODUCTS; id++) {
+            total += productViewService.getViewStats(id).getViews();
+        }
+        assertThat(total).isEqualTo((long) THREADS * VIEWS_PER_THREAD);
+
+        productViewService.flush();
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    private static long measure(IntConsumer operation) {
+        int iterations = 2_000_000;
+        for (int i = 0; i < iterations; i++) {
+            operation.accept(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.accept(i);
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+}
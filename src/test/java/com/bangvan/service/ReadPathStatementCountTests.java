@@ -0,0 +1,154 @@
+package com.bangvan.service;
+
+import com.bangvan.entity.*;
+import com.bangvan.service.impl.CartPricingServiceImpl;
+import com.bangvan.service.impl.CartServiceImpl;
+import com.bangvan.service.impl.CartStoreServiceImpl;
+import com.bangvan.service.impl.OrderServiceImpl;
+import com.bangvan.service.impl.ProductServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Số câu SQL của product detail, product listing, cart view và order list không phụ thuộc số dòng/số item.
+ */
+@Import({ProductServiceImpl.class, OrderServiceImpl.class, CartServiceImpl.class, CartStoreServiceImpl.class,
+        CartPricingServiceImpl.class, StatementCountTestSupport.MapperConfig.class})
+class ReadPathStatementCountTests extends StatementCountTestSupport {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @MockBean
+    private ModelMapper modelMapper;
+
+    @MockBean
+    private GenericJackson2JsonRedisSerializer cacheValueSerializer;
+
+    @MockBean
+    private CouponIndexService couponIndexService;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private RealtimeMessagingService realtimeMessagingService;
+
+    @MockBean
+    private AdminOrderEventService adminOrderEventService;
+
+    @MockBean
+    private SalesRankingService salesRankingService;
+
+    @MockBean
+    private OrderSummaryService orderSummaryService;
+
+    @MockBean
+    private OrderIdGenerator orderIdGenerator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void emptyRedisCart() {
+        // cart chưa có trong Redis: CartStoreService nạp từ DB
+        when(stringRedisTemplate.opsForHash()).thenReturn(mock(HashOperations.class));
+    }
+
+    @Test
+    void productDetailIsOneQueryPlusRating() {
+        Seller seller = persistSeller("detail-seller");
+        Category category = persistCategory();
+        Product single = persistProduct(seller, category, 1);
+        Product many = persistProduct(seller, category, 5);
+
+        long singleVariant = countStatements(() -> productService.getProductById(single.getId()));
+        long manyVariants = countStatements(() -> productService.getProductById(many.getId()));
+
+        // product + category + seller + variants + images trong một query, rating một query
+        assertThat(singleVariant).isEqualTo(2);
+        assertThat(manyVariants).isEqualTo(singleVariant);
+    }
+
+    @Test
+    void productListingDoesNotGrowWithPageSize() {
+        Category category = persistCategory();
+        for (int i = 0; i < 6; i++) {
+            persistProduct(persistSeller("listing-seller-" + i), category, 2);
+        }
+
+        long smallPage = countStatements(() -> productService.getAllProducts(
+                null, null, null, null, null, null, null, null, PageRequest.of(0, 2, Sort.by("id"))));
+        long fullPage = countStatements(() -> productService.getAllProducts(
+                null, null, null, null, null, null, null, null, PageRequest.of(0, 6, Sort.by("id"))));
+
+        // trang + count, variants và images theo batch, rating gộp
+        assertThat(smallPage).isLessThanOrEqualTo(5);
+        assertThat(fullPage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void cartViewDoesNotGrowWithLineCount() {
+        Category category = persistCategory();
+        Seller seller = persistSeller("cart-seller");
+        User oneLine = persistCartOwner("cart-one-line", seller, category, 1);
+        User manyLines = persistCartOwner("cart-many-lines", seller, category, 4);
+
+        long single = countStatements(() -> cartService.findCartByUser(oneLine::getUsername));
+        long many = countStatements(() -> cartService.findCartByUser(manyLines::getUsername));
+
+        // user, cart + items + variant, product theo batch, rating gộp
+        assertThat(single).isLessThanOrEqualTo(4);
+        assertThat(many).isEqualTo(single);
+    }
+
+    @Test
+    void orderListDoesNotGrowWithPageSize() {
+        Category category = persistCategory();
+        Seller seller = persistSeller("order-seller");
+        User buyer = persistUser("order-buyer");
+        Address address = persistAddress(buyer);
+        for (int i = 0; i < 6; i++) {
+            persistOrder(buyer, seller, address, persistProduct(seller, category, 2));
+        }
+
+        long smallPage = countStatements(() -> orderService.findAllOrders(PageRequest.of(0, 2, Sort.by("id"))));
+        long fullPage = countStatements(() -> orderService.findAllOrders(PageRequest.of(0, 6, Sort.by("id"))));
+
+        // trang id + count, rồi một query load đơn kèm user, địa chỉ, items và variant
+        assertThat(smallPage).isEqualTo(3);
+        assertThat(fullPage).isEqualTo(smallPage);
+    }
+
+    private User persistCartOwner(String username, Seller seller, Category category, int lineCount) {
+        User user = persistUser(username);
+        Cart cart = new Cart();
+        cart.setUser(user);
+        for (int i = 0; i < lineCount; i++) {
+            Product product = persistProduct(seller, category, 1);
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setVariant(product.getVariants().iterator().next());
+            item.setQuantity(1);
+            cart.getCartItems().add(item);
+        }
+        entityManager.persist(cart);
+        return user;
+    }
+}
@@ -0,0 +1,135 @@
+package com.bangvan.service;
+
+import com.bangvan.entity.Order;
+import com.bangvan.entity.OrderItem;
+import com.bangvan.entity.Product;
+import com.bangvan.entity.ProductVariant;
+import com.bangvan.repository.CategoryRepository;
+import com.bangvan.repository.ProductRepository;
+import com.bangvan.service.impl.SalesRankingServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ZSET toàn thời gian được dựng lại từ products.sold khi chưa có cờ rebuilt hoặc sau khi ghi increment lỗi.
+ */
+class SalesRankingRebuildTests {
+
+    private ProductRepository productRepository;
+    private RedisTemplate<String, String> redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private RedisZSetCommands zSetCommands;
+    private RedisKeyCommands keyCommands;
+    private SalesRankingServiceImpl salesRankingService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void oneSoldProductInANestedCategory() {
+        productRepository = mock(ProductRepository.class);
+        // product 1: bán 5, seller 3, category 20 (cha là 10)
+        when(productRepository.findSoldAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 5, 3L, 20L}));
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findParentIds()).thenReturn(List.of(new Object[]{20L, 10L}, new Object[]{10L, null}));
+
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        RedisConnection connection = mock(RedisConnection.class);
+        zSetCommands = mock(RedisZSetCommands.class);
+        keyCommands = mock(RedisKeyCommands.class);
+        when(connection.zSetCommands()).thenReturn(zSetCommands);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return List.of();
+        });
+
+        salesRankingService = new SalesRankingServiceImpl(redisTemplate, mock(ProductService.class),
+                productRepository, categoryRepository);
+        ReflectionTestUtils.setField(salesRankingService, "rebuildBatchSize", 500);
+        ReflectionTestUtils.setField(salesRankingService, "rebuildLockTtlMillis", 60_000L);
+        ReflectionTestUtils.setField(salesRankingService, "rebuildIntervalMillis", 3_600_000L);
+    }
+
+    @Test
+    void missingFlagRebuildsEveryScopeFromSoldAndMarksRebuilt() {
+        when(redisTemplate.hasKey("ranking:sold:rebuilt")).thenReturn(false);
+
+        salesRankingService.rebuildAllTimeRankings();
+
+        for (String scope : List.of("all", "seller:3", "category:20", "category:10")) {
+            verify(zSetCommands).zAdd(argThat(key -> new String(key, StandardCharsets.UTF_8).endsWith(":" + scope)),
+                    eq(5.0), eq(bytes("1")));
+            verify(keyCommands).rename(argThat(key -> new String(key, StandardCharsets.UTF_8).startsWith("ranking:sold:rebuild:")),
+                    eq(bytes("ranking:sold:" + scope)));
+        }
+        verify(valueOperations).set("ranking:sold:rebuilt", "1", Duration.ofHours(1));
+    }
+
+    @Test
+    void rebuiltFlagSkipsTheRebuild() {
+        when(redisTemplate.hasKey("ranking:sold:rebuilt")).thenReturn(true);
+
+        salesRankingService.rebuildAllTimeRankings();
+
+        verify(productRepository, never()).findSoldAfter(anyLong(), any(Pageable.class));
+        verify(valueOperations, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lostIncrementTriggersARebuildEvenWithTheFlag() {
+        when(redisTemplate.hasKey("ranking:sold:rebuilt")).thenReturn(true);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new IllegalStateException("Redis down"))
+                .thenReturn(List.of());
+
+        salesRankingService.recordOrder(order());
+        salesRankingService.rebuildAllTimeRankings();
+
+        verify(productRepository).findSoldAfter(eq(0L), any(Pageable.class));
+        verify(valueOperations).set("ranking:sold:rebuilt", "1", Duration.ofHours(1));
+    }
+
+    private static Order order() {
+        Product product = new Product();
+        product.setId(1L);
+        ProductVariant variant = new ProductVariant();
+        variant.setProduct(product);
+        OrderItem item = new OrderItem();
+        item.setVariant(variant);
+        item.setQuantity(2);
+        Order order = new Order();
+        order.setOrderId("ORD1000000001");
+        order.getOrderItems().add(item);
+        return order;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,189 @@
+package com.bangvan.service;
+
+import com.bangvan.dto.response.product.ProductCardResponse;
+import com.bangvan.dto.response.product.ProductResponse;
+import com.bangvan.entity.*;
+import com.bangvan.mapper.ProductMapper;
+import com.bangvan.utils.OrderStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Đếm số câu SQL một read path phát ra (Hibernate Statistics) trên profile test (H2).
+ * Association đều LAZY và OSIV tắt: N+1 hoặc LazyInitializationException sẽ lộ ra ở đây.
+ * Redis được mock, cache productDetails luôn miss để đo đường đọc DB.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+abstract class StatementCountTestSupport {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    protected RedisTemplate<String, String> stringRedisTemplate;
+
+    @MockBean
+    protected DealIndexService dealIndexService;
+
+    @BeforeEach
+    void applyNoDeal() {
+        when(dealIndexService.applyDeal(any(ProductResponse.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(dealIndexService.applyDeal(any(ProductCardResponse.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(dealIndexService.resolveSellingPrice(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    /**
+     * Ghi dữ liệu đã seed xuống DB, xóa persistence context rồi đếm số câu SQL của action.
+     */
+    protected long countStatements(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    protected User persistUser(String username) {
+        int n = SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setEmail(username + "@vsv.test");
+        user.setPhone("09" + String.format("%08d", n));
+        user.setFirstName("Test");
+        user.setLastName(username);
+        user.setEnabled(true);
+        return entityManager.persist(user);
+    }
+
+    protected Seller persistSeller(String username) {
+        Seller seller = new Seller();
+        seller.setUser(persistUser(username));
+        return entityManager.persist(seller);
+    }
+
+    protected Category persistCategory() {
+        int n = SEQUENCE.incrementAndGet();
+        Category parent = new Category();
+        parent.setCategoryId("root-" + n);
+        parent.setName("Root " + n);
+        parent.setLevel(1);
+        entityManager.persist(parent);
+
+        Category category = new Category();
+        category.setCategoryId("leaf-" + n);
+        category.setName("Leaf " + n);
+        category.setLevel(2);
+        category.setParentCategory(parent);
+        return entityManager.persist(category);
+    }
+
+    protected Product persistProduct(Seller seller, Category category, int variantCount) {
+        int n = SEQUENCE.incrementAndGet();
+        Product product = new Product();
+        product.setTitle("Product " + n);
+        product.setDescription("Description " + n);
+        product.setPrice(BigDecimal.valueOf(200000));
+        product.setSellingPrice(BigDecimal.valueOf(150000));
+        product.setSeller(seller);
+        product.setCategory(category);
+        product.getImages().add("https://img.vsv.test/" + n + ".jpg");
+        for (int i = 0; i < variantCount; i++) {
+            ProductVariant variant = new ProductVariant();
+            variant.setSku("SKU-" + n + "-" + i);
+            variant.setColor("Black");
+            variant.setSize(String.valueOf(38 + i));
+            variant.setQuantity(10);
+            variant.setProduct(product);
+            product.getVariants().add(variant);
+        }
+        return entityManager.persist(product);
+    }
+
+    protected Address persistAddress(User user) {
+        Address address = new Address();
+        address.setFullName(user.getUsername());
+        address.setPhoneNumber(user.getPhone());
+        address.setAddress("1 Le Loi");
+        address.setDistrict("District 1");
+        address.setProvince("Ho Chi Minh");
+        address.setUser(user);
+        return entityManager.persist(address);
+    }
+
+    protected Order persistOrder(User buyer, Seller seller, Address address, Product product) {
+        int n = SEQUENCE.incrementAndGet();
+        Order order = new Order();
+        order.setOrderId("TEST-" + n);
+        order.setUser(buyer);
+        order.setSeller(seller);
+        order.setShippingAddress(address);
+        order.setOrderStatus(OrderStatus.PENDING);
+        order.setOrderDate(LocalDateTime.now());
+        order.setTotalPrice(product.getSellingPrice());
+        order.setTotalItem(1);
+        for (ProductVariant variant : product.getVariants()) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setVariant(variant);
+            item.setOrderDate(order.getOrderDate());
+            item.setQuantity(1);
+            item.setProductTitle(product.getTitle());
+            item.setVariantSku(variant.getSku());
+            item.setPriceAtPurchase(product.getPrice());
+            item.setSellingPriceAtPurchase(product.getSellingPrice());
+            order.getOrderItems().add(item);
+        }
+        return entityManager.persist(order);
+    }
+
+    protected Transaction persistTransaction(Order order) {
+        Transaction transaction = new Transaction();
+        transaction.setOrder(order);
+        return entityManager.persist(transaction);
+    }
+
+    @TestConfiguration
+    @ComponentScan(basePackageClasses = ProductMapper.class)
+    static class MapperConfig {
+        // cache productDetails luôn miss: đo đường load từ DB
+        @Bean
+        CacheManager cacheManager() {
+            return new NoOpCacheManager();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
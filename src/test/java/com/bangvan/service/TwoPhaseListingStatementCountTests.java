@@ -0,0 +1,109 @@
+package com.bangvan.service;
+
+import com.bangvan.entity.*;
+import com.bangvan.service.impl.OrderServiceImpl;
+import com.bangvan.service.impl.TransactionServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listing hai bước (trang id + count, rồi load theo IN (...)): số câu SQL cố định, không phụ thuộc page size.
+ * findAllOrders nằm ở {@link ReadPathStatementCountTests}.
+ */
+@Import({OrderServiceImpl.class, TransactionServiceImpl.class, StatementCountTestSupport.MapperConfig.class})
+class TwoPhaseListingStatementCountTests extends StatementCountTestSupport {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @MockBean
+    private CartStoreService cartStoreService;
+
+    @MockBean
+    private CartPricingService cartPricingService;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private RealtimeMessagingService realtimeMessagingService;
+
+    @MockBean
+    private AdminOrderEventService adminOrderEventService;
+
+    @MockBean
+    private SalesRankingService salesRankingService;
+
+    @MockBean
+    private OrderSummaryService orderSummaryService;
+
+    @MockBean
+    private OrderIdGenerator orderIdGenerator;
+
+    @Test
+    void sellerOrdersDoNotGrowWithPageSize() {
+        Seller seller = persistSeller("seller-orders");
+        seedOrders("seller-orders-buyer", seller);
+        Principal principal = seller.getUser()::getUsername;
+
+        long smallPage = countStatements(() -> orderService.getSellerOrders(principal, PageRequest.of(0, 2, Sort.by("id"))));
+        long fullPage = countStatements(() -> orderService.getSellerOrders(principal, PageRequest.of(0, 6, Sort.by("id"))));
+
+        // seller + trang id + count + một query load đơn
+        assertThat(smallPage).isEqualTo(4);
+        assertThat(fullPage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void allTransactionsDoNotGrowWithPageSize() {
+        seedOrders("all-transactions");
+
+        long smallPage = countStatements(() -> transactionService.getAllTransactions(PageRequest.of(0, 2, Sort.by("id"))));
+        long fullPage = countStatements(() -> transactionService.getAllTransactions(PageRequest.of(0, 6, Sort.by("id"))));
+
+        // trang id + count + transaction kèm order + user/địa chỉ/items của các order
+        assertThat(smallPage).isEqualTo(4);
+        assertThat(fullPage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void myTransactionsDoNotGrowWithPageSize() {
+        User buyer = seedOrders("my-transactions");
+        Principal principal = buyer::getUsername;
+
+        long smallPage = countStatements(() -> transactionService.getMyTransactions(principal, PageRequest.of(0, 2, Sort.by("id"))));
+        long fullPage = countStatements(() -> transactionService.getMyTransactions(principal, PageRequest.of(0, 6, Sort.by("id"))));
+
+        // user + trang id + count + transaction kèm order + user/địa chỉ/items của các order
+        assertThat(smallPage).isEqualTo(5);
+        assertThat(fullPage).isEqualTo(smallPage);
+    }
+
+    private User seedOrders(String buyerName) {
+        return seedOrders(buyerName, persistSeller(buyerName + "-seller"));
+    }
+
+    /**
+     * 6 đơn (mỗi đơn 2 item) kèm transaction cho một buyer.
+     */
+    private User seedOrders(String buyerName, Seller seller) {
+        Category category = persistCategory();
+        User buyer = persistUser(buyerName);
+        Address address = persistAddress(buyer);
+        for (int i = 0; i < 6; i++) {
+            persistTransaction(persistOrder(buyer, seller, address, persistProduct(seller, category, 2)));
+        }
+        return buyer;
+    }
+}